@@ -1,21 +1,28 @@
 package Agents;
 
+import Evaluator.BatchedNeuralNetworkLeafEvaluator;
+import Evaluator.FusedNeuralNetworkLeafEvaluator;
 import Evaluator.GameStateEvaluator;
+import Evaluator.MultiNeuralNetworkLeafEvaluator;
 import Evaluator.NeuralNetworkLeafEvaluator;
 import Evaluator.ParallelNeuralNetworkLeafEvaluator;
+import Evaluator.QuantizedNeuralNetworkLeafEvaluator;
 import MCTSStrategies.Backpropagation.DynamicEarlyTerminationBackprop;
 import MCTSStrategies.Backpropagation.FixedEarlyTerminationBackprop;
+import MCTSStrategies.Backpropagation.InitialNoPlayoutTerminationBackprop;
 import MCTSStrategies.FinalMoveSelection.RobustChild;
 import MCTSStrategies.Node.implicitNode;
 import MCTSStrategies.Node.implicitSolverNode;
 import MCTSStrategies.Node.solverNode;
 import MCTSStrategies.Playout.EpsilonGreedyPlayout;
 import MCTSStrategies.Selection.ImplicitUCT;
+import MCTSStrategies.TimeManagement.TimeManager;
 import MCTSStrategies.Wrapper.EpsilonGreedySolvedSelectionWrapper;
 import MCTSStrategies.Wrapper.TrainingPlayoutWrapper;
 import MCTSStrategies.Wrapper.TrainingSelectionWrapper;
 import MCTSStrategies.Wrapper.debugFinalSelectionWrapper;
 import game.Game;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import other.RankUtils;
 import other.context.Context;
 import other.move.Move;
@@ -33,15 +40,29 @@ import search.mcts.playout.RandomPlayout;
 import search.mcts.selection.SelectionStrategy;
 import search.mcts.selection.UCB1;
 import utils.AIUtils;
+import utils.Enums.NNBackend;
+import utils.Enums.ParallelMode;
+import utils.EvaluationStore;
+import utils.LockFreeNodeUtils;
+import utils.SearchWorkerPool;
+import utils.TreeSnapshot;
 import utils.Value;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -79,6 +100,156 @@ public class MCTS extends search.mcts.MCTS {
      */
     protected boolean evaluateBatched = false;
 
+    /**
+     * Backend used by "createNNLeafEvaluator" to evaluate game states with a NN by multiple threads
+     */
+    protected NNBackend nnBackend = NNBackend.MULTI;
+
+    /**
+     * Properties with the configuration of the backend (e.g. "parallelWorkers", "parallelBatchLimit",
+     * "parallelQueueLimit", "batchedBatchSize" and "batchedDeadlineMicros")
+     */
+    protected Properties nnBackendProperties = new Properties();
+
+    /**
+     * Indicates if the selection phase should be performed without locking the nodes on the path. The statistics are
+     * updated atomically and children are published with a CAS (see "LockFreeNodeUtils"). Only used for the nodes of
+     * this project (see "useLockFreeSelection")
+     */
+    protected boolean lockFreeSelection = false;
+
+    /**
+     * Number of searchers running on virtual threads (0 means the search is performed by the persistent workers).
+     * Searchers park while their expansion waits on the (asynchronous) NN evaluation, so the number of searchers
+     * isn't limited by the number of cores. Virtual visits keep the searchers diverse.
+     */
+    protected int numVirtualSearchers = 0;
+
+    /**
+     * Parallelisation of the search by the searchers (threads)
+     */
+    protected ParallelMode parallelMode = ParallelMode.TREE;
+
+    /**
+     * Parallelisation used by the last search, which differs from "parallelMode" when leaf parallelisation isn't
+     * possible (see "effectiveParallelMode")
+     */
+    protected ParallelMode lastParallelMode = ParallelMode.TREE;
+
+    /**
+     * Indicates if the agent already reported that leaf parallelisation isn't possible for its iterations
+     */
+    protected boolean reportedLeafFallback = false;
+
+    /**
+     * Number of play-outs performed from every expanded leaf (only used for leaf parallelisation)
+     */
+    protected int numLeafPlayouts = 1;
+
+    /**
+     * Threads performing the additional play-outs of leaf parallelisation
+     */
+    protected ExecutorService leafExecutor = null;
+
+    /**
+     * Persistent workers which perform the search, and are parked between searches
+     */
+    protected SearchWorkerPool workerPool = null;
+
+    /**
+     * Maximum time (in milliseconds) to wait for the workers to stop when closing the AI
+     */
+    protected static final long WORKER_SHUTDOWN_MILLIS = 2000L;
+
+    /**
+     * Time (in milliseconds) it took to shut down the last persistent workers (-1 if no workers have been shut down)
+     */
+    protected long lastWorkerShutdownMillis = -1;
+
+    /**
+     * Keeps track if the running search (e.g. pondering) needs to be stopped by another thread
+     */
+    protected volatile boolean stopSearch = false;
+
+    /**
+     * Indicates if the search should continue on the opponent's time (requires tree reuse)
+     */
+    protected boolean ponder = false;
+
+    /**
+     * Maximum number of seconds to ponder (values less than 0 mean until the next search)
+     */
+    protected double ponderMaxSeconds = -1;
+
+    /**
+     * Maximum number of workers used to ponder (values less than 1 mean all workers)
+     */
+    protected int ponderNumThreads = -1;
+
+    /**
+     * Indicates if the workers are pondering
+     */
+    protected boolean pondering = false;
+
+    /**
+     * Number of iterations performed during the last pondering
+     */
+    protected final AtomicInteger lastNumPonderIterations = new AtomicInteger();
+
+    /**
+     * Time manager which allocates the time of every move and adjusts it while searching (null means the search stops
+     * at the max number of seconds)
+     */
+    protected TimeManager timeManager = null;
+
+    /**
+     * Number of iterations between two updates of the stop time by the time manager
+     */
+    protected static final int TIME_CHECK_INTERVAL = 64;
+
+    /**
+     * Root node of the search of which the stop time is managed by the time manager (null if not managed)
+     */
+    protected volatile BaseNode managedRoot = null;
+
+    /**
+     * Stop time (in milliseconds) of the current search determined by the time manager
+     */
+    protected volatile long managedStopTime = Long.MAX_VALUE;
+
+    /**
+     * Maximum number of nodes in the tree (values less than 1 mean no limit). When exceeded, the least visited
+     * subtrees are collapsed into their parent (see "pruneTree"). Only used for implicit nodes.
+     */
+    protected int maxNodes = -1;
+
+    /**
+     * Maximum number of bytes used by the heap (values less than 1 mean no limit). When exceeded, the least visited
+     * subtrees are collapsed into their parent as well.
+     */
+    protected long maxMemoryBytes = -1;
+
+    /**
+     * Maximum number of nodes derived from the memory budget: the number of nodes at which the heap exceeded the
+     * budget (-1 if it hasn't been exceeded)
+     */
+    protected int memoryNodeLimit = -1;
+
+    /**
+     * Fraction of the maximum number of nodes kept after pruning
+     */
+    protected double pruneFraction = .75;
+
+    /**
+     * Number of nodes in the current tree (only counted when a budget is set)
+     */
+    protected final AtomicInteger numNodes = new AtomicInteger();
+
+    /**
+     * Indicates if a searcher is pruning the tree (only a single searcher prunes at the same time)
+     */
+    protected final AtomicBoolean pruning = new AtomicBoolean();
+
     //-------------------------------------------------------------------------
 
     /**
@@ -136,12 +307,17 @@ public class MCTS extends search.mcts.MCTS {
         long stopTime = (maxSeconds > 0.0) ? startTime + (long) (maxSeconds * 1000) : Long.MAX_VALUE;
         final int maxIts = (maxIterations >= 0) ? maxIterations : Integer.MAX_VALUE;
 
-        while (numThreadsBusy.get() != 0 && System.currentTimeMillis() < Math.min(stopTime, startTime + 1000L)) {
-            // Give threads in thread pool some more time to clean up after themselves from previous iteration
+        // Stop pondering, the tree searched so far is reused below
+        this.stopPondering();
+
+        // (Re)create the persistent workers if needed, which stay parked between searches
+        if (this.workerPool == null || this.workerPool.numWorkers() != numThreads) {
+            this.shutdownWorkers();
+            this.workerPool = new SearchWorkerPool(numThreads, friendlyName);
         }
 
-        // We'll assume all threads are really done now and just reset to 0
-        numThreadsBusy.set(0);
+        // Entries of previous searches are replaced first in (persistent) evaluation caches
+        EvaluationStore.nextGeneration(this.leafEvaluator);
 
         final AtomicInteger numIterations = new AtomicInteger();
 
@@ -233,6 +409,11 @@ public class MCTS extends search.mcts.MCTS {
 
         rootNode.rootInit(context);
 
+        // Count the nodes of the (reused) tree, which are only counted when a budget is set
+        if (this.hasNodeBudget()) {
+            this.numNodes.set(this.countNodes(rootNode));
+        }
+
         if (rootNode.numLegalMoves() == 1) {
             // play faster if we only have one move available anyway
             if (autoPlaySeconds >= 0.0 && autoPlaySeconds < maxSeconds)
@@ -253,187 +434,78 @@ public class MCTS extends search.mcts.MCTS {
         // Select the mover for the current root
         final int mover = context.state().playerToAgent(context.state().mover());
 
-        // For each thread, queue up a job
-        final CountDownLatch latch = new CountDownLatch(numThreads);
+        // Let the time manager allocate the time of this move (instead of the max number of seconds)
+        if (this.timeManager != null) {
+            final long managedHardStopTime = this.timeManager.startMove(context, maxSeconds, startTime);
+            stopTime = rootThisCall.numLegalMoves() == 1 && autoPlaySeconds >= 0.0 ?
+                    Math.min(stopTime, managedHardStopTime) : managedHardStopTime;
+            this.managedStopTime = this.timeManager.stopTime(rootThisCall, mover, 0, startTime);
+            this.managedRoot = rootThisCall;
+        }
+
+        // Check if the nodes can be selected without locking them
+        final boolean lockFree = this.useLockFreeSelection(rootThisCall);
+
         final long finalStopTime = stopTime;    // Need this to be final for use in inner lambda
-        for (int thread = 0; thread < numThreads; ++thread) {
-            threadPool.submit
-                    (
-                            () ->
-                            {
-                                try {
-                                    numThreadsBusy.incrementAndGet();
-
-                                    // Search until we have to stop
-                                    while (!this.earlyStop(rootThisCall, mover) &&
-                                            numIterations.get() < maxIts && System.currentTimeMillis() < finalStopTime
-                                            && !wantsInterrupt) {
-                                        /*********************
-                                         Selection Phase
-                                         *********************/
-                                        BaseNode current = rootThisCall;
-                                        current.addVirtualVisit();
-                                        current.startNewIteration(context);
-
-                                        Context playoutContext = null;
-
-                                        while (current.contextRef().trial().status() == null) {
-                                            BaseNode prevNode = current;
-                                            prevNode.getLock().lock();
-
-                                            try {
-                                                // If current node is proven, stop selection
-                                                if (this.useSolver && current.isValueProven(mover)) {
-                                                    break;
-                                                }
-
-                                                // Else perform selection
-                                                final int selectedIdx = selectionStrategy.select(this, current);
-                                                BaseNode nextNode = current.childForNthLegalMove(selectedIdx);
-
-                                                final Context newContext = current.traverse(selectedIdx);
-
-                                                if (nextNode == null) {
-                                                    /*********************
-                                                     Expand
-                                                     *********************/
-                                                    nextNode =
-                                                            createNode
-                                                                    (
-                                                                            this,
-                                                                            current,
-                                                                            newContext.trial().lastMove(),
-                                                                            current.nthLegalMove(selectedIdx),
-                                                                            newContext
-                                                                    );
-
-                                                    current.addChild(nextNode, selectedIdx);
-                                                    current = nextNode;
-                                                    current.addVirtualVisit();
-                                                    current.updateContextRef();
-
-                                                    if ((expansionFlags & HEURISTIC_INIT) != 0) {
-                                                        assert (heuristicFunction != null);
-                                                        nextNode.setHeuristicValueEstimates
-                                                                (
-                                                                        AIUtils.heuristicValueEstimates(nextNode.playoutContext(), heuristicFunction)
-                                                                );
-                                                    }
-
-                                                    playoutContext = current.playoutContext();
-
-                                                    break;    // stop Selection phase
-                                                }
-
-                                                current = nextNode;
-                                                current.addVirtualVisit();
-                                                current.updateContextRef();
-                                            } catch (final ArrayIndexOutOfBoundsException e) {
-                                                System.err.println(describeMCTS());
-                                                throw e;
-                                            } finally {
-                                                prevNode.getLock().unlock();
-                                            }
-                                        }
-
-
-                                        // If value is proven, update game theoretical values
-                                        if (this.useSolver &&
-                                                (current.isValueProven(
-                                                        current.contextRef().state().playerToAgent(
-                                                                current.contextRef().state().mover())))) {
-
-                                            /********************************
-                                             Solved position found
-                                             ********************************/
-                                            boolean updateGRAVE = (this.backpropFlags & 1) != 0;
-                                            boolean updateGlobalActionStats = (this.backpropFlags & 2) != 0;
-                                            boolean updateGlobalNGramActionStats = (this.backpropFlags & 4) != 0;
-                                            List<search.mcts.MCTS.MoveKey> moveKeysAMAF = new ArrayList();
-                                            int movesIdxAMAF = current.contextRef().trial().numMoves() - 1;
-                                            Iterator<Move> reverseMovesIterator = current.contextRef().trial().reverseMoveIterator();
-
-//                                            System.out.println("Current solved = " + current.isValueProven(mover) + ")");
-//                                            System.out.println("List size: " + moveKeysAMAF.size());
-//                                            System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
-//                                                    " (solved = " + rootThisCall.isValueProven(mover) + ")");
-//                                            System.out.println("Move idx: " + movesIdxAMAF);
-//                                            System.out.println("--");
-
-                                            current.updateGameTheoreticalValues(updateGRAVE, updateGlobalActionStats,
-                                                    moveKeysAMAF, movesIdxAMAF, reverseMovesIterator,
-                                                    current.totalScores());
-
-//                                            System.out.println("Current solved = " + current.isValueProven(mover) + ")");
-//                                            System.out.println("List size: " + moveKeysAMAF.size());
-//                                            System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
-//                                                    " (solved = " + rootThisCall.isValueProven(mover) + ")");
-//                                            System.out.println("Move idx: " + movesIdxAMAF);
-//                                            System.out.println();
-
-                                            double[] tempUtil = new double[3];
-                                            for (int i = 1; i < 3; i++) {
-                                                tempUtil[i] = current.totalScore(i) / Value.INF;
-                                            }
-
-                                            this.backpropagationStrategy.updateGlobalActionStats(this, updateGlobalActionStats,
-                                                    updateGlobalNGramActionStats, moveKeysAMAF, current.contextRef(),
-                                                    tempUtil);
-                                        }
-                                        // Else use backpropagation strategy of Ludii
-                                        else {
-                                            Trial endTrial = current.contextRef().trial();
-                                            int numPlayoutActions = 0;
-
-                                            if (!endTrial.over() && playoutValueWeight > 0.0) {
-                                                // Did not reach a terminal game state yet
-
-                                                /********************************
-                                                 Play-out
-                                                 ********************************/
-
-                                                final int numActionsBeforePlayout = current.contextRef().trial().numMoves();
-
-                                                endTrial = playoutStrategy.runPlayout(this, playoutContext);
-                                                numPlayoutActions = (endTrial.numMoves() - numActionsBeforePlayout);
-
-                                                lastNumPlayoutActions +=
-                                                        (playoutContext.trial().numMoves() - numActionsBeforePlayout);
-                                            } else {
-                                                // Reached a terminal game state
-                                                playoutContext = current.contextRef();
-                                            }
-
-                                            /***************************
-                                             Backpropagation Phase
-                                             ***************************/
-                                            final double[] outcome = RankUtils.agentUtilities(playoutContext);
-                                            backpropagationStrategy.update(this, current, playoutContext, outcome, numPlayoutActions);
-                                        }
-
-                                        numIterations.incrementAndGet();
-                                    }
-
-                                    rootThisCall.cleanThreadLocals();
-                                } catch (final Exception e) {
-                                    System.err.println("MCTS error in game: " + context.game().name());
-                                    e.printStackTrace();    // Need to do this here since we don't retrieve runnable's Future result
-                                } finally {
-                                    numThreadsBusy.decrementAndGet();
-                                    latch.countDown();
-                                }
-                            }
-                    );
+        final int numSearchers = this.numVirtualSearchers > 0 ? this.numVirtualSearchers : numThreads;
+        final BaseNode[] roots = new BaseNode[numSearchers];
+        final AtomicInteger numStarted = new AtomicInteger();
+        final ParallelMode parallelMode = this.effectiveParallelMode(rootThisCall);
+        this.lastParallelMode = parallelMode;
+        final Runnable search;
+        switch (parallelMode) {
+            case ROOT:
+                // The first searcher searches the shared root, the others build their own tree
+                search = () -> {
+                    final int index = numStarted.getAndIncrement();
+                    if (index == 0) {
+                        this.search(rootThisCall, context, mover, lockFree, numIterations, maxIts, finalStopTime);
+                    } else if (index < roots.length) {
+                        final Context rootContext = new Context(context);
+                        roots[index] = createNode(this, null, null, null, rootContext);
+                        roots[index].rootInit(rootContext);
+                        this.search(roots[index], rootContext, mover, lockFree, numIterations, maxIts,
+                                finalStopTime);
+                    }
+                };
+                break;
+            case LEAF:
+                // Only the first searcher searches the tree, the play-outs are performed in parallel
+                this.createLeafExecutor();
+                search = () -> {
+                    if (numStarted.getAndIncrement() == 0) {
+                        this.search(rootThisCall, context, mover, lockFree, numIterations, maxIts, finalStopTime);
+                    }
+                };
+                break;
+            case TREE:
+            default:
+                search = () -> this.search(rootThisCall, context, mover, lockFree, numIterations, maxIts,
+                        finalStopTime);
         }
 
-        try {
-            latch.await(stopTime - startTime + 2000L, TimeUnit.MILLISECONDS);
-        } catch (final InterruptedException e) {
-            e.printStackTrace();
+        if (this.numVirtualSearchers > 0) {
+            // Every virtual searcher searches until it has to stop, wait until all searchers are done
+            this.runVirtualSearchers(search, stopTime - startTime + 2000L);
+        } else {
+            // Every (persistent) worker searches until it has to stop, wait until all workers are done
+            this.workerPool.run(search, stopTime - startTime + 2000L);
+        }
+
+        // Merge the trees of root parallelisation before selecting the move
+        if (parallelMode == ParallelMode.ROOT) {
+            this.mergeRoots(rootThisCall, roots);
         }
 
         lastNumMctsIterations = numIterations.get();
 
+        // The time used by this move is subtracted from the clock of the time manager
+        if (this.timeManager != null) {
+            this.managedRoot = null;
+            this.managedStopTime = Long.MAX_VALUE;
+            this.timeManager.endMove(System.currentTimeMillis());
+        }
+
         final Move returnMove = finalMoveSelectionStrategy.selectMove(this, rootThisCall);
         int playedChildIdx = -1;
 
@@ -490,9 +562,235 @@ public class MCTS extends search.mcts.MCTS {
             }
         }
 
+        // Continue searching the tree of the opponent's move while the opponent is thinking
+        this.startPondering();
+
         return returnMove;
     }
 
+    /**
+     * Performs MCTS iterations from the given root until the search has to stop. Run by every worker.
+     *
+     * @param rootThisCall  Root node of the search
+     * @param context       Context of the root node
+     * @param mover         ID of the player to move in the root node
+     * @param lockFree      Indicates if the nodes can be selected without locking them
+     * @param numIterations Number of iterations performed by all workers
+     * @param maxIts        Maximum number of iterations
+     * @param stopTime      Time (in milliseconds) at which the search has to stop
+     */
+    protected void search(final BaseNode rootThisCall, final Context context, final int mover, final boolean lockFree,
+                          final AtomicInteger numIterations, final int maxIts, final long stopTime) {
+        try {
+            numThreadsBusy.incrementAndGet();
+
+            // Evaluation-only iterations backpropagate the initial estimated value of the expanded node directly,
+            // such that no play-out context is needed (the utilities are reused every iteration)
+            final boolean evaluationOnly = this.isEvaluationOnly(rootThisCall);
+            final double[] utilities = evaluationOnly ? new double[3] : null;
+
+            // Search until we have to stop
+            while (!this.earlyStop(rootThisCall, mover) &&
+                    numIterations.get() < maxIts && System.currentTimeMillis() < stopTime
+                    && !wantsInterrupt && !this.stopSearch
+                    && !this.managedStop(rootThisCall, mover, numIterations)) {
+                /*********************
+                 Selection Phase
+                 *********************/
+                BaseNode current = rootThisCall;
+                current.addVirtualVisit();
+                current.startNewIteration(context);
+
+                Context playoutContext = null;
+                int expandedIdx = -1;
+
+                while (current.contextRef().trial().status() == null) {
+                    BaseNode prevNode = current;
+                    if (!lockFree) {
+                        prevNode.getLock().lock();
+                    }
+
+                    try {
+                        // If current node is proven, stop selection
+                        if (this.useSolver && current.isValueProven(mover)) {
+                            break;
+                        }
+
+                        // Else perform selection
+                        final int selectedIdx = selectionStrategy.select(this, current);
+                        BaseNode nextNode = lockFree ?
+                                LockFreeNodeUtils.child(current, selectedIdx) :
+                                current.childForNthLegalMove(selectedIdx);
+
+                        final Context newContext = current.traverse(selectedIdx);
+
+                        if (nextNode == null) {
+                            /*********************
+                             Expand
+                             *********************/
+                            // Without locks, the backup of the node is deferred until it has been published
+                            nextNode =
+                                    createNode
+                                            (
+                                                    this,
+                                                    current,
+                                                    newContext.trial().lastMove(),
+                                                    current.nthLegalMove(selectedIdx),
+                                                    newContext,
+                                                    lockFree
+                                            );
+
+                            if (!lockFree) {
+                                current.addChild(nextNode, selectedIdx);
+                                this.countPublishedNode();
+                            } else {
+                                // If another thread expanded the child first, adopt its node
+                                // and continue the selection from there
+                                final BaseNode winner =
+                                        LockFreeNodeUtils.addChild(current, nextNode, selectedIdx);
+                                if (winner != nextNode) {
+                                    current = winner;
+                                    current.addVirtualVisit();
+                                    current.updateContextRef();
+                                    continue;
+                                }
+                                this.countPublishedNode();
+                                if (nextNode instanceof implicitNode) {
+                                    ((implicitNode) nextNode).backupToAncestors();
+                                }
+                            }
+                            current = nextNode;
+                            current.addVirtualVisit();
+                            current.updateContextRef();
+
+                            if ((expansionFlags & HEURISTIC_INIT) != 0) {
+                                assert (heuristicFunction != null);
+                                nextNode.setHeuristicValueEstimates
+                                        (
+                                                AIUtils.heuristicValueEstimates(nextNode.playoutContext(), heuristicFunction)
+                                        );
+                            }
+
+                            expandedIdx = selectedIdx;
+                            if (!evaluationOnly) {
+                                playoutContext = current.playoutContext();
+                            }
+
+                            break;    // stop Selection phase
+                        }
+
+                        current = nextNode;
+                        current.addVirtualVisit();
+                        current.updateContextRef();
+                    } catch (final ArrayIndexOutOfBoundsException e) {
+                        System.err.println(describeMCTS());
+                        throw e;
+                    } finally {
+                        if (!lockFree) {
+                            prevNode.getLock().unlock();
+                        }
+                    }
+                }
+
+
+                // If value is proven, update game theoretical values
+                if (this.useSolver &&
+                        (current.isValueProven(
+                                current.contextRef().state().playerToAgent(
+                                        current.contextRef().state().mover())))) {
+
+                    /********************************
+                     Solved position found
+                     ********************************/
+                    boolean updateGRAVE = (this.backpropFlags & 1) != 0;
+                    boolean updateGlobalActionStats = (this.backpropFlags & 2) != 0;
+                    boolean updateGlobalNGramActionStats = (this.backpropFlags & 4) != 0;
+                    List<search.mcts.MCTS.MoveKey> moveKeysAMAF = new ArrayList();
+                    int movesIdxAMAF = current.contextRef().trial().numMoves() - 1;
+                    Iterator<Move> reverseMovesIterator = current.contextRef().trial().reverseMoveIterator();
+
+//                    System.out.println("Current solved = " + current.isValueProven(mover) + ")");
+//                    System.out.println("List size: " + moveKeysAMAF.size());
+//                    System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
+//                            " (solved = " + rootThisCall.isValueProven(mover) + ")");
+//                    System.out.println("Move idx: " + movesIdxAMAF);
+//                    System.out.println("--");
+
+                    current.updateGameTheoreticalValues(updateGRAVE, updateGlobalActionStats,
+                            moveKeysAMAF, movesIdxAMAF, reverseMovesIterator,
+                            current.totalScores());
+
+//                    System.out.println("Current solved = " + current.isValueProven(mover) + ")");
+//                    System.out.println("List size: " + moveKeysAMAF.size());
+//                    System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
+//                            " (solved = " + rootThisCall.isValueProven(mover) + ")");
+//                    System.out.println("Move idx: " + movesIdxAMAF);
+//                    System.out.println();
+
+                    double[] tempUtil = new double[3];
+                    for (int i = 1; i < 3; i++) {
+                        tempUtil[i] = current.totalScore(i) / Value.INF;
+                    }
+
+                    this.backpropagationStrategy.updateGlobalActionStats(this, updateGlobalActionStats,
+                            updateGlobalNGramActionStats, moveKeysAMAF, current.contextRef(),
+                            tempUtil);
+                }
+                // Else, for evaluation-only iterations, backpropagate the initial estimated value of the expanded node
+                else if (evaluationOnly && expandedIdx >= 0 && !current.contextRef().trial().over()) {
+                    this.evaluationOnlyBackprop(current, expandedIdx, utilities);
+                }
+                // Else, with leaf parallelisation, perform multiple play-outs from the leaf
+                else if (!evaluationOnly && this.parallelMode == ParallelMode.LEAF && this.numLeafPlayouts > 1 &&
+                        !current.contextRef().trial().over() && playoutValueWeight > 0.0) {
+                    this.leafParallelPlayouts(current, playoutContext);
+                }
+                // Else use backpropagation strategy of Ludii
+                else {
+                    Trial endTrial = current.contextRef().trial();
+                    int numPlayoutActions = 0;
+
+                    if (!endTrial.over() && playoutValueWeight > 0.0) {
+                        // Did not reach a terminal game state yet
+
+                        /********************************
+                         Play-out
+                         ********************************/
+
+                        final int numActionsBeforePlayout = current.contextRef().trial().numMoves();
+
+                        endTrial = playoutStrategy.runPlayout(this, playoutContext);
+                        numPlayoutActions = (endTrial.numMoves() - numActionsBeforePlayout);
+
+                        lastNumPlayoutActions +=
+                                (playoutContext.trial().numMoves() - numActionsBeforePlayout);
+                    } else {
+                        // Reached a terminal game state
+                        playoutContext = current.contextRef();
+                    }
+
+                    /***************************
+                     Backpropagation Phase
+                     ***************************/
+                    final double[] outcome = RankUtils.agentUtilities(playoutContext);
+                    backpropagationStrategy.update(this, current, playoutContext, outcome, numPlayoutActions);
+                }
+
+                numIterations.incrementAndGet();
+
+                // Collapse the least visited subtrees if the tree exceeds its budget
+                this.pruneIfExceedsNodeBudget(rootThisCall);
+            }
+
+            rootThisCall.cleanThreadLocals();
+        } catch (final Exception e) {
+            System.err.println("MCTS error in game: " + context.game().name());
+            e.printStackTrace();    // Need to do this here since we don't retrieve runnable's Future result
+        } finally {
+            numThreadsBusy.decrementAndGet();
+        }
+    }
+
     /**
      * Creates a node belonging to the used selection strategy
      *
@@ -505,6 +803,24 @@ public class MCTS extends search.mcts.MCTS {
      */
     @Override
     protected BaseNode createNode(search.mcts.MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context) {
+        return this.createNode(mcts, parent, parentMove, parentMoveWithoutConseq, context, false);
+    }
+
+    /**
+     * Creates a node belonging to the used selection strategy, of which the minimax backup of implicit nodes can be
+     * deferred until the node has been published (see "implicitNode.backupToAncestors"). This way, a thread that
+     * loses the race to add the node to its parent doesn't change the best estimated values of the ancestors.
+     *
+     * @param mcts                    Ludii's MCTS algorithm
+     * @param parent                  Parent node of newly created nodes
+     * @param parentMove              Move from parent node to newly created node
+     * @param parentMoveWithoutConseq Move from parent node to newly created node
+     * @param context                 Ludii's context representing the game position of the new node
+     * @param deferBackup             Indicates if the backup of implicit nodes is performed after publishing the node
+     * @return New child node
+     */
+    protected BaseNode createNode(search.mcts.MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq,
+                                  Context context, boolean deferBackup) {
         if ((this.currentGameFlags & 64L) != 0L && !this.wantsCheatRNG()) {
             return new OpenLoopNode(mcts, parent, parentMove, parentMoveWithoutConseq, context.game());
         } else {
@@ -518,14 +834,14 @@ public class MCTS extends search.mcts.MCTS {
 //                    }
 
                     return new implicitSolverNode(mcts, parent, parentMove, parentMoveWithoutConseq, context,
-                            this.leafEvaluator, this.terminalStateEvaluator, this.evaluateBatched);
+                            this.leafEvaluator, this.terminalStateEvaluator, this.evaluateBatched, deferBackup);
                 } else {
 //                    if (this.useTT){
 //                        return new implicitNodeTT(mcts, parent, parentMove, parentMoveWithoutConseq, context);
 //                    }
 
                     return new implicitNode(mcts, parent, parentMove, parentMoveWithoutConseq, context,
-                            this.leafEvaluator, this.terminalStateEvaluator, this.evaluateBatched);
+                            this.leafEvaluator, this.terminalStateEvaluator, this.evaluateBatched, deferBackup);
                 }
             } else if (this.useScoreBounds) {
                 return new ScoreBoundsNode(mcts, parent, parentMove, parentMoveWithoutConseq, context);
@@ -554,7 +870,13 @@ public class MCTS extends search.mcts.MCTS {
      * @param playerID ID of player
      */
     public void initParent(Game game, int playerID) {
+        // The tree of the previous game is discarded, so pondering needs to stop
+        this.stopPondering();
         super.initAI(game, playerID);
+
+        if (this.timeManager != null) {
+            this.timeManager.reset();
+        }
     }
 
     /**
@@ -635,6 +957,619 @@ public class MCTS extends search.mcts.MCTS {
         this.stop = stop;
     }
 
+    /**
+     * Merges the trees of root parallelisation into the shared root: the statistics of the children are added, and
+     * children that are only expanded in another tree are adopted. Afterwards, the best estimated value of an
+     * implicit root is recomputed from the merged children.
+     *
+     * @param root  Shared root node, used for the final move selection
+     * @param roots Roots of the trees of the other searchers (null if not used)
+     */
+    protected void mergeRoots(final BaseNode root, final BaseNode[] roots) {
+        for (final BaseNode other : roots) {
+            if (other == null) {
+                continue;
+            }
+
+            // The legal moves of all roots are equal, since they are generated from the same game state
+            for (int i = 0; i < root.numLegalMoves(); i++) {
+                final BaseNode otherChild = other.childForNthLegalMove(i);
+                if (otherChild == null) {
+                    continue;
+                }
+
+                final BaseNode child = root.childForNthLegalMove(i);
+                if (child == null) {
+                    otherChild.setParent(root);
+                    root.addChild(otherChild, i);
+                } else {
+                    LockFreeNodeUtils.addStatistics(child, otherChild);
+                }
+            }
+            LockFreeNodeUtils.addStatistics(root, other);
+        }
+
+        // The best estimated value and the exploration priors of the root need to match the merged children
+        if (root instanceof implicitNode) {
+            ((implicitNode) root).recomputeBestEstimate();
+        }
+    }
+
+    /**
+     * Performs the play-outs of leaf parallelisation: the additional play-outs are performed by the leaf executor,
+     * while this thread performs one play-out itself. Afterwards, all outcomes are backpropagated.
+     *
+     * @param leaf           Expanded leaf node
+     * @param playoutContext Context from which the play-outs start
+     */
+    protected void leafParallelPlayouts(final BaseNode leaf, final Context playoutContext) {
+        final int numActionsBeforePlayout = leaf.contextRef().trial().numMoves();
+
+        // Start the additional play-outs, each on its own copy
+        final List<Future<Context>> playouts = new ArrayList<>(this.numLeafPlayouts - 1);
+        for (int k = 1; k < this.numLeafPlayouts; k++) {
+            final Context contextCopy = new Context(playoutContext);
+            playouts.add(this.leafExecutor.submit(() -> {
+                playoutStrategy.runPlayout(this, contextCopy);
+                return contextCopy;
+            }));
+        }
+
+        playoutStrategy.runPlayout(this, playoutContext);
+        final List<Context> endContexts = new ArrayList<>(this.numLeafPlayouts);
+        endContexts.add(playoutContext);
+        try {
+            for (final Future<Context> playout : playouts) {
+                endContexts.add(playout.get());
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+
+        // Backpropagate all outcomes (every backpropagation removes a virtual visit of the path)
+        for (int k = 0; k < endContexts.size(); k++) {
+            final Context endContext = endContexts.get(k);
+            if (k > 0) {
+                for (BaseNode node = leaf; node != null; node = node.parent()) {
+                    node.addVirtualVisit();
+                }
+            }
+
+            final int numPlayoutActions = endContext.trial().numMoves() - numActionsBeforePlayout;
+            lastNumPlayoutActions += numPlayoutActions;
+            final double[] outcome = RankUtils.agentUtilities(endContext);
+            backpropagationStrategy.update(this, leaf, endContext, outcome, numPlayoutActions);
+        }
+    }
+
+    /**
+     * Indicates if the iterations are evaluation-only: no play-out moves are played (zero turn limit or play-outs
+     * aren't used) and the initial estimated value of the expanded node is backpropagated without additional
+     * statistics (see "InitialNoPlayoutTerminationBackprop"). Only used for implicit nodes.
+     *
+     * @param rootThisCall Root node of current call
+     * @return True if the iterations can skip the play-out and backpropagate the initial estimated value directly
+     */
+    protected boolean isEvaluationOnly(final BaseNode rootThisCall) {
+        return rootThisCall instanceof implicitNode &&
+                this.backpropagationStrategy instanceof InitialNoPlayoutTerminationBackprop &&
+                this.backpropFlags == 0 &&
+                (playoutValueWeight <= 0.0 || (this.playoutStrategy instanceof RandomPlayout &&
+                        ((RandomPlayout) this.playoutStrategy).playoutTurnLimit() == 0));
+    }
+
+    /**
+     * Backpropagates the initial estimated value of the expanded (non-terminal) node, which results in the same
+     * updates as "InitialNoPlayoutTerminationBackprop", but the index of the node in its parent is already known
+     * and no play-out context or utilities need to be created
+     *
+     * @param leaf      Expanded node
+     * @param index     Index of the expanded node in its parent
+     * @param utilities Array which is reused for the utilities w.r.t. both players
+     */
+    protected void evaluationOnlyBackprop(final BaseNode leaf, final int index, final double[] utilities) {
+        final implicitNode parent = (implicitNode) leaf.parent();
+        final double value = parent.getInitialEstimatedValue(index) * (parent.getMoverAgent() == 1 ? 1 : -1);
+        utilities[1] = value;
+        utilities[2] = -value;
+
+        for (BaseNode node = leaf; node != null; node = node.parent()) {
+            node.update(utilities);
+        }
+    }
+
+    /**
+     * Determines the parallelisation of the search. Leaf parallelisation parallelises the play-outs of an expanded
+     * leaf, so it isn't possible for evaluation-only iterations (e.g. NN agents without play-outs): only a single
+     * thread would search. These iterations are searched with tree parallelisation instead, which is reported once.
+     *
+     * @param rootThisCall Root node of current call
+     * @return Parallelisation used by the search
+     */
+    protected ParallelMode effectiveParallelMode(final BaseNode rootThisCall) {
+        if (this.parallelMode != ParallelMode.LEAF || !this.isEvaluationOnly(rootThisCall)) {
+            return this.parallelMode;
+        }
+
+        if (!this.reportedLeafFallback) {
+            System.err.println(friendlyName + ": leaf parallelisation requires play-outs, the evaluation-only " +
+                    "iterations are searched with tree parallelisation");
+            this.reportedLeafFallback = true;
+        }
+        return ParallelMode.TREE;
+    }
+
+    /**
+     * Creates the threads performing the additional play-outs of leaf parallelisation (if needed)
+     */
+    protected void createLeafExecutor() {
+        if (this.numLeafPlayouts > 1 && this.leafExecutor == null) {
+            this.leafExecutor = Executors.newFixedThreadPool(this.numLeafPlayouts - 1, runnable -> {
+                final Thread thread = new Thread(runnable, friendlyName + "-leaf");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Setter for the parallelisation of the search
+     *
+     * @param parallelMode    Parallelisation of the search by the searchers (threads)
+     * @param numLeafPlayouts Number of play-outs performed from every expanded leaf (only used for LEAF)
+     */
+    public void setParallelMode(ParallelMode parallelMode, int numLeafPlayouts) {
+        this.parallelMode = parallelMode;
+        if (this.numLeafPlayouts != numLeafPlayouts && this.leafExecutor != null) {
+            this.leafExecutor.shutdownNow();
+            this.leafExecutor = null;
+        }
+        this.numLeafPlayouts = numLeafPlayouts;
+    }
+
+    /**
+     * Getter for the parallelisation used by the last search (see "effectiveParallelMode")
+     *
+     * @return Parallelisation of the last search
+     */
+    public ParallelMode getLastParallelMode() {
+        return this.lastParallelMode;
+    }
+
+    /**
+     * Getter for the time it took to shut down the last persistent workers (see "closeAI")
+     *
+     * @return Time (in milliseconds) it took to shut down the workers (-1 if no workers have been shut down)
+     */
+    public long getLastWorkerShutdownMillis() {
+        return this.lastWorkerShutdownMillis;
+    }
+
+    /**
+     * Getter for the number of iterations of the last search
+     *
+     * @return Number of iterations performed by all searchers during the last search
+     */
+    public int getLastNumIterations() {
+        return lastNumMctsIterations;
+    }
+
+    /**
+     * Lets every virtual searcher run the search, and waits until all of them have finished or the time limit has
+     * been exceeded
+     *
+     * @param search        Search performed by every searcher
+     * @param timeoutMillis Maximum time (in milliseconds) to wait for the searchers
+     * @return True if all searchers finished within the time limit
+     */
+    protected boolean runVirtualSearchers(final Runnable search, final long timeoutMillis) {
+        final Thread.Builder builder = Thread.ofVirtual().name(friendlyName + "-searcher-", 0);
+        final Thread[] searchers = new Thread[this.numVirtualSearchers];
+        for (int i = 0; i < searchers.length; i++) {
+            searchers[i] = builder.start(search);
+        }
+
+        final long start = System.currentTimeMillis();
+        boolean finished = true;
+        for (Thread searcher : searchers) {
+            try {
+                final long remaining = timeoutMillis - (System.currentTimeMillis() - start);
+                searcher.join(Math.max(1, remaining));
+            } catch (final InterruptedException e) {
+                e.printStackTrace();
+            }
+            finished &= !searcher.isAlive();
+        }
+
+        return finished;
+    }
+
+    /**
+     * Setter for the number of virtual searchers. Needs to be set before initialising the AI, since the NN evaluator
+     * depends on it: the MULTI backend is replaced by the BATCHED backend, which evaluates asynchronously. Pondering
+     * is still performed by the persistent workers.
+     *
+     * @param numVirtualSearchers Number of searchers running on virtual threads (0 means the persistent workers)
+     */
+    public void setNumVirtualSearchers(int numVirtualSearchers) {
+        this.numVirtualSearchers = numVirtualSearchers;
+    }
+
+    /**
+     * Starts searching the retained root node in the background (on the opponent's time), iff pondering is enabled
+     * and the root node is kept for the next search
+     */
+    protected void startPondering() {
+        final BaseNode ponderRoot = rootNode;
+        if (!this.ponder || !treeReuse || preserveRootNode || wantsInterrupt || ponderRoot == null ||
+                ponderRoot.contextRef().trial().over()) {
+            return;
+        }
+
+        final Context context = ponderRoot.contextRef();
+        final int mover = context.state().playerToAgent(context.state().mover());
+        final boolean lockFree = this.useLockFreeSelection(ponderRoot);
+        final long stopTime = this.ponderMaxSeconds >= 0 ?
+                System.currentTimeMillis() + (long) (this.ponderMaxSeconds * 1000) : Long.MAX_VALUE;
+        final int numPonderThreads = this.ponderNumThreads > 0 ? this.ponderNumThreads : numThreads;
+        final AtomicInteger numPonderWorkers = new AtomicInteger();
+
+        this.lastNumPonderIterations.set(0);
+        this.stopSearch = false;
+        this.pondering = true;
+        this.workerPool.start(() -> {
+            // Only the allowed number of workers ponder, the others are parked again
+            if (numPonderWorkers.incrementAndGet() <= numPonderThreads) {
+                this.search(ponderRoot, context, mover, lockFree, this.lastNumPonderIterations, Integer.MAX_VALUE,
+                        stopTime);
+            }
+        });
+    }
+
+    /**
+     * Stops pondering (if the workers are pondering) and waits until the workers are done
+     */
+    protected void stopPondering() {
+        if (!this.pondering) {
+            return;
+        }
+
+        this.stopSearch = true;
+        if (!this.workerPool.await(WORKER_SHUTDOWN_MILLIS)) {
+            System.err.println(friendlyName + ": pondering didn't stop within " + WORKER_SHUTDOWN_MILLIS + "ms");
+        }
+        this.stopSearch = false;
+        this.pondering = false;
+    }
+
+    /**
+     * Setter for pondering. Pondering requires tree reuse, so tree reuse is enabled as well.
+     *
+     * @param ponder     true if the search should continue on the opponent's time
+     * @param maxSeconds Maximum number of seconds to ponder (values less than 0 mean until the next search)
+     * @param numThreads Maximum number of threads used to ponder (values less than 1 mean all threads)
+     */
+    public void setPondering(boolean ponder, double maxSeconds, int numThreads) {
+        this.ponder = ponder;
+        this.ponderMaxSeconds = maxSeconds;
+        this.ponderNumThreads = numThreads;
+        if (ponder) {
+            treeReuse = true;
+        }
+    }
+
+    /**
+     * Getter for the number of iterations performed during the last pondering
+     *
+     * @return Number of iterations performed on the opponent's time
+     */
+    public int getLastNumPonderIterations() {
+        return this.lastNumPonderIterations.get();
+    }
+
+    /**
+     * Indicates if the time manager stopped the search. Every TIME_CHECK_INTERVAL iterations the stop time is
+     * updated based on the statistics of the managed root node. The private trees of root parallelisation stop at
+     * the same time, while pondering isn't managed.
+     *
+     * @param rootThisCall  Root node of the search
+     * @param mover         ID of the player to move in the root node
+     * @param numIterations Number of iterations performed by all searchers
+     * @return True if the search needs to stop
+     */
+    protected boolean managedStop(final BaseNode rootThisCall, final int mover, final AtomicInteger numIterations) {
+        final BaseNode managedRoot = this.managedRoot;
+        if (managedRoot == null) {
+            return false;
+        }
+
+        final long now = System.currentTimeMillis();
+        final int iterations = numIterations.get();
+        if (managedRoot == rootThisCall && iterations > 0 && iterations % TIME_CHECK_INTERVAL == 0) {
+            this.managedStopTime = this.timeManager.stopTime(rootThisCall, mover, iterations, now);
+        }
+
+        return now >= this.managedStopTime;
+    }
+
+    /**
+     * Setter for the time manager, which allocates the time of every move (e.g. from a game clock) and adjusts it
+     * while searching. The max number of seconds given to "selectAction" is passed to the time manager.
+     *
+     * @param timeManager Time manager (null means the search stops at the max number of seconds)
+     */
+    public void setTimeManager(TimeManager timeManager) {
+        this.timeManager = timeManager;
+    }
+
+    /**
+     * Setter for the node budget of the tree. When the tree exceeds the budget during a search (or while pondering),
+     * the least visited subtrees are collapsed into the initial estimated values of their parent, such that the tree
+     * stays within a steady memory footprint. Only used for implicit nodes.
+     *
+     * @param maxNodes       Maximum number of nodes in the tree (values less than 1 mean no limit)
+     * @param maxMemoryBytes Maximum number of bytes used by the heap (values less than 1 mean no limit)
+     */
+    public void setNodeBudget(int maxNodes, long maxMemoryBytes) {
+        this.maxNodes = maxNodes;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.memoryNodeLimit = -1;
+    }
+
+    /**
+     * Indicates if a node or memory budget is set
+     *
+     * @return True if the nodes need to be counted
+     */
+    protected boolean hasNodeBudget() {
+        return this.maxNodes > 0 || this.maxMemoryBytes > 0;
+    }
+
+    /**
+     * Counts a node that has been added to the tree (only when a budget is set). Nodes are counted once they're
+     * published, such that nodes of threads that lost the race to expand a child aren't counted.
+     */
+    protected void countPublishedNode() {
+        if (this.hasNodeBudget()) {
+            this.numNodes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Indicates if the tree exceeds its node or memory budget, and can be pruned
+     *
+     * @param rootThisCall Root node of current call
+     * @return True if the tree needs to be pruned
+     */
+    protected boolean exceedsNodeBudget(final BaseNode rootThisCall) {
+        if (!this.hasNodeBudget() || !(rootThisCall instanceof implicitNode)) {
+            return false;
+        }
+
+        final int numNodes = this.numNodes.get();
+        final int nodeLimit = this.nodeLimit();
+        if (numNodes > nodeLimit) {
+            return true;
+        }
+
+        // The heap is only checked when the tree reaches its limit, since the memory of collapsed subtrees is only
+        // released by the garbage collector. Every time the heap is still too large, the limit is lowered.
+        final Runtime runtime = Runtime.getRuntime();
+        if (this.maxMemoryBytes > 0 && (nodeLimit == Integer.MAX_VALUE || numNodes >= nodeLimit) &&
+                runtime.totalMemory() - runtime.freeMemory() > this.maxMemoryBytes) {
+            this.memoryNodeLimit = this.memoryNodeLimit < 0 ? numNodes : (int) (this.pruneFraction * numNodes);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines the maximum number of nodes, based on the node budget and the memory budget
+     *
+     * @return Maximum number of nodes in the tree (Integer.MAX_VALUE if there is no limit)
+     */
+    protected int nodeLimit() {
+        int nodeLimit = this.maxNodes > 0 ? this.maxNodes : Integer.MAX_VALUE;
+        if (this.memoryNodeLimit > 0) {
+            nodeLimit = Math.min(nodeLimit, this.memoryNodeLimit);
+        }
+
+        return nodeLimit;
+    }
+
+    /**
+     * Collapses the least visited subtrees (see "pruneTree") if the tree exceeds its budget, unless another searcher
+     * is already pruning the tree
+     *
+     * @param rootThisCall Root node of current call
+     */
+    protected void pruneIfExceedsNodeBudget(final BaseNode rootThisCall) {
+        if (this.exceedsNodeBudget(rootThisCall) && this.pruning.compareAndSet(false, true)) {
+            try {
+                this.pruneTree(rootThisCall);
+            } finally {
+                this.pruning.set(false);
+            }
+        }
+    }
+
+    /**
+     * Counts the nodes of the tree
+     *
+     * @param root Root node of the tree
+     * @return Number of nodes in the tree
+     */
+    protected int countNodes(final BaseNode root) {
+        int count = 0;
+        final List<BaseNode> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            final BaseNode node = stack.remove(stack.size() - 1);
+            count++;
+            for (int i = 0; i < node.numLegalMoves(); i++) {
+                final BaseNode child = LockFreeNodeUtils.child(node, i);
+                if (child != null) {
+                    stack.add(child);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Collapses the least visited subtrees into the initial estimated values of their parent (see
+     * "implicitNode.collapseChild"), until the tree is reduced to the prune fraction of the budget. Subtrees of which
+     * the value is proven are kept. Threads searching in a collapsed subtree finish their iteration as usual.
+     *
+     * @param root Root node of the tree
+     */
+    protected void pruneTree(final BaseNode root) {
+        // Determine the size of every subtree (post order) and collect all nodes except the root
+        final IdentityHashMap<BaseNode, int[]> subtreeSizes = new IdentityHashMap<>();
+        final List<BaseNode> candidates = new ArrayList<>();
+        final List<BaseNode> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            final BaseNode node = stack.remove(stack.size() - 1);
+            subtreeSizes.put(node, new int[]{1});
+            if (node != root) {
+                candidates.add(node);
+            }
+            for (int i = 0; i < node.numLegalMoves(); i++) {
+                final BaseNode child = LockFreeNodeUtils.child(node, i);
+                if (child != null) {
+                    stack.add(child);
+                }
+            }
+        }
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            subtreeSizes.get(candidates.get(i).parent())[0] += subtreeSizes.get(candidates.get(i))[0];
+        }
+
+        final int numNodesBefore = subtreeSizes.get(root)[0];
+        final int targetNodes = (int) (this.pruneFraction * Math.min(this.nodeLimit(), numNodesBefore));
+
+        // Collapse the least visited subtrees first (a collapsed subtree has size 0). The visits keep changing during
+        // the search, so a snapshot (visits in the upper and index in the lower 32 bits) is sorted instead
+        final long[] order = new long[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (long) Math.max(0, candidates.get(i).numVisits()) << 32 | i;
+        }
+        Arrays.sort(order);
+
+        int numNodesLeft = numNodesBefore;
+        for (long entry : order) {
+            final BaseNode node = candidates.get((int) entry);
+            if (numNodesLeft <= targetNodes) {
+                break;
+            } else if (node.isValueProven(1) || node.isValueProven(2) ||
+                    this.isCollapsed(node, root, subtreeSizes)) {
+                continue;
+            }
+
+            final implicitNode parent = (implicitNode) node.parent();
+            for (int i = 0; i < parent.numLegalMoves(); i++) {
+                if (LockFreeNodeUtils.child(parent, i) == node && parent.collapseChild(i)) {
+                    final int size = subtreeSizes.get(node)[0];
+                    for (BaseNode ancestor = node; ancestor != null; ancestor = ancestor.parent()) {
+                        subtreeSizes.get(ancestor)[0] -= size;
+                    }
+                    numNodesLeft -= size;
+                    break;
+                }
+            }
+        }
+
+        this.numNodes.addAndGet(numNodesLeft - numNodesBefore);
+    }
+
+    /**
+     * Indicates if the node or one of its ancestors has been collapsed by "pruneTree"
+     *
+     * @param node         Node of the tree
+     * @param root         Root node of the tree
+     * @param subtreeSizes Current size of every subtree
+     * @return True if the node isn't part of the tree anymore
+     */
+    protected boolean isCollapsed(BaseNode node, final BaseNode root,
+                                  final IdentityHashMap<BaseNode, int[]> subtreeSizes) {
+        for (; node != root; node = node.parent()) {
+            if (subtreeSizes.get(node)[0] == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Setter for preserving the root node. If preserved, the searched root node stays the root node after the search
+     * (instead of the child of the played move), e.g. to export the searched tree (see "exportTree").
+     *
+     * @param preserveRootNode true if the root node should be preserved after the search
+     */
+    public void setPreserveRootNode(boolean preserveRootNode) {
+        this.preserveRootNode = preserveRootNode;
+    }
+
+    /**
+     * Exports the tree kept for the next search to a tree snapshot (see "TreeSnapshot"). This is the searched tree if
+     * the root node is preserved, otherwise the subtree of the played move (tree reuse). Only trees of implicit nodes
+     * can be exported.
+     *
+     * @param path Path to the file of the snapshot
+     * @return Number of exported nodes
+     * @throws IOException
+     */
+    public int exportTree(Path path) throws IOException {
+        if (rootNode == null) {
+            throw new IllegalStateException("There is no tree to export, preserve the root node or reuse the tree");
+        }
+
+        // The tree can't change while it's written
+        this.stopPondering();
+        return TreeSnapshot.export(rootNode, path);
+    }
+
+    /**
+     * Imports a tree snapshot (see "TreeSnapshot") as root node of the next search of the given game position, such
+     * that the search continues where the exported search stopped. Needs to be called after "initAI" (which discards
+     * the tree), and enables tree reuse.
+     *
+     * @param path    Path to the file of the snapshot
+     * @param context Context of the game position of the stored root node
+     * @throws IOException
+     */
+    public void importTree(Path path, Context context) throws IOException {
+        this.stopPondering();
+        rootNode = TreeSnapshot.load(this, path, context);
+        lastActionHistorySize = context.trial().numMoves();
+        treeReuse = true;
+    }
+
+    /**
+     * Setter for the lock-free selection
+     *
+     * @param lockFreeSelection true if the nodes should be selected without locking them
+     */
+    public void setLockFreeSelection(boolean lockFreeSelection) {
+        this.lockFreeSelection = lockFreeSelection;
+    }
+
+    /**
+     * Indicates if the selection can be performed without locking the nodes. Only the (deterministic) nodes of this
+     * project update their statistics atomically, so Ludii's nodes are always locked.
+     *
+     * @param rootThisCall Root node of current call
+     * @return true if the nodes can be selected without locking them
+     */
+    protected boolean useLockFreeSelection(final BaseNode rootThisCall) {
+        return this.lockFreeSelection &&
+                (rootThisCall instanceof implicitNode || rootThisCall instanceof solverNode);
+    }
+
     /**
      * Indicates if the algorithm should stop early by checking if the rootnode is solved.
      *
@@ -650,16 +1585,88 @@ public class MCTS extends search.mcts.MCTS {
         return this.stop;
     }
 
+    /**
+     * Creates the leaf evaluator for the NN using the selected backend, such that the backends can be compared
+     * without changing the agent (see "setNNBackend")
+     *
+     * @param game Ludii's game class
+     * @param net  DL4J MultiLayerNetwork that needs to be used
+     * @return Thread safe NN evaluator of the selected backend
+     */
+    protected NeuralNetworkLeafEvaluator createNNLeafEvaluator(Game game, MultiLayerNetwork net) {
+        // The MULTI backend only stores a NN per persistent worker, so many virtual searchers would mostly wait on
+        // each other. The BATCHED backend combines their requests instead
+        final NNBackend backend = this.numVirtualSearchers > 0 && this.nnBackend == NNBackend.MULTI ?
+                NNBackend.BATCHED : this.nnBackend;
+        final int numSearchers = this.numVirtualSearchers > 0 ? this.numVirtualSearchers : this.numThreads;
+
+        switch (backend) {
+            case PARALLEL:
+                return new ParallelNeuralNetworkLeafEvaluator(game, net, this.nnBackendProperties);
+            case BATCHED:
+                return new BatchedNeuralNetworkLeafEvaluator(game, net,
+                        Integer.parseInt(this.nnBackendProperties.getProperty("batchedBatchSize",
+                                String.valueOf(16 * numSearchers))),
+                        Long.parseLong(this.nnBackendProperties.getProperty("batchedDeadlineMicros", "100")));
+            case QUANTIZED:
+                return new QuantizedNeuralNetworkLeafEvaluator(game, net);
+            case FUSED:
+                return new FusedNeuralNetworkLeafEvaluator(game, net);
+            case MULTI:
+            default:
+                return new MultiNeuralNetworkLeafEvaluator(game, net, this.numThreads);
+        }
+    }
+
+    /**
+     * Setter for the backend used to evaluate game states with a NN (only used by agents that create their leaf
+     * evaluator with "createNNLeafEvaluator")
+     *
+     * @param nnBackend  Backend used to evaluate game states with a NN by multiple threads
+     * @param properties Properties with the configuration of the backend
+     */
+    public void setNNBackend(NNBackend nnBackend, Properties properties) {
+        this.nnBackend = nnBackend;
+        this.nnBackendProperties = properties;
+    }
+
+    /**
+     * Stops the persistent workers (if any), and reports the time it took (see "getLastWorkerShutdownMillis") or
+     * that they didn't stop in time
+     */
+    protected void shutdownWorkers() {
+        if (this.leafExecutor != null) {
+            this.leafExecutor.shutdownNow();
+            this.leafExecutor = null;
+        }
+        if (this.workerPool == null) {
+            return;
+        }
+
+        final boolean stopped = this.workerPool.shutdown(WORKER_SHUTDOWN_MILLIS);
+        this.lastWorkerShutdownMillis = this.workerPool.getShutdownMillis();
+        if (!stopped) {
+            System.err.println(friendlyName + ": search workers didn't stop within " + WORKER_SHUTDOWN_MILLIS + "ms");
+        }
+        this.workerPool = null;
+    }
+
     /**
      * Closes the AI and GameStateEvaluators correctly after being used!
-     * Needs to be executed when using this function, otherwise to many parallel-inference threads will be created
+     * Needs to be executed when using this function, otherwise to many parallel-inference (or batching) threads
+     * will be created
      */
     @Override
     public void closeAI() {
+        this.stopPondering();
         super.closeAI();
+        this.shutdownWorkers();
 
-        if (this.leafEvaluator instanceof ParallelNeuralNetworkLeafEvaluator) {
-            ((ParallelNeuralNetworkLeafEvaluator) this.leafEvaluator).close();
+        if (this.leafEvaluator != null) {
+            this.leafEvaluator.close();
+        }
+        if (this.terminalStateEvaluator != null) {
+            this.terminalStateEvaluator.close();
         }
     }
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package Agents;
 
 import Evaluator.ClassicTerminalStateEvaluator;
 import Evaluator.MSLeafEvaluator;
-import Evaluator.MultiNeuralNetworkLeafEvaluator;
 import Evaluator.TanhEvaluatorWrapper;
 import MCTSStrategies.Backpropagation.DynamicEarlyTerminationBackprop;
 import MCTSStrategies.FinalMoveSelection.RobustChild;
@@ -13,6 +12,7 @@ import MCTSStrategies.Selection.ImplicitUCTRescaledExploration8;
 import Training.LearningManager;
 import game.Game;
 import other.GameLoader;
+import utils.EvaluationStore;
 
 /**
  * MCTS search algorithm using neural networks with enhanced Implicit UCT, epsilon-greedy play-out with dynamic
@@ -89,8 +89,8 @@ public class MCTS_POC extends MCTS {
     public void initAI(Game game, int playerID) {
         super.initParent(game, playerID);
 
-        this.setLeafEvaluator(new MultiNeuralNetworkLeafEvaluator(game,
-                LearningManager.loadNetwork(pathName, false), this.numThreads), game);
+        this.setLeafEvaluator(EvaluationStore.wrap(game, this.createNNLeafEvaluator(game,
+                LearningManager.loadNetwork(pathName, false)), pathName), game);
         this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
     }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package Agents;
 
 import Evaluator.ClassicTerminalStateEvaluator;
-import Evaluator.MultiNeuralNetworkLeafEvaluator;
+import Evaluator.OpeningBookEvaluatorWrapper;
 import MCTSStrategies.Backpropagation.InitialNoPlayoutTerminationBackprop;
 import MCTSStrategies.FinalMoveSelection.RobustChild;
 import MCTSStrategies.Selection.ImplicitUCTBoundedAlphaDecrease;
 import Training.LearningManager;
 import game.Game;
 import search.mcts.playout.RandomPlayout;
+import utils.EvaluationStore;
 
 /**
  * MCTS search algorithm using neural networks with enhanced Implicit UCT, no play-outs, while
@@ -54,8 +55,9 @@ public class MCTS_alpha extends MCTS {
     public void initAI(Game game, int playerID) {
         super.initParent(game, playerID);
 
-        this.setLeafEvaluator(new MultiNeuralNetworkLeafEvaluator(game,
-                LearningManager.loadNetwork(pathName, false), this.numThreads), game);
+        this.setLeafEvaluator(OpeningBookEvaluatorWrapper.wrap(game, EvaluationStore.wrap(game,
+                this.createNNLeafEvaluator(game, LearningManager.loadNetwork(pathName, false)), pathName), pathName),
+                game);
         this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
     }
 }
\ No newline at end of file
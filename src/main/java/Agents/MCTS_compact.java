@@ -0,0 +1,469 @@
+package Agents;
+
+import Evaluator.ClassicTerminalStateEvaluator;
+import Evaluator.GameStateEvaluator;
+import Evaluator.MultiNeuralNetworkLeafEvaluator;
+import Evaluator.NeuralNetworkLeafEvaluator;
+import Evaluator.OpeningBookEvaluatorWrapper;
+import MCTSStrategies.Node.ImplicitNodeStore;
+import Training.LearningManager;
+import game.Game;
+import main.collections.FastArrayList;
+import other.AI;
+import other.context.Context;
+import other.move.Move;
+import utils.EvaluationStore;
+import utils.EvaluatorUtils;
+import utils.SearchWorkerPool;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MCTS search algorithm using neural networks with implicit UCT, no play-outs and robust child (same as "MCTS_alpha",
+ * but with a fixed alpha), which stores the tree in a compact struct-of-arrays node store (see "ImplicitNodeStore")
+ * instead of Ludii's nodes. The store is allocated once and reused for every search, such that (almost) no garbage
+ * is created per iteration. Contexts aren't stored in the nodes, but are materialised during the descent by replaying
+ * the moves from the root. Children are evaluated batched on expansion, and their best estimated values are
+ * backpropagated with the implicit minimax backup. The tree is reused by copying the subtree of the new root to a
+ * second store.
+ */
+public class MCTS_compact extends AI {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Default number of nodes of the store (around 70 MB per store)
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 21;
+
+    /**
+     * Maximum time (in milliseconds) to wait for the workers after the search should have stopped
+     */
+    protected static final long WORKER_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * Path to the neural network
+     */
+    protected String pathName = "NN_models/Network_bSize128_nEp1_nGa1563_2022-11-12-04-50-34.bin";
+
+    /**
+     * Influence of the estimated value on the selection (same as the initial alpha of "MCTS_alpha")
+     */
+    protected double alpha = .6;
+
+    /**
+     * Exploration constant of implicit UCT
+     */
+    protected double explorationConstant = .0001;
+
+    /**
+     * Number of threads performing the search
+     */
+    protected int numThreads = 4;
+
+    /**
+     * Maximum number of nodes of the stores
+     */
+    protected int capacity;
+
+    /**
+     * Indicates if the subtree of the new root is reused in the next search
+     */
+    protected boolean treeReuse = true;
+
+    /**
+     * Store containing the tree of the current search
+     */
+    protected ImplicitNodeStore store = null;
+
+    /**
+     * Second store, to which the subtree of the new root is copied for tree reuse (allocated when needed)
+     */
+    protected ImplicitNodeStore spareStore = null;
+
+    /**
+     * Context of the root of the tree in the store (null if there is no tree)
+     */
+    protected Context rootContext = null;
+
+    /**
+     * Number of moves played in the context of the root
+     */
+    protected int rootNumMoves = -1;
+
+    /**
+     * Persistent workers which perform the search
+     */
+    protected SearchWorkerPool workerPool = null;
+
+    /**
+     * GameStateEvaluator used to evaluate non-terminal leaf nodes
+     */
+    protected NeuralNetworkLeafEvaluator leafEvaluator;
+
+    /**
+     * GameStateEvaluator used to evaluate terminal leaf nodes
+     */
+    protected GameStateEvaluator terminalEvaluator;
+
+    /**
+     * Number of iterations performed during the last search
+     */
+    protected int lastNumIterations = 0;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the path to the desired neural network as string
+     * (alpha=0.6, exploration=0.0001, 4 threads, default capacity)
+     *
+     * @param pathName Path to the desired neural network
+     */
+    public MCTS_compact(String pathName) {
+        this(pathName, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor with the path to the desired neural network as string and the capacity of the store
+     * (alpha=0.6, exploration=0.0001, 4 threads)
+     *
+     * @param pathName Path to the desired neural network
+     * @param capacity Maximum number of nodes of the store
+     */
+    public MCTS_compact(String pathName, int capacity) {
+        this.friendlyName = "MCTS (compact)";
+        this.pathName = pathName;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Selects and returns an action to play based on MCTS using the compact node store
+     *
+     * @param game          Reference to the game we're playing.
+     * @param context       Copy of the context containing the current state of the game
+     * @param maxSeconds    Max number of seconds before a move should be selected.
+     *                      Values less than 0 mean there is no time limit.
+     * @param maxIterations Max number of iterations before a move should be selected.
+     *                      Values less than 0 mean there is no iteration limit.
+     * @param maxDepth      Max search depth before a move should be selected (not used).
+     * @return Preferred move.
+     */
+    @Override
+    public Move selectAction
+    (
+            final Game game, final Context context, final double maxSeconds,
+            final int maxIterations, final int maxDepth
+    ) {
+        // Determine maximum iterations and stop time
+        final long stopTime = (maxSeconds > 0.0) ? System.currentTimeMillis() + (long) (maxSeconds * 1000) :
+                Long.MAX_VALUE;
+        final int maxIts = (maxIterations >= 0) ? maxIterations : Integer.MAX_VALUE;
+
+        // Reuse the subtree of the new root or create a new root
+        this.initRoot(context);
+        EvaluationStore.nextGeneration(this.leafEvaluator);
+
+        // Let all workers search until the time or iterations run out
+        if (this.workerPool == null || this.workerPool.numWorkers() != this.numThreads) {
+            this.shutdownWorkers();
+            this.workerPool = new SearchWorkerPool(this.numThreads, this.friendlyName);
+        }
+        final AtomicInteger numIterations = new AtomicInteger();
+        this.workerPool.run(() -> {
+            while (numIterations.get() < maxIts && System.currentTimeMillis() < stopTime && !this.wantsInterrupt) {
+                this.iteration();
+                numIterations.incrementAndGet();
+            }
+        }, stopTime == Long.MAX_VALUE ? Long.MAX_VALUE :
+                Math.max(0, stopTime - System.currentTimeMillis()) + WORKER_TIMEOUT_MILLIS);
+        this.lastNumIterations = numIterations.get();
+
+        return this.robustChild(context);
+    }
+
+    /**
+     * Reuses the subtree of the current game position (copied to the spare store) if it's part of the tree,
+     * otherwise a new root is created
+     *
+     * @param context Context containing the current state of the game
+     */
+    protected void initRoot(Context context) {
+        final List<Move> actionHistory = context.trial().generateCompleteMovesList();
+
+        // Find the node of the current game position by following the played moves
+        int node = -1;
+        if (this.treeReuse && this.rootContext != null && actionHistory.size() >= this.rootNumMoves) {
+            node = 0;
+            for (int i = this.rootNumMoves; i < actionHistory.size() && node >= 0; i++) {
+                node = this.store.findChild(node, actionHistory.get(i));
+            }
+        }
+
+        this.rootContext = new Context(context);
+        this.rootNumMoves = actionHistory.size();
+        if (node > 0) {
+            if (this.spareStore == null) {
+                this.spareStore = new ImplicitNodeStore(this.capacity);
+            }
+            this.store.copySubtree(node, this.spareStore);
+
+            final ImplicitNodeStore oldStore = this.store;
+            this.store = this.spareStore;
+            this.spareStore = oldStore;
+        } else if (node < 0) {
+            final boolean terminal = context.trial().over();
+            this.store.createRoot(terminal, terminal ? this.terminalEvaluator.evaluate(context, 1) : 0);
+        }
+    }
+
+    /**
+     * Performs a single iteration: select a leaf with implicit UCT (adding virtual visits), expand and evaluate its
+     * children, and backpropagate the best estimated value of the leaf
+     */
+    protected void iteration() {
+        final ImplicitNodeStore store = this.store;
+        final Context context = new Context(this.rootContext);
+
+        // Selection
+        int node = 0;
+        store.addVirtualVisit(node);
+        while (store.status(node) == ImplicitNodeStore.EXPANDED) {
+            node = this.select(store, node);
+            context.game().apply(context, store.move(node));
+            store.addVirtualVisit(node);
+        }
+
+        // Expansion (threads that didn't claim the node backpropagate its current value)
+        if (store.status(node) == ImplicitNodeStore.UNEXPANDED && store.tryStartExpansion(node)) {
+            this.expand(store, node, context);
+        }
+
+        // Backpropagation with implicit minimax backup
+        final double value = store.bestValue(node);
+        boolean changed = true;
+        for (int n = node; n >= 0; n = store.parent(n)) {
+            store.update(n, value);
+            if (changed && n != node) {
+                changed = store.minimaxBackup(n);
+            }
+        }
+    }
+
+    /**
+     * Selects the child of the node with the highest implicit UCT value, where the exploitation score is decreased by
+     * the virtual visits. Unvisited children use the average score of the parent.
+     *
+     * @param store Store containing the tree
+     * @param node  Index of the (expanded) node
+     * @return Index of the selected child
+     */
+    protected int select(ImplicitNodeStore store, int node) {
+        final double sign = store.mover(node) == 1 ? 1 : -1;
+        final int parentVisits = store.visits(node);
+        final double parentLog = Math.log(Math.max(1, parentVisits));
+        final double unvisitedExploit = parentVisits > 0 ? sign * store.totalScore(node) / parentVisits : 0;
+
+        int bestChild = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int numBestFound = 0;
+        final int first = store.firstChild(node);
+        final int end = first + store.numChildren(node);
+        for (int child = first; child < end; child++) {
+            final int virtualVisits = store.virtualVisits(child);
+            final int visits = store.visits(child) + virtualVisits;
+
+            final double exploit;
+            final double explore;
+            if (visits == 0) {
+                exploit = unvisitedExploit;
+                explore = Math.sqrt(parentLog);
+            } else {
+                exploit = (sign * store.totalScore(child) - virtualVisits) / visits;
+                explore = Math.sqrt(parentLog / visits);
+            }
+
+            final double value = (1 - this.alpha) * exploit + this.alpha * sign * store.bestValue(child) +
+                    this.explorationConstant * explore;
+            if (value > bestValue) {
+                bestValue = value;
+                bestChild = child;
+                numBestFound = 1;
+            } else if (value == bestValue && ThreadLocalRandom.current().nextInt(++numBestFound) == 0) {
+                bestChild = child;
+            }
+        }
+
+        return bestChild;
+    }
+
+    /**
+     * Expands the node: evaluates all children batched and stores them contiguously. A terminal game state, or a node
+     * of which the children don't fit in the store anymore, is marked final instead.
+     *
+     * @param store   Store containing the tree
+     * @param node    Index of the node, of which this thread claimed the expansion
+     * @param context Context of the node
+     */
+    protected void expand(ImplicitNodeStore store, int node, Context context) {
+        if (context.trial().over()) {
+            store.setFinal(node, ImplicitNodeStore.TERMINAL, this.terminalEvaluator.evaluate(context, 1));
+            return;
+        }
+
+        final FastArrayList<Move> legalMoves = context.moves(context).moves();
+        final int numLegalMoves = legalMoves.size();
+        final int first = store.allocate(numLegalMoves);
+        if (first < 0) {
+            store.setFinal(node, ImplicitNodeStore.LEAF, store.bestValue(node));
+            return;
+        }
+
+        // Evaluate all children w.r.t. the mover, and store them w.r.t. player 1
+        final Move[] moves = new Move[numLegalMoves];
+        for (int i = 0; i < numLegalMoves; i++) {
+            moves[i] = legalMoves.get(i);
+        }
+        final int mover = context.state().playerToAgent(context.state().mover());
+        final double[] values = EvaluatorUtils.EvaluateChildrenBatched(context, moves, mover, this.leafEvaluator,
+                this.terminalEvaluator);
+        final double sign = mover == 1 ? 1 : -1;
+        for (int i = 0; i < numLegalMoves; i++) {
+            store.initNode(first + i, node, moves[i], sign * values[i]);
+        }
+
+        store.finishExpansion(node, mover, first, numLegalMoves);
+    }
+
+    /**
+     * Selects the child of the root with the most visits (ties are broken by the best estimated value)
+     *
+     * @param context Context containing the current state of the game
+     * @return Move of the robust child
+     */
+    protected Move robustChild(Context context) {
+        final ImplicitNodeStore store = this.store;
+        if (store.status(0) != ImplicitNodeStore.EXPANDED) {
+            return context.moves(context).moves().get(0);
+        }
+
+        final double sign = store.mover(0) == 1 ? 1 : -1;
+        int bestChild = -1;
+        final int first = store.firstChild(0);
+        for (int child = first; child < first + store.numChildren(0); child++) {
+            if (bestChild < 0 || store.visits(child) > store.visits(bestChild) ||
+                    (store.visits(child) == store.visits(bestChild) &&
+                            sign * store.bestValue(child) > sign * store.bestValue(bestChild))) {
+                bestChild = child;
+            }
+        }
+
+        return store.move(bestChild);
+    }
+
+    /**
+     * Perform desired initialisation before starting to play a game
+     * Initialise the store and both GameStateEvaluators
+     *
+     * @param game     The game that we'll be playing
+     * @param playerID The player ID for the AI in this game
+     */
+    @Override
+    public void initAI(final Game game, final int playerID) {
+        if (this.store == null) {
+            this.store = new ImplicitNodeStore(this.capacity);
+        }
+        this.rootContext = null;
+        this.rootNumMoves = -1;
+
+        this.leafEvaluator = OpeningBookEvaluatorWrapper.wrap(game, EvaluationStore.wrap(game,
+                new MultiNeuralNetworkLeafEvaluator(game, LearningManager.loadNetwork(pathName, false),
+                        this.numThreads), pathName), pathName);
+        this.terminalEvaluator = new ClassicTerminalStateEvaluator();
+    }
+
+    /**
+     * Stops the workers and waits (bounded) until they have stopped
+     */
+    protected void shutdownWorkers() {
+        if (this.workerPool != null) {
+            this.workerPool.shutdown(WORKER_TIMEOUT_MILLIS);
+        }
+        this.workerPool = null;
+    }
+
+    /**
+     * Closes the AI, workers and GameStateEvaluators correctly after being used!
+     */
+    @Override
+    public void closeAI() {
+        super.closeAI();
+        this.shutdownWorkers();
+
+        if (this.leafEvaluator != null) {
+            this.leafEvaluator.close();
+        }
+        if (this.terminalEvaluator != null) {
+            this.terminalEvaluator.close();
+        }
+    }
+
+    /**
+     * Allows an agent to tell Ludii whether or not it can support playing
+     * any given game. Copied from the UBFM implementation from Ludii.
+     *
+     * @param game Ludii's game
+     * @return False if the AI cannot play the given game.
+     */
+    @Override
+    public boolean supportsGame(Game game) {
+        if (game.isStochasticGame()) {
+            return false;
+        } else if (game.hiddenInformation()) {
+            return false;
+        } else if (game.hasSubgames()) {
+            return false;
+        } else {
+            return game.isAlternatingMoveGame();
+        }
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Sets the number of threads performing the search
+     *
+     * @param numThreads Number of threads
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets whether the subtree of the new root is reused in the next search
+     *
+     * @param treeReuse True if the tree should be reused
+     */
+    public void setTreeReuse(boolean treeReuse) {
+        this.treeReuse = treeReuse;
+    }
+
+    /**
+     * Getter for the number of iterations performed during the last search
+     *
+     * @return Number of iterations
+     */
+    public int getLastNumIterations() {
+        return this.lastNumIterations;
+    }
+
+    /**
+     * Getter for the number of nodes in the store
+     *
+     * @return Number of nodes of the current tree
+     */
+    public int getNumNodes() {
+        return this.store == null ? 0 : this.store.size();
+    }
+}
\ No newline at end of file
@@ -1,7 +1,6 @@
 package Agents;
 
 import Evaluator.ClassicTerminalStateEvaluator;
-import Evaluator.MultiNeuralNetworkLeafEvaluator;
 import MCTSStrategies.Backpropagation.InitialNoPlayoutTerminationBackprop;
 import MCTSStrategies.FinalMoveSelection.RobustChild;
 import MCTSStrategies.Rescaler.Softmax;
@@ -9,6 +8,7 @@ import MCTSStrategies.Selection.ImplicitUCTRescaledExploration8;
 import Training.LearningManager;
 import game.Game;
 import search.mcts.playout.RandomPlayout;
+import utils.EvaluationStore;
 
 /**
  * MCTS search algorithm using neural networks with Implicit UCT, no play-outs, while
@@ -55,8 +55,8 @@ public class MCTS_exploration extends MCTS {
     public void initAI(Game game, int playerID) {
         super.initParent(game, playerID);
 
-        this.setLeafEvaluator(new MultiNeuralNetworkLeafEvaluator(game,
-                LearningManager.loadNetwork(pathName, false), this.numThreads), game);
+        this.setLeafEvaluator(EvaluationStore.wrap(game, this.createNNLeafEvaluator(game,
+                LearningManager.loadNetwork(pathName, false)), pathName), game);
         this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package Agents.TestAgent;
+
+import Agents.MCTS;
+import Evaluator.BatchedNeuralNetworkLeafEvaluator;
+import Evaluator.ClassicTerminalStateEvaluator;
+import MCTSStrategies.Backpropagation.InitialNoPlayoutTerminationBackprop;
+import MCTSStrategies.FinalMoveSelection.RobustChild;
+import MCTSStrategies.Selection.ImplicitUCTBoundedAlphaDecrease;
+import Training.LearningManager;
+import game.Game;
+import search.mcts.playout.RandomPlayout;
+
+/**
+ * MCTS search algorithm using neural networks (cross-thread batched inference) with enhanced Implicit UCT, no
+ * play-outs, while backpropagating the estimated value by the network, and robust child. Uses the same configuration
+ * as MCTS_alpha, but all threads share a single NN which evaluates the expansions of all threads together.
+ */
+public class ImplicitMCTSNNBatched extends MCTS {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Path to the neural network
+     */
+    String pathName;
+
+    /**
+     * Maximum time (in microseconds) the shared NN waits for more expansions before evaluating a batch
+     */
+    long deadlineMicros = 100;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the path to the desired neural network as string
+     * (initial influence estimated value = 0.6, exploration=0.0001, slope=1, minimum alpha=0.3, QInit=PARENT,
+     * 4 threads)
+     *
+     * @param pathName Path to the desired neural network
+     */
+    public ImplicitMCTSNNBatched(String pathName) {
+        super(new ImplicitUCTBoundedAlphaDecrease(.6, .0001f,
+                        1f, .3),
+                new RandomPlayout(0),
+                new InitialNoPlayoutTerminationBackprop(),
+                new RobustChild());
+
+        this.pathName = pathName;
+
+        this.setNumThreads(4);
+        this.setQInit(QInit.PARENT);
+    }
+
+    /**
+     * Perform desired initialisation before starting to play a game
+     * Initialise the parent and both GameStateEvaluators
+     *
+     * @param game     The game that we'll be playing
+     * @param playerID The player ID for the AI in this game
+     */
+    public void initAI(Game game, int playerID) {
+        super.initParent(game, playerID);
+
+        this.setLeafEvaluator(new BatchedNeuralNetworkLeafEvaluator(game,
+                LearningManager.loadNetwork(pathName, false), 16 * this.numThreads, this.deadlineMicros), game);
+        this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
+    }
+}
@@ -9,6 +9,7 @@ import MCTSStrategies.Selection.ImplicitUCT;
 import Training.LearningManager;
 import game.Game;
 import search.mcts.playout.RandomPlayout;
+import utils.EvaluationStore;
 
 /**
  * MCTS search algorithm using neural networks and transposition tables with Implicit UCT, no play-outs, while
@@ -51,7 +52,8 @@ public class ImplicitMCTSNNNP10 extends MCTS {
         super.initParent(game, playerID);
 
         this.setLeafEvaluator(new MultiNeuralNetworkTTLeafEvaluator(game,
-                LearningManager.loadNetwork(pathName, false), this.numThreads), game);
+                LearningManager.loadNetwork(pathName, false), this.numThreads,
+                EvaluationStore.getCache(game, pathName)), game);
         this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
     }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import MCTSStrategies.Selection.ImplicitUCTBoundedAlphaDecreaseRescaledExplorati
 import Training.LearningManager;
 import game.Game;
 import search.mcts.playout.RandomPlayout;
+import utils.EvaluationStore;
 
 /**
  * MCTS search algorithm using neural networks and transposition tables with enhanced Implicit UCT, no play-outs, while
@@ -59,7 +60,8 @@ public class ImplicitMCTSNNNP47 extends MCTS {
         super.initParent(game, playerID);
 
         this.setLeafEvaluator(new MultiNeuralNetworkTTLeafEvaluator(game,
-                LearningManager.loadNetwork(pathName, false), this.numThreads), game);
+                LearningManager.loadNetwork(pathName, false), this.numThreads,
+                EvaluationStore.getCache(game, pathName)), game);
         this.setTerminalStateEvaluator(new ClassicTerminalStateEvaluator());
     }
 }
\ No newline at end of file
@@ -17,13 +17,12 @@ import search.mcts.playout.RandomPlayout;
 import search.mcts.selection.SelectionStrategy;
 import search.mcts.selection.UCB1;
 import utils.AIUtils;
+import utils.SearchWorkerPool;
 import utils.Value;
 
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -109,12 +108,14 @@ public class MCTSAnalysis extends Agents.MCTS {
         long stopTime = (maxSeconds > 0.0) ? startTime + (long) (maxSeconds * 1000) : Long.MAX_VALUE;
         final int maxIts = (maxIterations >= 0) ? maxIterations : Integer.MAX_VALUE;
 
-        while (numThreadsBusy.get() != 0 && System.currentTimeMillis() < Math.min(stopTime, startTime + 1000L)) {
-            // Give threads in thread pool some more time to clean up after themselves from previous iteration
-        }
+        // Stop pondering, the tree searched so far is reused below
+        this.stopPondering();
 
-        // We'll assume all threads are really done now and just reset to 0
-        numThreadsBusy.set(0);
+        // (Re)create the persistent workers if needed, which stay parked between searches
+        if (this.workerPool == null || this.workerPool.numWorkers() != numThreads) {
+            this.shutdownWorkers();
+            this.workerPool = new SearchWorkerPool(numThreads, friendlyName);
+        }
 
         final AtomicInteger numIterations = new AtomicInteger();
 
@@ -206,6 +207,11 @@ public class MCTSAnalysis extends Agents.MCTS {
 
         rootNode.rootInit(context);
 
+        // Count the nodes of the (reused) tree, which are only counted when a budget is set
+        if (this.hasNodeBudget()) {
+            this.numNodes.set(this.countNodes(rootNode));
+        }
+
         if (rootNode.numLegalMoves() == 1) {
             // play faster if we only have one move available anyway
             if (autoPlaySeconds >= 0.0 && autoPlaySeconds < maxSeconds)
@@ -223,180 +229,171 @@ public class MCTSAnalysis extends Agents.MCTS {
         // Select the mover for the current root
         final int mover = context.state().playerToAgent(context.state().mover());
 
-        // For each thread, queue up a job
-        final CountDownLatch latch = new CountDownLatch(numThreads);
+        // Every (persistent) worker searches until it has to stop, wait until all workers are done
         final long finalStopTime = stopTime;    // Need this to be final for use in inner lambda
-        for (int thread = 0; thread < numThreads; ++thread) {
-            threadPool.submit
-                    (
-                            () ->
-                            {
-                                try {
-                                    numThreadsBusy.incrementAndGet();
-
-                                    // Search until we have to stop
-                                    while (!this.earlyStop(rootThisCall, mover) &&
-                                            numIterations.get() < maxIts && System.currentTimeMillis() < finalStopTime
-                                            && !wantsInterrupt) {
-                                        /*********************
-                                         Selection Phase
-                                         *********************/
-                                        BaseNode current = rootThisCall;
-                                        current.addVirtualVisit();
-                                        current.startNewIteration(context);
-
-                                        Context playoutContext = null;
-
-                                        while (current.contextRef().trial().status() == null) {
-                                            BaseNode prevNode = current;
-                                            prevNode.getLock().lock();
-
-                                            try {
-                                                // If current node is proven, stop selection
-                                                if (this.useSolver && current.isValueProven(mover)) {
-                                                    break;
-                                                }
-
-                                                // Else perform selection
-                                                final int selectedIdx = selectionStrategy.select(this, current);
-                                                BaseNode nextNode = current.childForNthLegalMove(selectedIdx);
-
-                                                final Context newContext = current.traverse(selectedIdx);
-
-                                                if (nextNode == null) {
-                                                    /*********************
-                                                     Expand
-                                                     *********************/
-                                                    nextNode =
-                                                            createNode
-                                                                    (
-                                                                            this,
-                                                                            current,
-                                                                            newContext.trial().lastMove(),
-                                                                            current.nthLegalMove(selectedIdx),
-                                                                            newContext
-                                                                    );
-
-                                                    current.addChild(nextNode, selectedIdx);
-                                                    current = nextNode;
-                                                    current.addVirtualVisit();
-                                                    current.updateContextRef();
-
-                                                    if ((expansionFlags & HEURISTIC_INIT) != 0) {
-                                                        assert (heuristicFunction != null);
-                                                        nextNode.setHeuristicValueEstimates
-                                                                (
-                                                                        AIUtils.heuristicValueEstimates(nextNode.playoutContext(), heuristicFunction)
-                                                                );
-                                                    }
-
-                                                    playoutContext = current.playoutContext();
-
-                                                    break;    // stop Selection phase
-                                                }
-
-                                                current = nextNode;
-                                                current.addVirtualVisit();
-                                                current.updateContextRef();
-                                            } catch (final ArrayIndexOutOfBoundsException e) {
-                                                System.err.println(describeMCTS());
-                                                throw e;
-                                            } finally {
-                                                prevNode.getLock().unlock();
-                                            }
-                                        }
-
-                                        // If value is proven, update game theoretical values
-                                        if (this.useSolver &&
-                                                (current.isValueProven(
-                                                        current.contextRef().state().playerToAgent(
-                                                                current.contextRef().state().mover())))) {
-
-                                            boolean updateGRAVE = (this.backpropFlags & 1) != 0;
-                                            boolean updateGlobalActionStats = (this.backpropFlags & 2) != 0;
-                                            boolean updateGlobalNGramActionStats = (this.backpropFlags & 4) != 0;
-                                            List<MoveKey> moveKeysAMAF = new ArrayList();
-                                            int movesIdxAMAF = current.contextRef().trial().numMoves() - 1;
-                                            Iterator<Move> reverseMovesIterator = current.contextRef().trial().reverseMoveIterator();
-
-//                                            System.out.println("Current solved = " + current.isValueProven(mover) + ")");
-//                                            System.out.println("List size: " + moveKeysAMAF.size());
-//                                            System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
-//                                                    " (solved = " + rootThisCall.isValueProven(mover) + ")");
-//                                            System.out.println("Move idx: " + movesIdxAMAF);
-//                                            System.out.println("--");
-
-                                            current.updateGameTheoreticalValues(updateGRAVE, updateGlobalActionStats,
-                                                    moveKeysAMAF, movesIdxAMAF, reverseMovesIterator,
-                                                    current.totalScores());
-
-//                                            System.out.println("Current solved = " + current.isValueProven(mover) + ")");
-//                                            System.out.println("List size: " + moveKeysAMAF.size());
-//                                            System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
-//                                                    " (solved = " + rootThisCall.isValueProven(mover) + ")");
-//                                            System.out.println("Move idx: " + movesIdxAMAF);
-//                                            System.out.println();
-
-                                            double[] tempUtil = new double[3];
-                                            for (int i = 1; i < 3; i++) {
-                                                tempUtil[i] = current.totalScore(i) / Value.INF;
-                                            }
-
-                                            this.backpropagationStrategy.updateGlobalActionStats(this, updateGlobalActionStats,
-                                                    updateGlobalNGramActionStats, moveKeysAMAF, current.contextRef(),
-                                                    tempUtil);
-                                        }
-                                        // Else use backpropagation strategy of Ludii
-                                        else {
-                                            Trial endTrial = current.contextRef().trial();
-                                            int numPlayoutActions = 0;
-
-                                            if (!endTrial.over() && playoutValueWeight > 0.0) {
-                                                // Did not reach a terminal game state yet
-
-                                                /********************************
-                                                 Play-out
-                                                 ********************************/
-
-                                                final int numActionsBeforePlayout = current.contextRef().trial().numMoves();
-
-                                                endTrial = playoutStrategy.runPlayout(this, playoutContext);
-                                                numPlayoutActions = (endTrial.numMoves() - numActionsBeforePlayout);
-
-                                                lastNumPlayoutActions +=
-                                                        (playoutContext.trial().numMoves() - numActionsBeforePlayout);
-                                            } else {
-                                                // Reached a terminal game state
-                                                playoutContext = current.contextRef();
-                                            }
-
-                                            /***************************
-                                             Backpropagation Phase
-                                             ***************************/
-                                            final double[] outcome = RankUtils.agentUtilities(playoutContext);
-                                            backpropagationStrategy.update(this, current, playoutContext, outcome, numPlayoutActions);
-                                        }
-
-                                        numIterations.incrementAndGet();
-                                    }
-
-                                    rootThisCall.cleanThreadLocals();
-                                } catch (final Exception e) {
-                                    System.err.println("MCTS error in game: " + context.game().name());
-                                    e.printStackTrace();    // Need to do this here since we don't retrieve runnable's Future result
-                                } finally {
-                                    numThreadsBusy.decrementAndGet();
-                                    latch.countDown();
+        final Runnable search = () -> {
+            try {
+                numThreadsBusy.incrementAndGet();
+
+                // Search until we have to stop
+                while (!this.earlyStop(rootThisCall, mover) &&
+                        numIterations.get() < maxIts && System.currentTimeMillis() < finalStopTime
+                        && !wantsInterrupt) {
+                    /*********************
+                     Selection Phase
+                     *********************/
+                    BaseNode current = rootThisCall;
+                    current.addVirtualVisit();
+                    current.startNewIteration(context);
+
+                    Context playoutContext = null;
+
+                    while (current.contextRef().trial().status() == null) {
+                        BaseNode prevNode = current;
+                        prevNode.getLock().lock();
+
+                        try {
+                            // If current node is proven, stop selection
+                            if (this.useSolver && current.isValueProven(mover)) {
+                                break;
+                            }
+
+                            // Else perform selection
+                            final int selectedIdx = selectionStrategy.select(this, current);
+                            BaseNode nextNode = current.childForNthLegalMove(selectedIdx);
+
+                            final Context newContext = current.traverse(selectedIdx);
+
+                            if (nextNode == null) {
+                                /*********************
+                                 Expand
+                                 *********************/
+                                nextNode =
+                                        createNode
+                                                (
+                                                        this,
+                                                        current,
+                                                        newContext.trial().lastMove(),
+                                                        current.nthLegalMove(selectedIdx),
+                                                        newContext
+                                                );
+
+                                current.addChild(nextNode, selectedIdx);
+                                this.countPublishedNode();
+                                current = nextNode;
+                                current.addVirtualVisit();
+                                current.updateContextRef();
+
+                                if ((expansionFlags & HEURISTIC_INIT) != 0) {
+                                    assert (heuristicFunction != null);
+                                    nextNode.setHeuristicValueEstimates
+                                            (
+                                                    AIUtils.heuristicValueEstimates(nextNode.playoutContext(), heuristicFunction)
+                                            );
                                 }
+
+                                playoutContext = current.playoutContext();
+
+                                break;    // stop Selection phase
                             }
-                    );
-        }
 
-        try {
-            latch.await(stopTime - startTime + 2000L, TimeUnit.MILLISECONDS);
-        } catch (final InterruptedException e) {
-            e.printStackTrace();
-        }
+                            current = nextNode;
+                            current.addVirtualVisit();
+                            current.updateContextRef();
+                        } catch (final ArrayIndexOutOfBoundsException e) {
+                            System.err.println(describeMCTS());
+                            throw e;
+                        } finally {
+                            prevNode.getLock().unlock();
+                        }
+                    }
+
+                    // If value is proven, update game theoretical values
+                    if (this.useSolver &&
+                            (current.isValueProven(
+                                    current.contextRef().state().playerToAgent(
+                                            current.contextRef().state().mover())))) {
+
+                        boolean updateGRAVE = (this.backpropFlags & 1) != 0;
+                        boolean updateGlobalActionStats = (this.backpropFlags & 2) != 0;
+                        boolean updateGlobalNGramActionStats = (this.backpropFlags & 4) != 0;
+                        List<MoveKey> moveKeysAMAF = new ArrayList();
+                        int movesIdxAMAF = current.contextRef().trial().numMoves() - 1;
+                        Iterator<Move> reverseMovesIterator = current.contextRef().trial().reverseMoveIterator();
+
+//                        System.out.println("Current solved = " + current.isValueProven(mover) + ")");
+//                        System.out.println("List size: " + moveKeysAMAF.size());
+//                        System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
+//                                " (solved = " + rootThisCall.isValueProven(mover) + ")");
+//                        System.out.println("Move idx: " + movesIdxAMAF);
+//                        System.out.println("--");
+
+                        current.updateGameTheoreticalValues(updateGRAVE, updateGlobalActionStats,
+                                moveKeysAMAF, movesIdxAMAF, reverseMovesIterator,
+                                current.totalScores());
+
+//                        System.out.println("Current solved = " + current.isValueProven(mover) + ")");
+//                        System.out.println("List size: " + moveKeysAMAF.size());
+//                        System.out.println("Root depth: " + (rootThisCall.contextRef().trial().numMoves()-1) +
+//                                " (solved = " + rootThisCall.isValueProven(mover) + ")");
+//                        System.out.println("Move idx: " + movesIdxAMAF);
+//                        System.out.println();
+
+                        double[] tempUtil = new double[3];
+                        for (int i = 1; i < 3; i++) {
+                            tempUtil[i] = current.totalScore(i) / Value.INF;
+                        }
+
+                        this.backpropagationStrategy.updateGlobalActionStats(this, updateGlobalActionStats,
+                                updateGlobalNGramActionStats, moveKeysAMAF, current.contextRef(),
+                                tempUtil);
+                    }
+                    // Else use backpropagation strategy of Ludii
+                    else {
+                        Trial endTrial = current.contextRef().trial();
+                        int numPlayoutActions = 0;
+
+                        if (!endTrial.over() && playoutValueWeight > 0.0) {
+                            // Did not reach a terminal game state yet
+
+                            /********************************
+                             Play-out
+                             ********************************/
+
+                            final int numActionsBeforePlayout = current.contextRef().trial().numMoves();
+
+                            endTrial = playoutStrategy.runPlayout(this, playoutContext);
+                            numPlayoutActions = (endTrial.numMoves() - numActionsBeforePlayout);
+
+                            lastNumPlayoutActions +=
+                                    (playoutContext.trial().numMoves() - numActionsBeforePlayout);
+                        } else {
+                            // Reached a terminal game state
+                            playoutContext = current.contextRef();
+                        }
+
+                        /***************************
+                         Backpropagation Phase
+                         ***************************/
+                        final double[] outcome = RankUtils.agentUtilities(playoutContext);
+                        backpropagationStrategy.update(this, current, playoutContext, outcome, numPlayoutActions);
+                    }
+
+                    numIterations.incrementAndGet();
+
+                    // Collapse the least visited subtrees if the tree exceeds its budget
+                    this.pruneIfExceedsNodeBudget(rootThisCall);
+                }
+
+                rootThisCall.cleanThreadLocals();
+            } catch (final Exception e) {
+                System.err.println("MCTS error in game: " + context.game().name());
+                e.printStackTrace();    // Need to do this here since we don't retrieve runnable's Future result
+            } finally {
+                numThreadsBusy.decrementAndGet();
+            }
+        };
+        this.workerPool.run(search, stopTime - startTime + 2000L);
 
         lastNumMctsIterations = numIterations.get();
 
@@ -3,12 +3,14 @@ package Agents;
 import Agents.TestAgent.UBFMHFCompleted;
 import Evaluator.ClassicTerminalStateEvaluator;
 import Evaluator.NeuralNetworkLeafEvaluator;
+import Evaluator.OpeningBookEvaluatorWrapper;
 import Training.LearningManager;
 import game.Game;
 import main.collections.FastArrayList;
 import other.context.Context;
 import other.move.Move;
 import utils.CompletedMove;
+import utils.EvaluationStore;
 import utils.TranspositionTableStampCompleted;
 import utils.TranspositionTableStampCompleted.StampTTDataCompleted;
 
@@ -203,7 +205,10 @@ public class UBFMNNCompleted extends UBFMHFCompleted {
         this.TT = new TranspositionTableStampCompleted(numBitsPrimaryCode);
         this.TT.allocate();
 
-        this.leafEvaluator = new NeuralNetworkLeafEvaluator(game, LearningManager.loadNetwork(pathName, false));
+        this.leafEvaluator = OpeningBookEvaluatorWrapper.wrap(game, EvaluationStore.wrap(game,
+                new NeuralNetworkLeafEvaluator(game, LearningManager.loadNetwork(pathName, false)), pathName),
+                pathName);
+        EvaluationStore.nextGeneration(this.leafEvaluator);
         this.terminalEvaluator = new ClassicTerminalStateEvaluator();
     }
 }
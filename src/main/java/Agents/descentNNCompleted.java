@@ -9,6 +9,7 @@ import other.context.Context;
 import other.move.Move;
 import utils.CompletedMove;
 import utils.Enums;
+import utils.EvaluationStore;
 import utils.TranspositionTableStampCompleted;
 import utils.TranspositionTableStampCompleted.StampTTDataCompleted;
 
@@ -211,7 +212,9 @@ public class descentNNCompleted extends descentHFCompleted {
         this.TT = new TranspositionTableStampCompleted(numBitsPrimaryCode);
         this.TT.allocate();
 
-        this.leafEvaluator = new NeuralNetworkLeafEvaluator(game, LearningManager.loadNetwork(pathName, false));
+        this.leafEvaluator = EvaluationStore.wrap(game,
+                new NeuralNetworkLeafEvaluator(game, LearningManager.loadNetwork(pathName, false)), pathName);
+        EvaluationStore.nextGeneration(this.leafEvaluator);
         this.terminalEvaluator = new ClassicTerminalStateEvaluator();
     }
 }
@@ -0,0 +1,289 @@
+package Evaluator;
+
+import game.Game;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import other.context.Context;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a leaf evaluator that collects the evaluation requests of all search threads in a single shared queue
+ * (DeepLearning4J). A single dispatcher thread gathers the pending requests until the batch size threshold or the
+ * deadline (in microseconds) is reached, performs one forward pass for the entire batch and completes the request of
+ * each waiting thread. The evaluator is thread safe, while only a single NN is stored.
+ * Please note, "close" needs to be called when the evaluator isn't used anymore, to stop the dispatcher thread.
+ */
+public class BatchedNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Shared queue with all pending evaluation requests of the search threads
+     */
+    protected final LinkedBlockingQueue<EvaluationRequest> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Minimum number of positions (rows) in a batch before the batch is evaluated without waiting for the deadline
+     */
+    protected final int batchSize;
+
+    /**
+     * Maximum time (in microseconds) the dispatcher waits for more requests after receiving the first request
+     */
+    protected final long deadlineMicros;
+
+    /**
+     * Thread performing all forward passes of the NN
+     */
+    protected final Thread dispatcher;
+
+    /**
+     * Indicates if the dispatcher should keep running
+     */
+    protected volatile boolean running = true;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game, neural network, batch size threshold and deadline as input
+     *
+     * @param game           Ludii's game
+     * @param net            DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *                       The network should always predict with respect to player 1.
+     * @param batchSize      Minimum number of positions in a batch before it is evaluated directly
+     * @param deadlineMicros Maximum time (in microseconds) to wait for more requests before evaluating a batch
+     */
+    public BatchedNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net, int batchSize, long deadlineMicros) {
+        super(game, net);
+
+        this.batchSize = batchSize;
+        this.deadlineMicros = deadlineMicros;
+
+        // Start dispatcher (daemon, so it never prevents the JVM from exiting)
+        this.dispatcher = new Thread(this::dispatch, "BatchedNeuralNetworkLeafEvaluator");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Evaluates the current context by adding it to the shared batch and waiting for the result.
+     * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
+     * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
+    public float evaluate(Context context, int maximisingPlayer) {
+        float value = this.submit(boardToInput(context))[0];
+
+        return maximisingPlayer == 1 ? value : -value;
+    }
+
+    /**
+     * Evaluates all non-terminal moves of the current context by adding them to the shared batch and waiting for
+     * the result.
+     * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
+     * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
+    public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
+        float[] values = this.submit(movesToInput(context, nonTerminalMoves));
+
+        if (maximisingPlayer != 1) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = -values[i];
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Adds the input to the shared queue and blocks until the dispatcher evaluated it
+     *
+     * @param input Input for the NN (the first dimension contains the positions)
+     * @return Output of the NN for all positions of the input (w.r.t. player 1)
+     */
+    protected float[] submit(INDArray input) {
+        if (!this.running) {
+            throw new IllegalStateException("The BatchedNeuralNetworkLeafEvaluator has already been closed.");
+        }
+
+        EvaluationRequest request = new EvaluationRequest(input);
+        this.queue.add(request);
+
+        // If the evaluator got closed in the meantime, the dispatcher might never see the request
+        if (!this.running && this.queue.remove(request)) {
+            request.result.completeExceptionally(
+                    new IllegalStateException("The BatchedNeuralNetworkLeafEvaluator has been closed."));
+        }
+
+        return request.result.join();
+    }
+
+    /**
+     * Loop of the dispatcher thread. Waits for the first request, collects requests until the batch size or the
+     * deadline is reached and evaluates all collected requests with a single forward pass.
+     */
+    protected void dispatch() {
+        ArrayList<EvaluationRequest> batch = new ArrayList<>();
+        while (this.running) {
+            try {
+                // Wait for the first request of the batch
+                EvaluationRequest first = this.queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Collect requests until the threshold or deadline is reached
+                batch.add(first);
+                int numRows = first.numRows;
+                long deadline = System.nanoTime() + this.deadlineMicros * 1000L;
+                while (numRows < this.batchSize) {
+                    EvaluationRequest request = this.queue.poll();
+                    if (request == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+
+                        request = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (request == null) {
+                            break;
+                        }
+                    }
+
+                    batch.add(request);
+                    numRows += request.numRows;
+                }
+
+                this.evaluateBatch(batch);
+            } catch (InterruptedException e) {
+                // Requests that were already taken from the queue won't be evaluated anymore
+                for (EvaluationRequest request : batch) {
+                    request.result.completeExceptionally(
+                            new IllegalStateException("The BatchedNeuralNetworkLeafEvaluator has been closed."));
+                }
+
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Make sure no search thread keeps waiting on a request that will never be evaluated
+        this.failPendingRequests();
+    }
+
+    /**
+     * Completes all requests that are still in the queue exceptionally, such that no search thread keeps waiting on
+     * a request that will never be evaluated
+     */
+    protected void failPendingRequests() {
+        EvaluationRequest request;
+        while ((request = this.queue.poll()) != null) {
+            request.result.completeExceptionally(
+                    new IllegalStateException("The BatchedNeuralNetworkLeafEvaluator has been closed."));
+        }
+    }
+
+    /**
+     * Evaluates all requests of the batch with a single forward pass and completes the result of each request
+     *
+     * @param batch All requests that need to be evaluated
+     */
+    protected void evaluateBatch(ArrayList<EvaluationRequest> batch) {
+        try {
+            // Combine all inputs to a single input
+            INDArray input;
+            if (batch.size() == 1) {
+                input = batch.get(0).input;
+            } else {
+                INDArray[] inputs = new INDArray[batch.size()];
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = batch.get(i).input;
+                }
+                input = Nd4j.concat(0, inputs);
+            }
+
+            // Single forward pass and split the output over all requests
+            float[] output = this.net.output(input, false).toFloatVector();
+            int offset = 0;
+            for (EvaluationRequest request : batch) {
+                float[] values = new float[request.numRows];
+                System.arraycopy(output, offset, values, 0, request.numRows);
+                offset += request.numRows;
+
+                request.result.complete(values);
+            }
+        } catch (RuntimeException e) {
+            for (EvaluationRequest request : batch) {
+                request.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread and fails all requests that haven't been evaluated. This method needs to be called
+     * in the AI agent class in the "CloseAI" method when being used.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.dispatcher.interrupt();
+        try {
+            this.dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.failPendingRequests();
+    }
+
+    /**
+     * Single evaluation request of a search thread, containing the input for the NN and the future result
+     */
+    protected static class EvaluationRequest {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Input for the NN
+         */
+        final INDArray input;
+
+        /**
+         * Number of positions in the input
+         */
+        final int numRows;
+
+        /**
+         * Output of the NN for all positions (w.r.t. player 1), completed by the dispatcher
+         */
+        final CompletableFuture<float[]> result = new CompletableFuture<>();
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with the input of the NN as input
+         *
+         * @param input Input for the NN (the first dimension contains the positions)
+         */
+        EvaluationRequest(INDArray input) {
+            this.input = input;
+            this.numRows = (int) input.size(0);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package Evaluator;
+
+import game.Game;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import other.action.Action;
+import other.action.ActionType;
+import other.context.Context;
+import other.move.Move;
+import other.state.container.ContainerState;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts Ludii's game states to the input of the DL4J NNs (a channel for each player, in which a position gets the
+ * value 1 if a piece of the player is located at that position, including padding). Instead of writing every piece
+ * to an INDArray individually, all game states of a batch are written to a reusable float array (see "Scratch"), which
+ * gets converted to an INDArray once per batch. The ownership of the pieces is read directly from the container
+ * state, without cloning it.
+ * The game states of children can be derived from the encoding of the parent by only changing the squares of the
+ * move (from, to and a capture on the to square), instead of applying the move on a copy of the context. This is
+ * decided for every move based on its actions: only moves consisting of a single step from the from to the to square
+ * (and the removal of the captured piece on the to square) are derived, all other moves (e.g. multi-site captures,
+ * promotions or consequences) are applied. When assertions are enabled, the first derived children are checked with
+ * a full apply.
+ * The encoder is thread safe, since every thread acquires its own buffers from a pool (see "acquire"). The buffers
+ * are pooled instead of stored per thread, such that short-lived (virtual) threads don't allocate new buffers.
+ */
+public class BoardEncoder {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Total number of squares on the board
+     */
+    protected final int numSquares;
+
+    /**
+     * Total number of rows and columns (Squared Board is assumed)
+     */
+    protected final int numRowsCols;
+
+    /**
+     * Number of players, assumption of two-player games is made
+     */
+    protected final int numPlayers = 2;
+
+    /**
+     * Number of rows/columns with padding (single row is used for all Networks)
+     */
+    protected final int padding = 1;
+
+    /**
+     * Number of rows/columns of a single channel including the padding
+     */
+    protected final int sideLength;
+
+    /**
+     * Number of values in a single channel
+     */
+    protected final int planeSize;
+
+    /**
+     * Number of values of a single game state (all channels)
+     */
+    protected final int sampleSize;
+
+    /**
+     * Offset of every square in the channel of the first player (the offset of the channel of the second player is
+     * planeSize larger)
+     */
+    protected final int[] siteOffsets;
+
+    /**
+     * Pool of buffers which aren't used by any thread
+     */
+    protected final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Indicates if children are derived from the parent encoding (if their moves allow it)
+     */
+    protected final boolean deltaEncoding;
+
+    /**
+     * Remaining number of derived children that are checked with a full apply (only if assertions are enabled)
+     */
+    protected final AtomicInteger remainingChecks;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game as input
+     *
+     * @param game Ludii's game
+     */
+    public BoardEncoder(Game game) {
+        this(game, 1000);
+    }
+
+    /**
+     * Constructor with the game and the number of derived children that are checked with a full apply as input
+     *
+     * @param game      Ludii's game
+     * @param numChecks Number of derived children that are checked with a full apply if assertions are enabled
+     *                  (0 disables the derivation of children)
+     */
+    public BoardEncoder(Game game, int numChecks) {
+        this.numSquares = game.board().numSites();
+        this.numRowsCols = (int) Math.sqrt(numSquares);
+        this.sideLength = numRowsCols + 2 * padding;
+        this.planeSize = sideLength * sideLength;
+        this.sampleSize = numPlayers * planeSize;
+
+        // Precompute the position of every square in the (padded) channel
+        this.siteOffsets = new int[numSquares];
+        for (int i = 0; i < numSquares; i++) {
+            this.siteOffsets[i] = (i / numRowsCols + padding) * sideLength + i % numRowsCols + padding;
+        }
+
+        this.deltaEncoding = numChecks > 0;
+        this.remainingChecks = new AtomicInteger(numChecks);
+    }
+
+    /**
+     * Acquires buffers from the pool (or creates them if all buffers are in use). The buffers need to be returned by
+     * closing them, e.g. with a try-with-resources statement.
+     *
+     * @return Buffers which can only be used by the current thread until they are closed
+     */
+    public Scratch acquire() {
+        Scratch scratch = this.scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    /**
+     * Writes the game state of the context to the buffer at the given index of the batch
+     *
+     * @param context Ludii's context of the game state
+     * @param buffer  Buffer of the batch (see "Scratch.buffer")
+     * @param sample  Index of the game state in the batch
+     */
+    public void encode(Context context, float[] buffer, int sample) {
+        ContainerState containerState = context.state().containerStates()[0];
+        int offset = sample * sampleSize;
+        int who;
+        for (int i = 0; i < numSquares; i++) {
+            // If the square contains piece of a player (value == playerID), change the value to one
+            who = containerState.whoCell(i);
+            if (who > 0 && who <= numPlayers) {
+                buffer[offset + (who - 1) * planeSize + siteOffsets[i]] = 1f;
+            }
+        }
+    }
+
+    /**
+     * Converts the buffer to the input of the NN
+     *
+     * @param buffer     Buffer of the batch (see "Scratch.buffer")
+     * @param numSamples Number of game states in the batch
+     * @return Multi-channeled matrix of all game states, which can be used for the NN.
+     */
+    public INDArray toInput(float[] buffer, int numSamples) {
+        return Nd4j.create(buffer, numSamples, numPlayers, sideLength, sideLength);
+    }
+
+    /**
+     * Converts the game board of the context to an input for the NN
+     *
+     * @param context Ludii's context of the current game state
+     * @return Multi-channeled matrix of the game state, which can be used for the NN.
+     */
+    public INDArray encode(Context context) {
+        try (Scratch scratch = this.acquire()) {
+            float[] buffer = scratch.buffer(1);
+            this.encode(context, buffer, 0);
+
+            return this.toInput(buffer, 1);
+        }
+    }
+
+    /**
+     * Encodes the parent game state, such that the children can be derived from it with "encodeChild"
+     *
+     * @param context Ludii's context of the parent game state
+     * @param scratch Buffers of the current thread
+     * @return Buffer containing the encoding of the parent
+     */
+    public float[] encodeParent(Context context, Scratch scratch) {
+        float[] parent = scratch.parent;
+        Arrays.fill(parent, 0f);
+        this.encode(context, parent, 0);
+
+        return parent;
+    }
+
+    /**
+     * Writes the game state after playing the move in the parent game state to the buffer at the given index of the
+     * batch. If possible, the game state is derived from the encoding of the parent, otherwise the move is applied on
+     * a copy of the context.
+     *
+     * @param context Ludii's context of the parent game state
+     * @param parent  Encoding of the parent (see "encodeParent")
+     * @param move    Legal move of the parent game state
+     * @param buffer  Buffer of the batch (see "Scratch.buffer")
+     * @param sample  Index of the game state in the batch
+     */
+    public void encodeChild(Context context, float[] parent, Move move, float[] buffer, int sample) {
+        // If the move can't be expressed as a change of squares, apply the move
+        if (!this.deltaEncoding || !this.isDeltaMove(move)) {
+            this.encode(applyMove(context, move), buffer, sample);
+            return;
+        }
+
+        this.encodeDelta(parent, move, context.state().mover(), buffer, sample * sampleSize);
+
+        assert this.matchesFullApply(context, move, buffer, sample) :
+                "Derived encoding of " + move + " doesn't match the encoding after applying the move";
+    }
+
+    /**
+     * Checks the derived encoding of a child with a full apply (only the first "numChecks" children are checked)
+     *
+     * @param context Ludii's context of the parent game state
+     * @param move    Legal move of the parent game state
+     * @param buffer  Buffer of the batch containing the derived encoding
+     * @param sample  Index of the game state in the batch
+     * @return False if the derived encoding differs from the encoding after applying the move
+     */
+    protected boolean matchesFullApply(Context context, Move move, float[] buffer, int sample) {
+        if (this.remainingChecks.get() <= 0 || this.remainingChecks.getAndDecrement() <= 0) {
+            return true;
+        }
+
+        float[] check = new float[sampleSize];
+        this.encode(applyMove(context, move), check, 0);
+
+        return Arrays.equals(check, 0, sampleSize, buffer, sample * sampleSize, (sample + 1) * sampleSize);
+    }
+
+    /**
+     * Derives the game state after the move from the encoding of the parent: the piece of the mover is removed from
+     * the from square, and any piece on the to square is replaced by the piece of the mover.
+     *
+     * @param parent Encoding of the parent
+     * @param move   Legal move of the parent game state
+     * @param mover  PlayerID of the player to move in the parent game state
+     * @param buffer Buffer of the batch
+     * @param offset Offset of the game state in the buffer
+     */
+    protected void encodeDelta(float[] parent, Move move, int mover, float[] buffer, int offset) {
+        System.arraycopy(parent, 0, buffer, offset, sampleSize);
+
+        int moverPlane = offset + (mover - 1) * planeSize;
+        int opponentPlane = offset + (numPlayers - mover) * planeSize;
+        buffer[moverPlane + siteOffsets[move.from()]] = 0f;
+        buffer[opponentPlane + siteOffsets[move.to()]] = 0f;
+        buffer[moverPlane + siteOffsets[move.to()]] = 1f;
+    }
+
+    /**
+     * Checks if the move can be expressed as a change of the from and to square: the from and to square need to be
+     * on the board, the move may not have consequences, and its actions may only move the piece from the from to the
+     * to square or remove the captured piece on the to square.
+     *
+     * @param move Legal move
+     * @return True if the child can be derived from the encoding of the parent
+     */
+    protected boolean isDeltaMove(Move move) {
+        int from = move.from();
+        int to = move.to();
+        if (from < 0 || from >= numSquares || to < 0 || to >= numSquares || from == to) {
+            return false;
+        }
+
+        // Consequences are only known after applying the move
+        if (move.then() != null && !move.then().isEmpty()) {
+            return false;
+        }
+
+        for (Action action : move.actions()) {
+            ActionType type = action.actionType();
+            if (type == ActionType.Move) {
+                if (action.from() != from || action.to() != to) {
+                    return false;
+                }
+            } else if (type == ActionType.Remove) {
+                if (action.to() != to) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Applies the move on a copy of the context
+     *
+     * @param context Ludii's context
+     * @param move    Legal move
+     * @return Copy of the context after applying the move
+     */
+    protected static Context applyMove(Context context, Move move) {
+        Context contextCopy = new Context(context);
+        contextCopy.game().apply(contextCopy, move);
+
+        return contextCopy;
+    }
+
+    /**
+     * Buffers of a single thread, which are returned to the pool of the encoder when closed
+     */
+    public final class Scratch implements AutoCloseable {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Buffers of the batches, indexed by the number of game states in the batch
+         */
+        protected float[][] buffers = new float[0][];
+
+        /**
+         * Buffer storing the encoding of the parent game state (used to derive the children)
+         */
+        protected final float[] parent = new float[sampleSize];
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Returns the (zeroed) buffer which can store the given number of game states
+         *
+         * @param numSamples Number of game states in the batch
+         * @return Buffer with exactly enough space for the given number of game states
+         */
+        public float[] buffer(int numSamples) {
+            if (numSamples >= this.buffers.length) {
+                this.buffers = Arrays.copyOf(this.buffers, Math.max(numSamples + 1, 2 * this.buffers.length));
+            }
+
+            float[] buffer = this.buffers[numSamples];
+            if (buffer == null) {
+                buffer = new float[numSamples * sampleSize];
+                this.buffers[numSamples] = buffer;
+            } else {
+                Arrays.fill(buffer, 0f);
+            }
+
+            return buffer;
+        }
+
+        /**
+         * Returns the buffers to the pool of the encoder
+         */
+        @Override
+        public void close() {
+            scratchPool.offer(this);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package Evaluator;
+
+import game.Game;
+import main.collections.FastArrayList;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import other.context.Context;
+import other.move.Move;
+import utils.ConcurrentEvaluationCache;
+
+import java.util.ArrayList;
+
+/**
+ * Generates a wrapper for any "GameStateEvaluator" which stores all evaluations in a (thread-safe)
+ * ConcurrentEvaluationCache, keyed by the Zobrist hash of the game state. Repeated game states (transpositions, also
+ * between threads and moves) are not evaluated again by the original GameStateEvaluator.
+ * The wrapper acts as a NeuralNetworkLeafEvaluator, such that the children can be evaluated batched. If the original
+ * GameStateEvaluator isn't a NeuralNetworkLeafEvaluator, the children are evaluated one by one (using the cache).
+ */
+public class CachedEvaluatorWrapper extends NeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * GameStateEvaluator that needs to be cached
+     */
+    protected final GameStateEvaluator gameStateEvaluator;
+
+    /**
+     * Cache which stores all evaluations (can be shared by multiple evaluators using the same network)
+     */
+    protected final ConcurrentEvaluationCache cache;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game, the GameStateEvaluator that needs to be cached and the cache as input
+     *
+     * @param game               Ludii's game
+     * @param gameStateEvaluator GameStateEvaluator that needs to be cached
+     * @param cache              Cache which stores all evaluations
+     */
+    public CachedEvaluatorWrapper(Game game, GameStateEvaluator gameStateEvaluator, ConcurrentEvaluationCache cache) {
+        super(game, gameStateEvaluator instanceof NeuralNetworkLeafEvaluator ?
+                ((NeuralNetworkLeafEvaluator) gameStateEvaluator).net : null);
+
+        this.gameStateEvaluator = gameStateEvaluator;
+        this.cache = cache;
+    }
+
+    /**
+     * Evaluates the current context by retrieving the value from the cache. If it isn't available, the original
+     * GameStateEvaluator is used, and the value is stored in the cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
+    @Override
+    public float evaluate(Context context, int maximisingPlayer) {
+        long key = this.key(context, maximisingPlayer);
+        float value = this.cache.retrieveValue(key);
+        if (Float.isNaN(value)) {
+            value = this.gameStateEvaluator.evaluate(context, maximisingPlayer);
+            this.cache.storeValue(key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Evaluates all non-terminal moves of the current context by retrieving the values from the cache. If they aren't
+     * available, the original GameStateEvaluator is used (batched if possible), and the values are stored in the
+     * cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
+    @Override
+    public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
+        long key = this.key(context, maximisingPlayer);
+        float[] values = this.cache.retrieveMoveValues(key, nonTerminalMoves.size());
+        if (values == null) {
+            if (this.gameStateEvaluator instanceof NeuralNetworkLeafEvaluator) {
+                values = ((NeuralNetworkLeafEvaluator) this.gameStateEvaluator).evaluateMoves(context,
+                        nonTerminalMoves, maximisingPlayer);
+            } else {
+                // Evaluate all children individually (every child is cached as well)
+                FastArrayList<Move> legalMoves = context.moves(context).moves();
+                values = new float[nonTerminalMoves.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Context contextCopy = new Context(context);
+                    contextCopy.game().apply(contextCopy, legalMoves.get(nonTerminalMoves.get(i)));
+                    values[i] = this.evaluate(contextCopy, maximisingPlayer);
+                }
+            }
+
+            this.cache.storeMoveValues(key, values);
+        }
+
+        return values;
+    }
+
+    /**
+     * Converts the given context to the INDArray of the original GameStateEvaluator (if it is a NN)
+     *
+     * @param context Ludii's context of the current game state
+     * @return Multi-channeled matrix of the game state, which can be used for the NN.
+     */
+    @Override
+    public INDArray boardToInput(Context context) {
+        if (this.gameStateEvaluator instanceof NeuralNetworkLeafEvaluator) {
+            return ((NeuralNetworkLeafEvaluator) this.gameStateEvaluator).boardToInput(context);
+        }
+
+        return super.boardToInput(context);
+    }
+
+    /**
+     * Determines the key of the cache based on the Zobrist hash and maximising player
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return Key of the cache
+     */
+    protected long key(Context context, int maximisingPlayer) {
+        return ConcurrentEvaluationCache.key(context, maximisingPlayer);
+    }
+
+    /**
+     * Closes the original GameStateEvaluator
+     */
+    @Override
+    public void close() {
+        this.gameStateEvaluator.close();
+    }
+
+    /**
+     * Getter for the cache
+     *
+     * @return Cache which stores all evaluations
+     */
+    public ConcurrentEvaluationCache getCache() {
+        return this.cache;
+    }
+}
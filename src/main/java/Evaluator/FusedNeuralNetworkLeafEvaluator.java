@@ -0,0 +1,209 @@
+package Evaluator;
+
+import game.Game;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+/**
+ * Generates a leaf evaluator that evaluates the NNs of "LearningManager.createNetwork" (Cohen and TicTacToe) in plain
+ * Java, without ND4J. For small boards and batches, the dispatch overhead of ND4J (JNI calls and workspaces) is larger
+ * than the computations themselves. The weights are copied once to float arrays, after which every layer is computed
+ * with the bias and activation fused into the layer. The inner loops run over contiguous memory, such that the JIT can
+ * vectorise them. The results are equal to the DL4J network up to floating point rounding.
+ * The weights are shared by all threads and every thread uses its own buffers, so the evaluator is thread safe without
+ * cloning the NN for each thread.
+ * Supported layers: convolutional layers with stride 1 and without padding, and dense/output layers (ReLU, tanh or
+ * identity).
+ */
+public class FusedNeuralNetworkLeafEvaluator extends PlainNeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game and the (trained) neural network as input. The weights are copied once.
+     *
+     * @param game Ludii's game
+     * @param net  DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *             The network should always predict with respect to player 1.
+     */
+    public FusedNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net) {
+        super(game, net);
+    }
+
+    /**
+     * Copies a convolutional layer of the NN (only stride 1 and no padding are supported)
+     *
+     * @param weights     Weights ordered by output channel ([out][in][kH][kW])
+     * @param bias        Bias of every output channel
+     * @param activation  Activation type
+     * @param inChannels  Number of input channels
+     * @param inHeight    Height of the input
+     * @param inWidth     Width of the input
+     * @param outChannels Number of output channels
+     * @param kernel      Kernel size ([height, width])
+     * @param stride      Stride ([height, width])
+     * @param pad         Padding ([height, width])
+     * @return Fused convolutional layer
+     */
+    @Override
+    protected PlainLayer createConvolution(float[] weights, float[] bias, int activation, int inChannels,
+                                           int inHeight, int inWidth, int outChannels, int[] kernel, int[] stride,
+                                           int[] pad) {
+        if (stride[0] != 1 || stride[1] != 1 || pad[0] != 0 || pad[1] != 0) {
+            throw new IllegalArgumentException("Only convolutional layers with stride 1 and without padding " +
+                    "are supported.");
+        }
+
+        return new FusedConvolution(weights, bias, activation, inChannels, inHeight, inWidth, outChannels, kernel);
+    }
+
+    /**
+     * Copies a dense layer of the NN
+     *
+     * @param weights    Weights ordered by output ([out][in])
+     * @param bias       Bias of every output
+     * @param activation Activation type
+     * @param numInputs  Number of inputs
+     * @param numOutputs Number of outputs
+     * @return Fused dense layer
+     */
+    @Override
+    protected PlainLayer createDense(float[] weights, float[] bias, int activation, int numInputs, int numOutputs) {
+        return new FusedDense(weights, bias, activation, numInputs, numOutputs);
+    }
+
+    /**
+     * Convolutional layer (stride 1, no padding) with fused bias and activation
+     */
+    protected static final class FusedConvolution extends PlainLayer {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Weights ordered by output channel ([out][in][kH][kW])
+         */
+        final float[] weights;
+
+        /**
+         * Bias of every output channel
+         */
+        final float[] bias;
+
+        /**
+         * Kernel size
+         */
+        final int kernelHeight, kernelWidth;
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with all information of the layer as input
+         */
+        FusedConvolution(float[] weights, float[] bias, int activation, int inChannels, int inHeight, int inWidth,
+                         int outChannels, int[] kernel) {
+            super(activation, inChannels, inHeight, inWidth, outChannels, inHeight - kernel[0] + 1,
+                    inWidth - kernel[1] + 1);
+            this.weights = weights;
+            this.bias = bias;
+            this.kernelHeight = kernel[0];
+            this.kernelWidth = kernel[1];
+        }
+
+        /**
+         * Computes the layer. For every weight, the contribution is added to a full row of the output, so the inner
+         * loop runs over contiguous memory.
+         *
+         * @param in       Input of the layer ([channel][row][column])
+         * @param inOffset Offset of the input
+         * @param out      Array in which the output is written ([channel][row][column])
+         */
+        @Override
+        void forward(float[] in, int inOffset, float[] out) {
+            final float[] w = this.weights;
+            final int inPlane = this.inHeight * this.inWidth;
+            final int outPlane = this.outHeight * this.outWidth;
+
+            int weightIndex = 0;
+            for (int o = 0; o < this.outChannels; o++) {
+                int outChannel = o * outPlane;
+
+                // Start with the bias
+                for (int j = outChannel; j < outChannel + outPlane; j++) {
+                    out[j] = this.bias[o];
+                }
+
+                // Add the contribution of every weight to all output rows
+                for (int c = 0; c < this.inChannels; c++) {
+                    int inChannel = inOffset + c * inPlane;
+                    for (int ky = 0; ky < this.kernelHeight; ky++) {
+                        for (int kx = 0; kx < this.kernelWidth; kx++) {
+                            float weight = w[weightIndex++];
+                            for (int oy = 0; oy < this.outHeight; oy++) {
+                                int inRow = inChannel + (oy + ky) * this.inWidth + kx;
+                                int outRow = outChannel + oy * this.outWidth;
+                                for (int ox = 0; ox < this.outWidth; ox++) {
+                                    out[outRow + ox] += weight * in[inRow + ox];
+                                }
+                            }
+                        }
+                    }
+                }
+
+                // Activation
+                this.activate(out, outChannel, outPlane);
+            }
+        }
+    }
+
+    /**
+     * Dense layer with fused bias and activation
+     */
+    protected static final class FusedDense extends PlainLayer {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Weights ordered by output ([out][in])
+         */
+        final float[] weights;
+
+        /**
+         * Bias of every output
+         */
+        final float[] bias;
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with all information of the layer as input
+         */
+        FusedDense(float[] weights, float[] bias, int activation, int numInputs, int numOutputs) {
+            super(activation, numInputs, 1, 1, numOutputs, 1, 1);
+            this.weights = weights;
+            this.bias = bias;
+        }
+
+        /**
+         * Computes the layer
+         *
+         * @param in       Input of the layer (flattened as [channel][row][column])
+         * @param inOffset Offset of the input
+         * @param out      Array in which the output is written
+         */
+        @Override
+        void forward(float[] in, int inOffset, float[] out) {
+            final float[] w = this.weights;
+            final int numInputs = this.inChannels;
+
+            for (int o = 0; o < this.outChannels; o++) {
+                int weightOffset = o * numInputs;
+                float sum = 0;
+                for (int i = 0; i < numInputs; i++) {
+                    sum += w[weightOffset + i] * in[inOffset + i];
+                }
+                out[o] = sum + this.bias[o];
+            }
+
+            this.activate(out, 0, this.outChannels);
+        }
+    }
+}
\ No newline at end of file
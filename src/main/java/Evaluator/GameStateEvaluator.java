@@ -15,5 +15,11 @@ public abstract class GameStateEvaluator {
      * @return A float value indicating how good the game state is (higher is better).
      */
     public abstract float evaluate(Context context, int maximisingPlayer);
-}
 
+    /**
+     * Releases the resources of the evaluator (e.g. threads of parallel inference or batching). Does nothing by
+     * default. This method needs to be called in the AI agent class in the "closeAI" method (see "MCTS.closeAI").
+     */
+    public void close() {
+    }
+}
\ No newline at end of file
@@ -5,10 +5,13 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import other.context.Context;
 
 import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Generates a leaf evaluator that generates a seperate NeuralNetworkLeafEvaluator (DeepLearning4J)
- * for each individual thread. The evaluator is thread safe, since all threads will use their own Neural Network.
+ * for each individual thread. The evaluator is thread safe, since every evaluation checks a Neural Network out of a
+ * blocking pool and returns it afterwards, so a NN is never used by two threads at the same time (also not if there
+ * are more threads than NNs, e.g. virtual threads, in which case the threads wait until a NN becomes available).
  * Please note, even though it is faster for some configurations than "ParallelNeuralNetworkLeafEvaluator" (since the
  * threads don't need to wait until a batch is filled), more memory is required, since the NN is stored for each thread.
  */
@@ -22,9 +25,9 @@ public class MultiNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator
     private final int nThreads;
 
     /**
-     * Array of NN evaluators for all threads
+     * Pool of NN evaluators which aren't used by any thread
      */
-    private final NeuralNetworkLeafEvaluator[] evaluators;
+    private final ArrayBlockingQueue<NeuralNetworkLeafEvaluator> evaluators;
 
     //-------------------------------------------------------------------------
 
@@ -42,15 +45,15 @@ public class MultiNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator
         // Add number of threads
         this.nThreads = nThreads;
 
-        // Create NeuralNetworkEvaluator for each thread separately in array
-        evaluators = new NeuralNetworkLeafEvaluator[nThreads];
+        // Create NeuralNetworkEvaluator for each thread separately in the pool
+        evaluators = new ArrayBlockingQueue<>(nThreads);
         for (int i = 0; i < nThreads; i++) {
-            evaluators[i] = new NeuralNetworkLeafEvaluator(game, net.clone());
+            evaluators.add(new NeuralNetworkLeafEvaluator(game, net.clone()));
         }
     }
 
     /**
-     * Evaluates the current context using the NN belonging to the thread being used.
+     * Evaluates the current context using a NN of the pool.
      * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
      * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
      *
@@ -59,11 +62,16 @@ public class MultiNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator
      * @return A float value indicating how good the game state is (higher is better)
      */
     public float evaluate(Context context, int maximisingPlayer) {
-        return this.evaluators[(int) (Thread.currentThread().threadId() % this.nThreads)].evaluate(context, maximisingPlayer);
+        NeuralNetworkLeafEvaluator evaluator = this.acquire();
+        try {
+            return evaluator.evaluate(context, maximisingPlayer);
+        } finally {
+            this.evaluators.add(evaluator);
+        }
     }
 
     /**
-     * Evaluates all non-terminal moves of the current context batched using the NN belonging to the thread being used.
+     * Evaluates all non-terminal moves of the current context batched using a NN of the pool.
      * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
      * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
      *
@@ -74,7 +82,26 @@ public class MultiNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator
      * the game state is (higher is better)
      */
     public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
-        return this.evaluators[(int) (Thread.currentThread().threadId() % this.nThreads)].
-                evaluateMoves(context, nonTerminalMoves, maximisingPlayer);
+        NeuralNetworkLeafEvaluator evaluator = this.acquire();
+        try {
+            return evaluator.evaluateMoves(context, nonTerminalMoves, maximisingPlayer);
+        } finally {
+            this.evaluators.add(evaluator);
+        }
+    }
+
+    /**
+     * Checks a NN evaluator out of the pool, waiting until one becomes available if all NNs are in use
+     *
+     * @return NN evaluator which can only be used by the current thread until it is returned to the pool
+     */
+    private NeuralNetworkLeafEvaluator acquire() {
+        try {
+            return this.evaluators.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while waiting for a NN of the MultiNeuralNetworkLeafEvaluator.", e);
+        }
     }
 }
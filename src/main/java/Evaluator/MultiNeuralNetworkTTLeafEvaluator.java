@@ -3,73 +3,104 @@ package Evaluator;
 import game.Game;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import other.context.Context;
-import utils.TranspositionTableStampMCTS;
-import utils.Value;
+import utils.ConcurrentEvaluationCache;
+import utils.Enums.ReplacementPolicy;
 
 import java.util.ArrayList;
 
+/**
+ * Generates a leaf evaluator that generates a seperate NeuralNetworkLeafEvaluator (DeepLearning4J) for each
+ * individual thread (see "MultiNeuralNetworkLeafEvaluator"), while storing all evaluations in a cache shared by all
+ * threads. The cache (ConcurrentEvaluationCache) is thread safe, so repeated game states are only evaluated once.
+ * By default, a new cache is used for every evaluator, but a cache can also be shared (see "EvaluationStore").
+ */
 public class MultiNeuralNetworkTTLeafEvaluator extends MultiNeuralNetworkLeafEvaluator {
 
     //-------------------------------------------------------------------------
 
-    TranspositionTableStampMCTS TT = new TranspositionTableStampMCTS(20);
+    /**
+     * Cache shared by all threads which stores the evaluations
+     */
+    private final ConcurrentEvaluationCache cache;
 
     //-------------------------------------------------------------------------
 
+    /**
+     * Constructor with the game, neural network and number of threads as input
+     *
+     * @param game     Ludii's game
+     * @param net      DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *                 The network should always predict with respect to player 1.
+     * @param nThreads Number of threads that require their own NN evaluator
+     */
     public MultiNeuralNetworkTTLeafEvaluator(Game game, MultiLayerNetwork net, int nThreads) {
+        this(game, net, nThreads, new ConcurrentEvaluationCache(20, ReplacementPolicy.OLDEST));
+    }
+
+    /**
+     * Constructor with the game, neural network, number of threads and cache as input
+     *
+     * @param game     Ludii's game
+     * @param net      DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *                 The network should always predict with respect to player 1.
+     * @param nThreads Number of threads that require their own NN evaluator
+     * @param cache    Cache which stores the evaluations (can be shared across moves and games, see
+     *                 "EvaluationStore")
+     */
+    public MultiNeuralNetworkTTLeafEvaluator(Game game, MultiLayerNetwork net, int nThreads,
+                                             ConcurrentEvaluationCache cache) {
         super(game, net, nThreads);
-        this.TT.allocate();
+
+        this.cache = cache;
     }
 
+    /**
+     * Evaluates the current context by retrieving the value from the cache. If it isn't available, the NN
+     * belonging to the thread being used evaluates the context, and the value is stored in the cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
     public float evaluate(Context context, int maximisingPlayer) {
-        long zobrist = context.state().fullHash(context);
-        TranspositionTableStampMCTS.StampTTDataMCTS TTData = this.TT.retrieve(zobrist);
-        float value;
-        if (TTData == null || TTData.contextValue == -Value.INF) {
+        long zobrist = ConcurrentEvaluationCache.key(context, maximisingPlayer);
+        float value = this.cache.retrieveValue(zobrist);
+        if (Float.isNaN(value)) {
             value = super.evaluate(context, maximisingPlayer);
-            if (TTData == null) {
-                this.TT.storeContextValue(zobrist, value);
-            } else {
-                TTData.contextValue = value;
-            }
-        } else {
-            value = (float) TTData.contextValue;
+            this.cache.storeValue(zobrist, value);
         }
 
         return value;
     }
 
+    /**
+     * Evaluates all non-terminal moves of the current context by retrieving the values from the cache. If they aren't
+     * available, the NN belonging to the thread being used evaluates them batched, and the values are stored in the
+     * cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
     public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
-        long zobrist = context.state().fullHash(context);
-        TranspositionTableStampMCTS.StampTTDataMCTS TTData = this.TT.retrieve(zobrist);
-        float[] values;
-        if (TTData == null || TTData.contextValue == -Value.INF) {
+        long zobrist = ConcurrentEvaluationCache.key(context, maximisingPlayer);
+        float[] values = this.cache.retrieveMoveValues(zobrist, nonTerminalMoves.size());
+        if (values == null) {
             values = super.evaluateMoves(context, nonTerminalMoves, maximisingPlayer);
-            if (TTData == null) {
-                this.TT.storeMoveValues(zobrist, this.convertFloatsToDoubles(values));
-            } else {
-                TTData.moveValues = this.convertFloatsToDoubles(values);
-            }
-        } else {
-            values = this.convertDoublesToFloats(TTData.moveValues);
+            this.cache.storeMoveValues(zobrist, values);
         }
 
         return values;
     }
 
-    public double[] convertFloatsToDoubles(float[] input) {
-        double[] output = new double[input.length];
-        for (int i = 0; i < input.length; i++) {
-            output[i] = input[i];
-        }
-        return output;
-    }
-
-    public float[] convertDoublesToFloats(double[] input) {
-        float[] output = new float[input.length];
-        for (int i = 0; i < input.length; i++) {
-            output[i] = (float) input[i];
-        }
-        return output;
+    /**
+     * Getter for the cache
+     *
+     * @return Cache shared by all threads which stores the evaluations
+     */
+    public ConcurrentEvaluationCache getCache() {
+        return this.cache;
     }
 }
@@ -1,11 +1,9 @@
 package Evaluator;
 
 import game.Game;
-import main.collections.ChunkSet;
 import main.collections.FastArrayList;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 import other.context.Context;
 import other.move.Move;
 
@@ -26,9 +24,9 @@ public class NeuralNetworkLeafEvaluator extends GameStateEvaluator {
     protected MultiLayerNetwork net;
 
     /**
-     * INDArray (input for NN) that can be used to convert Ludii's context to NN input
+     * Encoder that converts Ludii's context to NN input
      */
-    protected INDArray initialInput;
+    protected BoardEncoder encoder;
 
     /**
      * Total number of squares on the board
@@ -64,9 +62,9 @@ public class NeuralNetworkLeafEvaluator extends GameStateEvaluator {
         this.numSquares = game.board().numSites();
         this.numRowsCols = (int) Math.sqrt(numSquares);
 
-        // Initialise initial input
-        // Expected input of NN:          Batch, channel,    board + padding,           board + padding
-        this.initialInput = Nd4j.zeros(1, numPlayers, numRowsCols + 2 * padding, numRowsCols + 2 * padding);
+        // Initialise encoder
+        // Expected input of NN: Batch, channel, board + padding, board + padding
+        this.encoder = new BoardEncoder(game);
 
         // Save network
         this.net = net;
@@ -116,41 +114,22 @@ public class NeuralNetworkLeafEvaluator extends GameStateEvaluator {
      * @return Multi-channeled matrix of the game state, which can be used for the NN.
      */
     protected INDArray movesToInput(Context context, ArrayList<Integer> nonTerminalMoves) {
-        // Create empty input matrix for all non terminal moves
-        INDArray boardInput = Nd4j.zeros(nonTerminalMoves.size(), numPlayers,
-                numRowsCols + 2 * padding, numRowsCols + 2 * padding);
-
-        // Get all legal moves
-        FastArrayList<Move> legalMoves = context.moves(context).moves();
-
-        // For all non-terminal moves
-        for (int m = 0; m < nonTerminalMoves.size(); m++) {
-            // Generate game state that needs to be converted to NN input
-            Context contextCopy = new Context(context);
-            contextCopy.game().apply(contextCopy, legalMoves.get(nonTerminalMoves.get(m)));
-
-            // Get chunks of context
-            ChunkSet chunkSet = contextCopy.state().containerStates()[0].cloneWhoCell();
-
-            // For both players
-            for (int p = 0; p < numPlayers; p++) {
-                // Check all positions
-                for (int i = 0; i < numSquares; ++i) {
-                    // If chunk contains piece of player (value == playerID), change the value to one
-                    int value = chunkSet.getChunk(i);
-                    if (value == p + 1) {
-                        boardInput.putScalar(new int[]{
-                                m,
-                                p,
-                                (int) i / numRowsCols + padding,
-                                i % numRowsCols + padding
-                        }, 1.0f);
-                    }
-                }
+        try (BoardEncoder.Scratch scratch = this.encoder.acquire()) {
+            // Get (empty) buffer for all non terminal moves
+            int numMoves = nonTerminalMoves.size();
+            float[] buffer = scratch.buffer(numMoves);
+
+            // Get all legal moves and encode the current game state once
+            FastArrayList<Move> legalMoves = context.moves(context).moves();
+            float[] parent = this.encoder.encodeParent(context, scratch);
+
+            // For all non-terminal moves, derive the game state from the current game state
+            for (int m = 0; m < numMoves; m++) {
+                this.encoder.encodeChild(context, parent, legalMoves.get(nonTerminalMoves.get(m)), buffer, m);
             }
-        }
 
-        return boardInput;
+            return this.encoder.toInput(buffer, numMoves);
+        }
     }
 
     /**
@@ -162,27 +141,6 @@ public class NeuralNetworkLeafEvaluator extends GameStateEvaluator {
      * @return Multi-channeled matrix of the game state, which can be used for the NN.
      */
     public INDArray boardToInput(Context context) {
-        // Get chunks of context
-        ChunkSet chunkSet = context.state().containerStates()[0].cloneWhoCell();
-        INDArray boardInput = initialInput.dup();
-
-        // For both players
-        for (int p = 0; p < numPlayers; p++) {
-            // Check all positions
-            for (int i = 0; i < numSquares; ++i) {
-                // If chunk contains piece of player (value == playerID), change the value to one
-                int value = chunkSet.getChunk(i);
-                if (value == p + 1) {
-                    boardInput.putScalar(new int[]{
-                            0,
-                            p,
-                            (int) i / numRowsCols + padding,
-                            i % numRowsCols + padding
-                    }, 1.0f);
-                }
-            }
-        }
-
-        return boardInput;
+        return this.encoder.encode(context);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package Evaluator;
+
+import game.Game;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import other.context.Context;
+import utils.OpeningBook;
+
+import java.util.ArrayList;
+
+/**
+ * Generates a wrapper for a "NeuralNetworkLeafEvaluator" which first looks up the game state in a memory-mapped
+ * opening book (see "OpeningBook"). Only when the game state isn't in the book, the original evaluator is used.
+ * The book is read-only, so the wrapper is as thread safe as the original evaluator.
+ */
+public class OpeningBookEvaluatorWrapper extends NeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * NeuralNetworkLeafEvaluator used for game states that aren't in the book
+     */
+    protected final NeuralNetworkLeafEvaluator evaluator;
+
+    /**
+     * Memory-mapped book with precomputed evaluations
+     */
+    protected final OpeningBook book;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game, the original evaluator and the book as input
+     *
+     * @param game      Ludii's game
+     * @param evaluator NeuralNetworkLeafEvaluator used for game states that aren't in the book
+     * @param book      Memory-mapped book with precomputed evaluations
+     */
+    public OpeningBookEvaluatorWrapper(Game game, NeuralNetworkLeafEvaluator evaluator, OpeningBook book) {
+        super(game, evaluator.net);
+
+        this.evaluator = evaluator;
+        this.book = book;
+    }
+
+    /**
+     * Wraps the evaluator with the book belonging to the model file, if the book file exists (see
+     * "Experiments.OpeningBookGenerator") and has been generated with the current content of the model file. Otherwise,
+     * the evaluator is returned unchanged.
+     *
+     * @param game          Ludii's game
+     * @param evaluator     NeuralNetworkLeafEvaluator using the model file
+     * @param modelPathName Path to the model file
+     * @return Evaluator using the book (or the original evaluator)
+     */
+    public static NeuralNetworkLeafEvaluator wrap(Game game, NeuralNetworkLeafEvaluator evaluator,
+                                                  String modelPathName) {
+        if (!OpeningBook.exists(modelPathName)) {
+            return evaluator;
+        }
+
+        // A book of an older version of the model (or file format) would override the evaluations of the NN
+        String bookPath = OpeningBook.bookPath(modelPathName);
+        OpeningBook book;
+        try {
+            book = OpeningBook.load(bookPath);
+        } catch (RuntimeException e) {
+            System.err.println("Opening book " + bookPath + " can't be read and is ignored: " + e.getMessage());
+            return evaluator;
+        }
+        if (!book.matches(modelPathName)) {
+            System.err.println("Opening book " + bookPath + " doesn't belong to the current model and is ignored.");
+            return evaluator;
+        }
+
+        return new OpeningBookEvaluatorWrapper(game, evaluator, book);
+    }
+
+    /**
+     * Evaluates the current context with the book if possible, otherwise with the original evaluator.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
+    @Override
+    public float evaluate(Context context, int maximisingPlayer) {
+        int record = this.book.find(context.state().fullHash(context));
+        if (record < 0) {
+            return this.evaluator.evaluate(context, maximisingPlayer);
+        }
+
+        float value = this.book.value(record);
+        return maximisingPlayer == 1 ? value : -value;
+    }
+
+    /**
+     * Evaluates all non-terminal moves of the current context with the book if possible, otherwise with the original
+     * evaluator.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
+    @Override
+    public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
+        int record = this.book.find(context.state().fullHash(context));
+        float[] values = record < 0 ? null : this.book.childValues(record, nonTerminalMoves);
+        if (values == null) {
+            return this.evaluator.evaluateMoves(context, nonTerminalMoves, maximisingPlayer);
+        }
+
+        if (maximisingPlayer != 1) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = -values[i];
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Converts the given context to the INDArray of the original evaluator
+     *
+     * @param context Ludii's context of the current game state
+     * @return Multi-channeled matrix of the game state, which can be used for the NN.
+     */
+    @Override
+    public INDArray boardToInput(Context context) {
+        return this.evaluator.boardToInput(context);
+    }
+
+    /**
+     * Closes the original evaluator
+     */
+    @Override
+    public void close() {
+        this.evaluator.close();
+    }
+
+    /**
+     * Getter for the original evaluator
+     *
+     * @return NeuralNetworkLeafEvaluator used for game states that aren't in the book
+     */
+    public NeuralNetworkLeafEvaluator getEvaluator() {
+        return this.evaluator;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.deeplearning4j.parallelism.inference.InferenceMode;
 import other.context.Context;
 
 import java.util.ArrayList;
+import java.util.Properties;
 
 /**
  * Generates a leaf evaluator that uses parallel inference on a NN to evaluate states (DeepLearning4J)
@@ -18,15 +19,31 @@ public class ParallelNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluat
 
     //-------------------------------------------------------------------------
 
+    /**
+     * Default number of workers (each worker holds its own copy of the NN)
+     */
+    public static final int DEFAULT_WORKERS = 2;
+
+    /**
+     * Default maximum size of a single batch
+     */
+    public static final int DEFAULT_BATCH_LIMIT = 64;
+
+    /**
+     * Default maximum number of requests waiting in the queue of the ParallelInference
+     */
+    public static final int DEFAULT_QUEUE_LIMIT = 64;
+
     /**
      * ParallelInference (DeepLearning4J) which communicates between multiple threads and the NN
      */
-    private ParallelInference pi;
+    private final ParallelInference pi;
 
     //-------------------------------------------------------------------------
 
     /**
-     * Constructor with the game, neural network and batch Limit as input
+     * Constructor with the game, neural network and batch Limit as input (uses the default number of workers and
+     * queue limit)
      *
      * @param game       Ludii's game
      * @param net        DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
@@ -34,6 +51,38 @@ public class ParallelNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluat
      * @param batchLimit The limit of a single batch being processed by parallel inference at once
      */
     public ParallelNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net, int batchLimit) {
+        this(game, net, DEFAULT_WORKERS, batchLimit, DEFAULT_QUEUE_LIMIT);
+    }
+
+    /**
+     * Constructor with the game, neural network and properties as input. The following (optional) properties are
+     * used: "parallelWorkers", "parallelBatchLimit" and "parallelQueueLimit".
+     *
+     * @param game       Ludii's game
+     * @param net        DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *                   The network should always predict with respect to player 1.
+     * @param properties Properties containing the configuration of the ParallelInference
+     */
+    public ParallelNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net, Properties properties) {
+        this(game, net,
+                Integer.parseInt(properties.getProperty("parallelWorkers", String.valueOf(DEFAULT_WORKERS))),
+                Integer.parseInt(properties.getProperty("parallelBatchLimit", String.valueOf(DEFAULT_BATCH_LIMIT))),
+                Integer.parseInt(properties.getProperty("parallelQueueLimit", String.valueOf(DEFAULT_QUEUE_LIMIT))));
+    }
+
+    /**
+     * Constructor with the game, neural network, number of workers, batch limit and queue limit as input
+     *
+     * @param game       Ludii's game
+     * @param net        DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *                   The network should always predict with respect to player 1.
+     * @param workers    Number of workers (set this value to the number of available computational devices, either
+     *                   CPUs or GPUs)
+     * @param batchLimit The limit of a single batch being processed by parallel inference at once
+     * @param queueLimit Maximum number of requests waiting in the queue
+     */
+    public ParallelNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net, int workers, int batchLimit,
+                                              int queueLimit) {
         super(game, net);
 
         // Declare network in parallel
@@ -42,8 +91,10 @@ public class ParallelNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluat
                 .inferenceMode(InferenceMode.BATCHED)
                 // max size of batch for BATCHED mode. you should set this value with respect to your environment (i.e. gpu memory amounts)
                 .batchLimit(batchLimit)
+                // max number of requests waiting in the queue
+                .queueLimit(queueLimit)
                 // set this value to number of available computational devices, either CPUs or GPUs
-                .workers(2)
+                .workers(workers)
                 .build();
     }
 
@@ -58,9 +109,9 @@ public class ParallelNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluat
      */
     public float evaluate(Context context, int maximisingPlayer) {
         if (maximisingPlayer == 1)
-            return this.net.output(boardToInput(context)).getFloat(0);
+            return this.pi.output(boardToInput(context)).getFloat(0);
         else
-            return this.net.output(boardToInput(context)).getFloat(0) * -1;
+            return this.pi.output(boardToInput(context)).getFloat(0) * -1;
     }
 
     /**
@@ -76,15 +127,16 @@ public class ParallelNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluat
      */
     public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
         if (maximisingPlayer == 1)
-            return this.net.output(movesToInput(context, nonTerminalMoves)).toFloatVector();
+            return this.pi.output(movesToInput(context, nonTerminalMoves)).toFloatVector();
         else
-            return this.net.output(movesToInput(context, nonTerminalMoves)).mul(-1).toFloatVector();
+            return this.pi.output(movesToInput(context, nonTerminalMoves)).mul(-1).toFloatVector();
     }
 
     /**
      * The ParallelInference requires to be closed to prevent crashes in the code
      * This method needs to be called in the AI agent class in the "CloseAI" method when being used.
      */
+    @Override
     public void close() {
         this.pi.shutdown();
     }
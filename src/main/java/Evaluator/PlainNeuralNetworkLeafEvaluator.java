@@ -0,0 +1,337 @@
+package Evaluator;
+
+import game.Game;
+import main.collections.FastArrayList;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import other.context.Context;
+import other.move.Move;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Base of the leaf evaluators that evaluate a copy of a trained NN in plain Java, without DeepLearning4J. The weights
+ * of all convolutional and dense layers are read once from the DL4J network, after which every layer is converted by
+ * the subclass to its own layer kernel (see "createConvolution" and "createDense"). The game states are encoded with
+ * the BoardEncoder and passed through the layers one by one.
+ * The layers are shared by all threads and every thread acquires its own buffers from a pool, so the evaluator is
+ * thread safe without cloning the NN for each thread.
+ * Supported layers: convolutional layers (without "Same" mode) and dense/output layers with ReLU, tanh or identity.
+ */
+public abstract class PlainNeuralNetworkLeafEvaluator extends NeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Activation types
+     */
+    protected static final int IDENTITY = 0, RELU = 1, TANH = 2;
+
+    /**
+     * Layers of the NN (in order)
+     */
+    protected final PlainLayer[] layers;
+
+    /**
+     * Number of values of a single encoded game state
+     */
+    protected final int sampleSize;
+
+    /**
+     * Largest number of values in the output of any layer (including the input)
+     */
+    protected final int maxActivationSize;
+
+    /**
+     * Pool of buffers storing the input and output of a layer, which aren't used by any thread
+     */
+    protected final ConcurrentLinkedQueue<float[][]> activationPool = new ConcurrentLinkedQueue<>();
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game and the (trained) neural network as input. The layers are converted once.
+     *
+     * @param game Ludii's game
+     * @param net  DL4J MultiLayerNetwork that needs to be used (can be loaded with the LearningManager).
+     *             The network should always predict with respect to player 1.
+     */
+    public PlainNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net) {
+        super(game, net);
+
+        // Convert all layers, while keeping track of the shape of the activations
+        int channels = this.numPlayers;
+        int height = this.numRowsCols + 2 * this.padding;
+        int width = height;
+        this.sampleSize = channels * height * width;
+        int maxSize = this.sampleSize;
+
+        Layer[] netLayers = net.getLayers();
+        this.layers = new PlainLayer[netLayers.length];
+        for (int i = 0; i < netLayers.length; i++) {
+            org.deeplearning4j.nn.conf.layers.Layer conf = netLayers[i].conf().getLayer();
+            float[] weights = netLayers[i].getParam("W").dup('c').data().asFloat();
+            float[] bias = netLayers[i].getParam("b").dup('c').data().asFloat();
+            int activation = activationType(((BaseLayer) conf).getActivationFn());
+
+            if (conf instanceof ConvolutionLayer) {
+                ConvolutionLayer convConf = (ConvolutionLayer) conf;
+                if (convConf.getConvolutionMode() == ConvolutionMode.Same) {
+                    throw new IllegalArgumentException("ConvolutionMode.Same is not supported.");
+                }
+
+                // DL4J stores convolutional weights as [out][in][kH][kW]
+                this.layers[i] = this.createConvolution(weights, bias, activation, channels, height, width,
+                        (int) convConf.getNOut(), convConf.getKernelSize(), convConf.getStride(),
+                        convConf.getPadding());
+            } else if (conf instanceof FeedForwardLayer) {
+                // DL4J stores dense weights as [in][out], which are transposed to [out][in]
+                int numInputs = channels * height * width;
+                int numOutputs = (int) ((FeedForwardLayer) conf).getNOut();
+                float[] transposed = new float[weights.length];
+                for (int in = 0; in < numInputs; in++) {
+                    for (int out = 0; out < numOutputs; out++) {
+                        transposed[out * numInputs + in] = weights[in * numOutputs + out];
+                    }
+                }
+
+                this.layers[i] = this.createDense(transposed, bias, activation, numInputs, numOutputs);
+            } else {
+                throw new IllegalArgumentException("Layer " + conf.getClass().getSimpleName() + " is not supported.");
+            }
+
+            channels = this.layers[i].outChannels;
+            height = this.layers[i].outHeight;
+            width = this.layers[i].outWidth;
+            maxSize = Math.max(maxSize, channels * height * width);
+        }
+
+        this.maxActivationSize = maxSize;
+    }
+
+    /**
+     * Converts a convolutional layer of the NN to the layer kernel of the evaluator
+     *
+     * @param weights     Weights ordered by output channel ([out][in][kH][kW])
+     * @param bias        Bias of every output channel
+     * @param activation  Activation type
+     * @param inChannels  Number of input channels
+     * @param inHeight    Height of the input
+     * @param inWidth     Width of the input
+     * @param outChannels Number of output channels
+     * @param kernel      Kernel size ([height, width])
+     * @param stride      Stride ([height, width])
+     * @param pad         Padding ([height, width])
+     * @return Convolutional layer
+     */
+    protected abstract PlainLayer createConvolution(float[] weights, float[] bias, int activation, int inChannels,
+                                                    int inHeight, int inWidth, int outChannels, int[] kernel,
+                                                    int[] stride, int[] pad);
+
+    /**
+     * Converts a dense layer of the NN to the layer kernel of the evaluator
+     *
+     * @param weights    Weights ordered by output ([out][in])
+     * @param bias       Bias of every output
+     * @param activation Activation type
+     * @param numInputs  Number of inputs
+     * @param numOutputs Number of outputs
+     * @return Dense layer
+     */
+    protected abstract PlainLayer createDense(float[] weights, float[] bias, int activation, int numInputs,
+                                              int numOutputs);
+
+    /**
+     * Evaluates the current context using the NN.
+     * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
+     * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
+    @Override
+    public float evaluate(Context context, int maximisingPlayer) {
+        float value;
+        try (BoardEncoder.Scratch scratch = this.encoder.acquire()) {
+            float[] buffer = scratch.buffer(1);
+            this.encoder.encode(context, buffer, 0);
+
+            value = this.forward(buffer, 0);
+        }
+
+        return maximisingPlayer == 1 ? value : -value;
+    }
+
+    /**
+     * Evaluates all non-terminal moves of the current context using the NN.
+     * The first player (playerID = 1) is assumed to be the maximizing player. The estimated value of the second player
+     * (playerID = 2) will be multiplied by -1, since the NN always predicts with respect to playerID 1.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
+    @Override
+    public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
+        int numMoves = nonTerminalMoves.size();
+        float[] values = new float[numMoves];
+        try (BoardEncoder.Scratch scratch = this.encoder.acquire()) {
+            // Encode all children in the buffer of the thread
+            float[] buffer = scratch.buffer(numMoves);
+            FastArrayList<Move> legalMoves = context.moves(context).moves();
+            float[] parent = this.encoder.encodeParent(context, scratch);
+            for (int m = 0; m < numMoves; m++) {
+                this.encoder.encodeChild(context, parent, legalMoves.get(nonTerminalMoves.get(m)), buffer, m);
+            }
+
+            // Evaluate all children
+            for (int m = 0; m < numMoves; m++) {
+                float value = this.forward(buffer, m * this.sampleSize);
+                values[m] = maximisingPlayer == 1 ? value : -value;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Performs a forward pass of a single game state through all layers
+     *
+     * @param input  Encoded game states (see "BoardEncoder")
+     * @param offset Offset of the game state in the input
+     * @return Output of the NN (w.r.t. player 1)
+     */
+    protected float forward(float[] input, int offset) {
+        float[][] buffers = this.activationPool.poll();
+        if (buffers == null) {
+            buffers = new float[][]{new float[this.maxActivationSize], new float[this.maxActivationSize]};
+        }
+
+        float[] in = input;
+        int inOffset = offset;
+        for (int i = 0; i < this.layers.length; i++) {
+            float[] out = buffers[i % 2];
+            this.layers[i].forward(in, inOffset, out);
+            in = out;
+            inOffset = 0;
+        }
+
+        float value = in[0];
+        this.activationPool.offer(buffers);
+        return value;
+    }
+
+    /**
+     * Converts the activation function of DL4J to the activation type of a layer
+     *
+     * @param activationFn Activation function of DL4J
+     * @return Activation type
+     */
+    protected static int activationType(IActivation activationFn) {
+        if (activationFn instanceof ActivationReLU) {
+            return RELU;
+        } else if (activationFn instanceof ActivationTanH) {
+            return TANH;
+        } else if (activationFn instanceof ActivationIdentity) {
+            return IDENTITY;
+        }
+
+        throw new IllegalArgumentException("Activation " + activationFn + " is not supported.");
+    }
+
+    /**
+     * Single layer (convolutional or dense) of a plain Java NN, of which the subclasses provide the forward pass
+     */
+    protected abstract static class PlainLayer {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Activation type of the layer
+         */
+        final int activation;
+
+        /**
+         * Shape of the input and output (dense layers use a height and width of 1)
+         */
+        final int inChannels, inHeight, inWidth, outChannels, outHeight, outWidth;
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with the activation type and the shape of the input and output as input
+         */
+        PlainLayer(int activation, int inChannels, int inHeight, int inWidth, int outChannels, int outHeight,
+                   int outWidth) {
+            this.activation = activation;
+            this.inChannels = inChannels;
+            this.inHeight = inHeight;
+            this.inWidth = inWidth;
+            this.outChannels = outChannels;
+            this.outHeight = outHeight;
+            this.outWidth = outWidth;
+        }
+
+        /**
+         * Performs the forward pass of the layer
+         *
+         * @param in       Input of the layer ([channel][row][column])
+         * @param inOffset Offset of the input
+         * @param out      Array in which the output is written ([channel][row][column])
+         */
+        abstract void forward(float[] in, int inOffset, float[] out);
+
+        /**
+         * Applies the activation function of the layer
+         *
+         * @param x Value before the activation
+         * @return Value after the activation
+         */
+        float activate(float x) {
+            switch (this.activation) {
+                case RELU:
+                    return Math.max(0f, x);
+                case TANH:
+                    return (float) Math.tanh(x);
+                default:
+                    return x;
+            }
+        }
+
+        /**
+         * Applies the activation function of the layer to a range of values
+         *
+         * @param values Values before the activation
+         * @param from   First index (inclusive)
+         * @param length Number of values
+         */
+        void activate(float[] values, int from, int length) {
+            switch (this.activation) {
+                case RELU:
+                    for (int j = from; j < from + length; j++) {
+                        values[j] = Math.max(0f, values[j]);
+                    }
+                    break;
+                case TANH:
+                    for (int j = from; j < from + length; j++) {
+                        values[j] = (float) Math.tanh(values[j]);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
\ No newline at end of file
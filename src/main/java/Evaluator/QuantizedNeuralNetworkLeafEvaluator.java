@@ -0,0 +1,249 @@
+package Evaluator;
+
+import game.Game;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+/**
+ * Generates a leaf evaluator that uses a quantized copy of a trained NN (e.g. NetworkType.Cohen) to evaluate states on
+ * the CPU, without DeepLearning4J. The weights of all convolutional and dense layers are stored as int8 with a scale
+ * per output channel (symmetric quantization), while the activations and the accumulation remain fp32.
+ * The quantized weights are shared by all threads and every thread uses its own buffers, so the evaluator is thread
+ * safe without cloning the NN for each thread (4 times less memory for the weights).
+ * Supported layers: convolutional layers (without "Same" mode) and dense/output layers with ReLU, tanh or identity.
+ */
+public class QuantizedNeuralNetworkLeafEvaluator extends PlainNeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game and the (trained) neural network as input. The NN is quantized once.
+     *
+     * @param game Ludii's game
+     * @param net  DL4J MultiLayerNetwork that needs to be quantized (can be loaded with the LearningManager).
+     *             The network should always predict with respect to player 1.
+     */
+    public QuantizedNeuralNetworkLeafEvaluator(Game game, MultiLayerNetwork net) {
+        super(game, net);
+    }
+
+    /**
+     * Quantizes a convolutional layer of the NN
+     *
+     * @param weights     Weights ordered by output channel ([out][in][kH][kW])
+     * @param bias        Bias of every output channel
+     * @param activation  Activation type
+     * @param inChannels  Number of input channels
+     * @param inHeight    Height of the input
+     * @param inWidth     Width of the input
+     * @param outChannels Number of output channels
+     * @param kernel      Kernel size ([height, width])
+     * @param stride      Stride ([height, width])
+     * @param pad         Padding ([height, width])
+     * @return Quantized convolutional layer
+     */
+    @Override
+    protected PlainLayer createConvolution(float[] weights, float[] bias, int activation, int inChannels,
+                                           int inHeight, int inWidth, int outChannels, int[] kernel, int[] stride,
+                                           int[] pad) {
+        return QuantizedLayer.convolution(weights, bias, activation, inChannels, inHeight, inWidth, outChannels,
+                kernel, stride, pad);
+    }
+
+    /**
+     * Quantizes a dense layer of the NN
+     *
+     * @param weights    Weights ordered by output ([out][in])
+     * @param bias       Bias of every output
+     * @param activation Activation type
+     * @param numInputs  Number of inputs
+     * @param numOutputs Number of outputs
+     * @return Quantized dense layer
+     */
+    @Override
+    protected PlainLayer createDense(float[] weights, float[] bias, int activation, int numInputs, int numOutputs) {
+        return QuantizedLayer.dense(weights, bias, activation, numInputs, numOutputs);
+    }
+
+    /**
+     * Single quantized layer (convolutional or dense) with int8 weights, a scale per output channel and fp32 bias
+     */
+    protected static final class QuantizedLayer extends PlainLayer {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Indicates if the layer is convolutional (otherwise dense)
+         */
+        final boolean convolution;
+
+        /**
+         * Quantized weights, ordered by output channel ([out][in][kH][kW] or [out][in])
+         */
+        final byte[] weights;
+
+        /**
+         * Scale of the weights of every output channel
+         */
+        final float[] scales;
+
+        /**
+         * Bias of every output channel
+         */
+        final float[] bias;
+
+        /**
+         * Kernel size, stride and padding (only used by convolutional layers)
+         */
+        final int kernelHeight, kernelWidth, strideHeight, strideWidth, padHeight, padWidth;
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with all information of the layer as input
+         */
+        private QuantizedLayer(boolean convolution, byte[] weights, float[] scales, float[] bias, int activation,
+                               int inChannels, int inHeight, int inWidth, int outChannels, int outHeight,
+                               int outWidth, int[] kernel, int[] stride, int[] pad) {
+            super(activation, inChannels, inHeight, inWidth, outChannels, outHeight, outWidth);
+            this.convolution = convolution;
+            this.weights = weights;
+            this.scales = scales;
+            this.bias = bias;
+            this.kernelHeight = kernel[0];
+            this.kernelWidth = kernel[1];
+            this.strideHeight = stride[0];
+            this.strideWidth = stride[1];
+            this.padHeight = pad[0];
+            this.padWidth = pad[1];
+        }
+
+        /**
+         * Quantizes a convolutional layer (DL4J weights are ordered [out][in][kH][kW])
+         *
+         * @return Quantized convolutional layer
+         */
+        static QuantizedLayer convolution(float[] weights, float[] bias, int activation, int inChannels,
+                                          int inHeight, int inWidth, int outChannels, int[] kernel, int[] stride,
+                                          int[] pad) {
+            int outHeight = (inHeight + 2 * pad[0] - kernel[0]) / stride[0] + 1;
+            int outWidth = (inWidth + 2 * pad[1] - kernel[1]) / stride[1] + 1;
+            int rowLength = inChannels * kernel[0] * kernel[1];
+
+            float[] scales = new float[outChannels];
+            byte[] quantized = quantize(weights, outChannels, rowLength, scales);
+
+            return new QuantizedLayer(true, quantized, scales, bias, activation, inChannels, inHeight, inWidth,
+                    outChannels, outHeight, outWidth, kernel, stride, pad);
+        }
+
+        /**
+         * Quantizes a dense layer (weights are ordered [out][in])
+         *
+         * @return Quantized dense layer
+         */
+        static QuantizedLayer dense(float[] weights, float[] bias, int activation, int numInputs, int numOutputs) {
+            float[] scales = new float[numOutputs];
+            byte[] quantized = quantize(weights, numOutputs, numInputs, scales);
+
+            int[] ones = new int[]{1, 1};
+            int[] zeros = new int[]{0, 0};
+            return new QuantizedLayer(false, quantized, scales, bias, activation, numInputs, 1, 1,
+                    numOutputs, 1, 1, ones, ones, zeros);
+        }
+
+        /**
+         * Symmetric quantization of every row (output channel) to int8
+         *
+         * @param weights   Weights ordered by output channel
+         * @param numRows   Number of output channels
+         * @param rowLength Number of weights per output channel
+         * @param scales    Array which is filled with the scale of every output channel
+         * @return Quantized weights
+         */
+        static byte[] quantize(float[] weights, int numRows, int rowLength, float[] scales) {
+            byte[] quantized = new byte[weights.length];
+            for (int r = 0; r < numRows; r++) {
+                float maxAbs = 0;
+                for (int j = r * rowLength; j < (r + 1) * rowLength; j++) {
+                    maxAbs = Math.max(maxAbs, Math.abs(weights[j]));
+                }
+
+                scales[r] = maxAbs > 0 ? maxAbs / 127f : 1f;
+                for (int j = r * rowLength; j < (r + 1) * rowLength; j++) {
+                    quantized[j] = (byte) Math.max(-127, Math.min(127, Math.round(weights[j] / scales[r])));
+                }
+            }
+
+            return quantized;
+        }
+
+        /**
+         * Performs the forward pass of the layer
+         *
+         * @param in       Input of the layer ([channel][row][column])
+         * @param inOffset Offset of the input
+         * @param out      Array in which the output is written ([channel][row][column])
+         */
+        @Override
+        void forward(float[] in, int inOffset, float[] out) {
+            if (this.convolution) {
+                this.forwardConvolution(in, inOffset, out);
+            } else {
+                this.forwardDense(in, inOffset, out);
+            }
+        }
+
+        /**
+         * Forward pass of a convolutional layer (fp32 accumulation of int8 weights)
+         */
+        private void forwardConvolution(float[] in, int inOffset, float[] out) {
+            int inPlane = this.inHeight * this.inWidth;
+            int kernelSize = this.kernelHeight * this.kernelWidth;
+            for (int o = 0; o < this.outChannels; o++) {
+                int weightOffset = o * this.inChannels * kernelSize;
+                for (int oy = 0; oy < this.outHeight; oy++) {
+                    for (int ox = 0; ox < this.outWidth; ox++) {
+                        float sum = 0;
+                        for (int c = 0; c < this.inChannels; c++) {
+                            int channelOffset = inOffset + c * inPlane;
+                            int kernelOffset = weightOffset + c * kernelSize;
+                            for (int ky = 0; ky < this.kernelHeight; ky++) {
+                                int iy = oy * this.strideHeight + ky - this.padHeight;
+                                if (iy < 0 || iy >= this.inHeight) {
+                                    continue;
+                                }
+
+                                int rowOffset = channelOffset + iy * this.inWidth;
+                                int kernelRowOffset = kernelOffset + ky * this.kernelWidth;
+                                for (int kx = 0; kx < this.kernelWidth; kx++) {
+                                    int ix = ox * this.strideWidth + kx - this.padWidth;
+                                    if (ix >= 0 && ix < this.inWidth) {
+                                        sum += this.weights[kernelRowOffset + kx] * in[rowOffset + ix];
+                                    }
+                                }
+                            }
+                        }
+
+                        out[(o * this.outHeight + oy) * this.outWidth + ox] =
+                                this.activate(sum * this.scales[o] + this.bias[o]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Forward pass of a dense layer (fp32 accumulation of int8 weights)
+         */
+        private void forwardDense(float[] in, int inOffset, float[] out) {
+            for (int o = 0; o < this.outChannels; o++) {
+                int weightOffset = o * this.inChannels;
+                float sum = 0;
+                for (int i = 0; i < this.inChannels; i++) {
+                    sum += this.weights[weightOffset + i] * in[inOffset + i];
+                }
+
+                out[o] = this.activate(sum * this.scales[o] + this.bias[o]);
+            }
+        }
+    }
+}
\ No newline at end of file
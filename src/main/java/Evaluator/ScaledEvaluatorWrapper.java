@@ -55,4 +55,12 @@ public class ScaledEvaluatorWrapper extends GameStateEvaluator {
 
         return value;
     }
+
+    /**
+     * Closes the original GameStateEvaluator
+     */
+    @Override
+    public void close() {
+        this.gameStateEvaluator.close();
+    }
 }
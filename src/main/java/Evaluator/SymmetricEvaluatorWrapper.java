@@ -0,0 +1,244 @@
+package Evaluator;
+
+import game.Game;
+import main.collections.FastArrayList;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import other.context.Context;
+import other.move.Move;
+import utils.ConcurrentEvaluationCache;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a wrapper for a "NeuralNetworkLeafEvaluator" which maps every game state to a canonical orientation before
+ * looking it up in the cache and evaluating it with the NN. Game states that are symmetric to each other therefore
+ * share a single evaluation and a single slot in the cache.
+ * The used symmetries are the same as used for the training data (see "LearningManager.createMirroredBoards"):
+ * - Mirroring the board vertically (the columns are reversed), which keeps the value.
+ * - Switching the perspective of the players (the rows are reversed and the pieces change owner), which negates the
+ * value. Only use this symmetry when the NN has been trained with it, since it is disabled during training by default.
+ * The key of the cache is a hash of the input of the NN (the pieces on the board), since the NN doesn't use any other
+ * information of the game state.
+ */
+public class SymmetricEvaluatorWrapper extends NeuralNetworkLeafEvaluator {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * NeuralNetworkLeafEvaluator used to evaluate the game states in canonical orientation
+     */
+    protected final NeuralNetworkLeafEvaluator evaluator;
+
+    /**
+     * Cache which stores the values of the canonical game states (w.r.t. player 1)
+     */
+    protected final ConcurrentEvaluationCache cache;
+
+    /**
+     * Indicates if the board can be mirrored vertically
+     */
+    protected final boolean mirror;
+
+    /**
+     * Indicates if the perspective of the players can be switched
+     */
+    protected final boolean colourFlip;
+
+    /**
+     * Random keys for every player and square, used to hash the board ([player][row * numRowsCols + column])
+     */
+    protected final long[][] keys;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the game, the original evaluator, the cache and the allowed symmetries as input
+     *
+     * @param game       Ludii's game
+     * @param evaluator  NeuralNetworkLeafEvaluator used to evaluate the game states
+     * @param cache      Cache which stores the values of the canonical game states
+     * @param mirror     Indicates if the board can be mirrored vertically
+     * @param colourFlip Indicates if the perspective of the players can be switched (negates the value)
+     */
+    public SymmetricEvaluatorWrapper(Game game, NeuralNetworkLeafEvaluator evaluator, ConcurrentEvaluationCache cache,
+                                     boolean mirror, boolean colourFlip) {
+        super(game, evaluator.net);
+
+        this.evaluator = evaluator;
+        this.cache = cache;
+        this.mirror = mirror;
+        this.colourFlip = colourFlip;
+
+        // Fixed seed, such that the keys are equal for all agents (and the cache can be shared)
+        SplittableRandom rng = new SplittableRandom(0x5EED5EEDL);
+        this.keys = new long[this.numPlayers][this.numSquares];
+        for (int p = 0; p < this.numPlayers; p++) {
+            for (int i = 0; i < this.numSquares; i++) {
+                this.keys[p][i] = rng.nextLong();
+            }
+        }
+    }
+
+    /**
+     * Evaluates the current context by retrieving the value of the canonical game state from the cache. If it isn't
+     * available, the original evaluator is used, and the value is stored in the cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float value indicating how good the game state is (higher is better)
+     */
+    @Override
+    public float evaluate(Context context, int maximisingPlayer) {
+        long key;
+        try (BoardEncoder.Scratch scratch = this.encoder.acquire()) {
+            float[] buffer = scratch.buffer(1);
+            this.encoder.encode(context, buffer, 0);
+            key = this.canonicalKey(buffer, 0);
+        }
+
+        float sign = key < 0 ? -1f : 1f;
+        float value = this.cache.retrieveValue(key);
+        if (Float.isNaN(value)) {
+            value = sign * this.evaluator.evaluate(context, 1);
+            this.cache.storeValue(key, value);
+        }
+
+        value *= sign;
+        return maximisingPlayer == 1 ? value : -value;
+    }
+
+    /**
+     * Evaluates all non-terminal moves of the current context by retrieving the values of the canonical game states
+     * from the cache. Only the children that aren't available are evaluated (batched) by the original evaluator, after
+     * which they are stored in the cache.
+     *
+     * @param context          Ludii's context of the current game state
+     * @param nonTerminalMoves Index of all moves that are non-terminal (so need to be converted to NN input)
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return A float array with a value for each non-terminal move indicating how good
+     * the game state is (higher is better)
+     */
+    @Override
+    public float[] evaluateMoves(Context context, ArrayList<Integer> nonTerminalMoves, int maximisingPlayer) {
+        // Encode all children to determine their canonical keys
+        int numMoves = nonTerminalMoves.size();
+        long[] childKeys = new long[numMoves];
+        try (BoardEncoder.Scratch scratch = this.encoder.acquire()) {
+            float[] buffer = scratch.buffer(numMoves);
+            FastArrayList<Move> legalMoves = context.moves(context).moves();
+            float[] parent = this.encoder.encodeParent(context, scratch);
+            for (int m = 0; m < numMoves; m++) {
+                this.encoder.encodeChild(context, parent, legalMoves.get(nonTerminalMoves.get(m)), buffer, m);
+                childKeys[m] = this.canonicalKey(buffer, m * this.encoder.sampleSize);
+            }
+        }
+
+        // Retrieve the values from the cache, and keep track of the missing children
+        float[] values = new float[numMoves];
+        ArrayList<Integer> missingMoves = new ArrayList<>();
+        ArrayList<Integer> missingIndices = new ArrayList<>();
+        for (int m = 0; m < numMoves; m++) {
+            values[m] = this.cache.retrieveValue(childKeys[m]);
+            if (Float.isNaN(values[m])) {
+                missingMoves.add(nonTerminalMoves.get(m));
+                missingIndices.add(m);
+            }
+        }
+
+        // Evaluate the missing children batched (w.r.t. player 1)
+        if (!missingMoves.isEmpty()) {
+            float[] missingValues = this.evaluator.evaluateMoves(context, missingMoves, 1);
+            for (int i = 0; i < missingValues.length; i++) {
+                int m = missingIndices.get(i);
+                values[m] = childKeys[m] < 0 ? -missingValues[i] : missingValues[i];
+                this.cache.storeValue(childKeys[m], values[m]);
+            }
+        }
+
+        // Convert the canonical values to the perspective of the maximising player
+        for (int m = 0; m < numMoves; m++) {
+            float value = childKeys[m] < 0 ? -values[m] : values[m];
+            values[m] = maximisingPlayer == 1 ? value : -value;
+        }
+
+        return values;
+    }
+
+    /**
+     * Determines the key of the canonical orientation of the encoded game state. The canonical orientation is the
+     * orientation with the smallest hash. The sign bit of the key indicates if the perspective of the players has been
+     * switched (negative), in which case the value of the canonical game state needs to be negated.
+     *
+     * @param buffer Encoded game states (see "BoardEncoder")
+     * @param offset Offset of the game state in the buffer
+     * @return Key of the canonical game state
+     */
+    protected long canonicalKey(float[] buffer, int offset) {
+        int n = this.numRowsCols;
+        int planeSize = this.encoder.planeSize;
+        int[] siteOffsets = this.encoder.siteOffsets;
+
+        // Hash all orientations at once
+        long original = 0, mirrored = 0, flipped = 0, mirroredFlipped = 0;
+        for (int i = 0; i < this.numSquares; i++) {
+            int row = i / n;
+            int column = i % n;
+            int mirrorSite = row * n + (n - 1 - column);
+            int flipSite = (n - 1 - row) * n + column;
+            int mirrorFlipSite = (n - 1 - row) * n + (n - 1 - column);
+            for (int p = 0; p < this.numPlayers; p++) {
+                if (buffer[offset + p * planeSize + siteOffsets[i]] != 0f) {
+                    int other = this.numPlayers - 1 - p;
+                    original ^= this.keys[p][i];
+                    mirrored ^= this.keys[p][mirrorSite];
+                    flipped ^= this.keys[other][flipSite];
+                    mirroredFlipped ^= this.keys[other][mirrorFlipSite];
+                }
+            }
+        }
+
+        // Use the sign bit to indicate the switch of perspective
+        long key = original & Long.MAX_VALUE;
+        if (this.mirror) {
+            key = Math.min(key, mirrored & Long.MAX_VALUE);
+        }
+        if (this.colourFlip) {
+            long flippedKey = Math.min(flipped & Long.MAX_VALUE,
+                    this.mirror ? mirroredFlipped & Long.MAX_VALUE : Long.MAX_VALUE);
+            if (flippedKey < key) {
+                key = flippedKey | Long.MIN_VALUE;
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Converts the given context to the INDArray of the original evaluator
+     *
+     * @param context Ludii's context of the current game state
+     * @return Multi-channeled matrix of the game state, which can be used for the NN.
+     */
+    @Override
+    public INDArray boardToInput(Context context) {
+        return this.evaluator.boardToInput(context);
+    }
+
+    /**
+     * Closes the original evaluator
+     */
+    @Override
+    public void close() {
+        this.evaluator.close();
+    }
+
+    /**
+     * Getter for the cache
+     *
+     * @return Cache which stores the values of the canonical game states
+     */
+    public ConcurrentEvaluationCache getCache() {
+        return this.cache;
+    }
+}
\ No newline at end of file
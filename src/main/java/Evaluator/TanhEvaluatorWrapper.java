@@ -80,4 +80,12 @@ public class TanhEvaluatorWrapper extends GameStateEvaluator {
         // Divide value (slope) and get tanh
         return (float) Math.tanh(score / divideValue);
     }
+
+    /**
+     * Closes the original GameStateEvaluator
+     */
+    @Override
+    public void close() {
+        this.gameStateEvaluator.close();
+    }
 }
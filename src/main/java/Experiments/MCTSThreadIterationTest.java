@@ -53,8 +53,10 @@ public class MCTSThreadIterationTest {
         // Define a list with the number of threads
         int[] numThreads = new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18};
 
-        // Run all MCTS bots N times on the initial board position of the given game for all number of threads
-        runThreadsAndBotsNTimes(101, "Breakthrough", bots, numThreads);
+        // Run all MCTS bots N times on the initial board position of the given game for all number of threads,
+        // both with locking and lock-free selection
+        runThreadsAndBotsNTimes(101, "Breakthrough", bots, numThreads, false);
+        runThreadsAndBotsNTimes(101, "Breakthrough", bots, numThreads, true);
     }
 
     /**
@@ -64,13 +66,15 @@ public class MCTSThreadIterationTest {
      * @param gameName   Name of the game
      * @param bots       Array of strings of the used bots
      * @param numThreads Array with number of threads that should be run
+     * @param lockFree   Indicates if the bots should select the nodes without locking them
      * @throws ClassNotFoundException
      * @throws InvocationTargetException
      * @throws NoSuchMethodException
      * @throws InstantiationException
      * @throws IllegalAccessException
      */
-    private static void runThreadsAndBotsNTimes(int N, String gameName, String[] bots, int[] numThreads) throws ClassNotFoundException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    private static void runThreadsAndBotsNTimes(int N, String gameName, String[] bots, int[] numThreads,
+                                                boolean lockFree) throws ClassNotFoundException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
         // Setup game
         Game game = GameLoader.loadGameFromName(gameName + ".lud");
         Trial trial = new Trial(game);
@@ -80,9 +84,9 @@ public class MCTSThreadIterationTest {
         // For all MCTS bots and threads, run the bot N times on the initial game position
         for (String bot : bots) {
             for (int numThread : numThreads) {
-                System.out.println(bot + " (" + numThread + "):");
+                System.out.println(bot + " (" + numThread + (lockFree ? ", lock-free" : "") + "):");
 
-                runThreadAndBotNTimes(N, context, bot, numThread);
+                runThreadAndBotNTimes(N, context, bot, numThread, lockFree);
 
                 System.out.println();
             }
@@ -96,13 +100,15 @@ public class MCTSThreadIterationTest {
      * @param context   Given game position
      * @param bot       String of used MCTS bot
      * @param numThread number of threads used by the MCTS bot
+     * @param lockFree  Indicates if the bot should select the nodes without locking them
      * @throws ClassNotFoundException
      * @throws NoSuchMethodException
      * @throws InvocationTargetException
      * @throws InstantiationException
      * @throws IllegalAccessException
      */
-    private static void runThreadAndBotNTimes(int N, Context context, String bot, int numThread) throws ClassNotFoundException, NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+    private static void runThreadAndBotNTimes(int N, Context context, String bot, int numThread,
+                                              boolean lockFree) throws ClassNotFoundException, NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
         // Get mover of game position
         int mover = context.state().mover();
 
@@ -118,6 +124,7 @@ public class MCTSThreadIterationTest {
             }
 
             agent.setNumThreads(numThread);
+            agent.setLockFreeSelection(lockFree);
             agent.initAI(context.game(), mover);
 
             // Search (to see iterations this action should print the iterations)
@@ -0,0 +1,108 @@
+package Experiments;
+
+import Evaluator.NeuralNetworkLeafEvaluator;
+import Training.LearningManager;
+import game.Game;
+import main.collections.FastArrayList;
+import other.GameLoader;
+import other.context.Context;
+import other.move.Move;
+import other.trial.Trial;
+import utils.OpeningBook;
+import utils.OpeningBook.Entry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Main class which generates an opening book (see "OpeningBook") for a NN. All game states that can be reached within
+ * the first plies of the game are evaluated with the NN (together with their children) and written to the book file.
+ * By default, the book file is stored next to the model file, where it is found by the NN agents.
+ */
+public class OpeningBookGenerator {
+    /**
+     * Main class which generates an opening book
+     *
+     * @param args The name of the game (as used by Ludii), the path to the NN, the number of plies and (optionally)
+     *             the path to the book file
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: OpeningBookGenerator <gameName> <pathNN> <numPlies> [pathBook]");
+            return;
+        }
+
+        String bookPath = args.length > 3 ? args[3] : OpeningBook.bookPath(args[1]);
+        generate(args[0], args[1], Integer.parseInt(args[2]), bookPath);
+    }
+
+    /**
+     * Evaluates all game states within the first plies of the game and writes them to the book file
+     *
+     * @param gameName Name of the game (as used by Ludii)
+     * @param pathName Path to the NN
+     * @param numPlies Number of plies from the initial game state which are included in the book
+     * @param bookPath Path to the book file
+     * @throws IOException
+     */
+    public static void generate(String gameName, String pathName, int numPlies, String bookPath) throws IOException {
+        // Setup game and evaluator
+        Game game = GameLoader.loadGameFromName(gameName + ".lud");
+        Context context = new Context(game, new Trial(game));
+        game.start(context);
+        NeuralNetworkLeafEvaluator evaluator = new NeuralNetworkLeafEvaluator(game,
+                LearningManager.loadNetwork(pathName, false));
+
+        // Evaluate all game states ply by ply (every game state is evaluated once)
+        ArrayList<Entry> entries = new ArrayList<>();
+        HashSet<Long> visited = new HashSet<>();
+        ArrayList<Context> frontier = new ArrayList<>();
+        frontier.add(context);
+        for (int ply = 0; ply <= numPlies && !frontier.isEmpty(); ply++) {
+            ArrayList<Context> nextFrontier = new ArrayList<>();
+            for (Context current : frontier) {
+                if (current.trial().over() || !visited.add(current.state().fullHash(current))) {
+                    continue;
+                }
+
+                // Determine the non-terminal children
+                FastArrayList<Move> legalMoves = current.moves(current).moves();
+                ArrayList<Integer> nonTerminalMoves = new ArrayList<>();
+                ArrayList<Context> children = new ArrayList<>();
+                for (int i = 0; i < legalMoves.size(); i++) {
+                    Context contextCopy = new Context(current);
+                    contextCopy.game().apply(contextCopy, legalMoves.get(i));
+                    if (!contextCopy.trial().over()) {
+                        nonTerminalMoves.add(i);
+                        children.add(contextCopy);
+                    }
+                }
+
+                // Evaluate the game state and its children (w.r.t. player 1)
+                float[] childValues = new float[legalMoves.size()];
+                Arrays.fill(childValues, Float.NaN);
+                if (!nonTerminalMoves.isEmpty()) {
+                    float[] values = evaluator.evaluateMoves(current, nonTerminalMoves, 1);
+                    for (int i = 0; i < values.length; i++) {
+                        childValues[nonTerminalMoves.get(i)] = values[i];
+                    }
+                }
+                entries.add(new Entry(current.state().fullHash(current), evaluator.evaluate(current, 1),
+                        childValues));
+
+                if (ply < numPlies) {
+                    nextFrontier.addAll(children);
+                }
+            }
+
+            System.out.println("Ply " + ply + " finished, " + entries.size() + " game states evaluated.");
+            frontier = nextFrontier;
+        }
+
+        OpeningBook.write(bookPath, pathName, entries);
+        System.out.println("Opening book with " + entries.size() + " game states written to " + bookPath + ".");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package Experiments;
+
+import Agents.MCTS;
+import game.Game;
+import other.GameLoader;
+import other.context.Context;
+import other.move.Move;
+import other.trial.Trial;
+import utils.Enums.ParallelMode;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+
+/**
+ * Main class which compares the parallelisation modes of MCTS (tree, root and leaf parallelisation, see
+ * "Enums.ParallelMode") for different numbers of threads on the starting position of a specified game. For every
+ * combination it reports the average number of iterations per search, how often the most frequently selected move
+ * is selected and the longest time it took to shut down the search workers.
+ */
+public class ParallelModeBenchmark {
+    /**
+     * Main class which compares the parallelisation modes of MCTS for different numbers of threads
+     *
+     * @param args The name of the bot (optional, default Agents.MCTS_ProgressiveBias_MAST), the path to the NN
+     *             (optional, only used for bots with "NN" in their name), the name of the game (optional, default
+     *             Breakthrough), the number of searches per combination (optional, default 20) and the number of
+     *             seconds per search (optional, default 1)
+     * @throws ClassNotFoundException
+     * @throws InvocationTargetException
+     * @throws NoSuchMethodException
+     * @throws InstantiationException
+     * @throws IllegalAccessException
+     */
+    public static void main(String[] args) throws ClassNotFoundException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        String bot = args.length > 0 ? args[0] : "Agents.MCTS_ProgressiveBias_MAST";
+        String pathName = args.length > 1 ? args[1] : "NN_models/Network_bSize128_nEp1_nGa1563_2022-11-12-04-50-34.bin";
+        String gameName = args.length > 2 ? args[2] : "Breakthrough";
+        int N = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        double maxSeconds = args.length > 4 ? Double.parseDouble(args[4]) : 1;
+
+        // Define a list with the number of threads
+        int[] numThreads = new int[]{1, 2, 4, 8, 12, 16};
+
+        // Setup game
+        Game game = GameLoader.loadGameFromName(gameName + ".lud");
+        Context context = new Context(game, new Trial(game));
+        game.start(context);
+
+        // Run all modes for all number of threads
+        System.out.println("mode, threads, iterations per search, iterations per second, agreement, max shutdown (ms)");
+        for (ParallelMode mode : ParallelMode.values()) {
+            for (int numThread : numThreads) {
+                runModeNTimes(N, context, bot, pathName, mode, numThread, maxSeconds);
+            }
+        }
+    }
+
+    /**
+     * Run the MCTS bot N times with the given parallelisation mode and number of threads on the given game position,
+     * and prints the results
+     *
+     * @param N          Number of times to search
+     * @param context    Given game position
+     * @param bot        String of used MCTS bot
+     * @param pathName   Path to the NN (only used for bots with "NN" in their name)
+     * @param mode       Parallelisation mode
+     * @param numThread  Number of threads used by the MCTS bot (also the number of play-outs per leaf for LEAF)
+     * @param maxSeconds Maximum number of seconds per search
+     * @throws ClassNotFoundException
+     * @throws NoSuchMethodException
+     * @throws InvocationTargetException
+     * @throws InstantiationException
+     * @throws IllegalAccessException
+     */
+    private static void runModeNTimes(int N, Context context, String bot, String pathName, ParallelMode mode,
+                                      int numThread, double maxSeconds) throws ClassNotFoundException, NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        // Get mover of game position
+        int mover = context.state().mover();
+
+        long totalIterations = 0;
+        long maxShutdownMillis = -1;
+        HashMap<Move, Integer> selectedMoves = new HashMap<>();
+        for (int i = 0; i < N; i++) {
+            // Initialise agent
+            MCTS agent;
+            if (bot.contains("NN")) {
+                agent = (MCTS) Class.forName(bot).getDeclaredConstructor(String.class).newInstance(pathName);
+            } else {
+                agent = (MCTS) Class.forName(bot).getDeclaredConstructor().newInstance();
+            }
+
+            agent.setNumThreads(numThread);
+            agent.setParallelMode(mode, numThread);
+            agent.initAI(context.game(), mover);
+
+            // Search
+            final Move move = agent.selectAction(context.game(), new Context(context), maxSeconds, -1, -1);
+            totalIterations += agent.getLastNumIterations();
+            selectedMoves.merge(move, 1, Integer::sum);
+
+            // Leaf parallelisation isn't possible without play-outs, so the results would be those of TREE
+            final ParallelMode usedMode = agent.getLastParallelMode();
+            agent.closeAI();
+            maxShutdownMillis = Math.max(maxShutdownMillis, agent.getLastWorkerShutdownMillis());
+            if (usedMode != mode) {
+                System.out.printf("%s, %d, skipped (searched with %s)%n", mode, numThread, usedMode);
+                return;
+            }
+        }
+
+        // The agreement indicates how consistent the searches are
+        int mostSelected = selectedMoves.values().stream().max(Integer::compare).orElse(0);
+        System.out.printf("%s, %d, %.1f, %.1f, %.2f, %d%n", mode, numThread, (double) totalIterations / N,
+                totalIterations / (N * maxSeconds), (double) mostSelected / N, maxShutdownMillis);
+    }
+}
\ No newline at end of file
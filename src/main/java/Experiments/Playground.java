@@ -1,5 +1,7 @@
 package Experiments;
 
+import Agents.MCTS;
+import MCTSStrategies.TimeManagement.ClockTimeManager;
 import game.Game;
 import org.nd4j.jita.conf.CudaEnvironment;
 import other.AI;
@@ -7,6 +9,9 @@ import other.GameLoader;
 import other.context.Context;
 import other.move.Move;
 import other.trial.Trial;
+import utils.Enums.NNBackend;
+import utils.Enums.ParallelMode;
+import utils.EvaluationStore;
 import utils.propertyLoader;
 
 import java.io.IOException;
@@ -23,6 +28,76 @@ import java.util.stream.IntStream;
  * Main class which can be used to run tournaments of bots.
  */
 public class Playground {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Backend used by the MCTS agents to evaluate game states with a NN
+     */
+    private static NNBackend nnBackend = NNBackend.MULTI;
+
+    /**
+     * Properties with the configuration of the backend
+     */
+    private static Properties nnBackendProperties = new Properties();
+
+    /**
+     * Indicates if the MCTS agents should select the nodes without locking them
+     */
+    private static boolean lockFreeSelection = false;
+
+    /**
+     * Indicates if the MCTS agents should search on the opponent's time
+     */
+    private static boolean ponder = false;
+
+    /**
+     * Maximum number of seconds the MCTS agents ponder (-1 means until their next move)
+     */
+    private static double ponderSeconds = -1;
+
+    /**
+     * Maximum number of threads the MCTS agents use to ponder (-1 means all threads)
+     */
+    private static int ponderThreads = -1;
+
+    /**
+     * Number of searchers of the MCTS agents running on virtual threads (0 means the normal threads)
+     */
+    private static int virtualSearchers = 0;
+
+    /**
+     * Parallelisation of the search of the MCTS agents
+     */
+    private static ParallelMode parallelMode = ParallelMode.TREE;
+
+    /**
+     * Number of play-outs per expanded leaf of the MCTS agents (only used for leaf parallelisation)
+     */
+    private static int leafPlayouts = 1;
+
+    /**
+     * Maximum number of nodes in the trees of the MCTS agents (-1 means no limit)
+     */
+    private static int nodeBudget = -1;
+
+    /**
+     * Maximum number of megabytes used by the heap before the MCTS agents prune their trees (-1 means no limit)
+     */
+    private static long memoryBudgetMB = -1;
+
+    /**
+     * Indicates if the MCTS agents should manage their time (see "ClockTimeManager")
+     */
+    private static boolean timeManagement = false;
+
+    /**
+     * Number of seconds on the game clock of the MCTS agents managing their time (-1 means no game clock)
+     */
+    private static double gameSeconds = -1;
+
+    //-------------------------------------------------------------------------
+
     /**
      * Main class which runs a tournament of a single bot pair.
      *
@@ -39,6 +114,29 @@ public class Playground {
      *             int maxDepth: Maximum searched depth per move (-1 means no limit)
      *             boolean printProgress: Print progress of the number of games played
      *             boolean printResult: Print the results of the tournament
+     *             boolean persistentCache: Share the NN evaluations across moves and games (optional, default false)
+     *             boolean symmetricCache: Let symmetric game states share their NN evaluation (optional, default false)
+     *             boolean colourFlipSymmetry: Also use the switch of player perspective as symmetry (optional, default
+     *             false, only when the NN has been trained with it)
+     *             String nnBackend: Backend of the NN evaluations of MCTS agents, MULTI, PARALLEL, BATCHED,
+     *             QUANTIZED or FUSED (optional, default MULTI). The backend is configured with the (optional) properties parallelWorkers,
+     *             parallelBatchLimit, parallelQueueLimit, batchedBatchSize and batchedDeadlineMicros.
+     *             boolean lockFreeSelection: Let the MCTS agents select the nodes without locking them (optional,
+     *             default false)
+     *             boolean ponder: Let the MCTS agents search on the opponent's time, enables tree reuse (optional,
+     *             default false). The budget is configured with ponderSeconds (default -1, until the next move) and
+     *             ponderThreads (default -1, all threads).
+     *             int virtualSearchers: Number of searchers of the MCTS agents running on virtual threads, which wait
+     *             on the asynchronous NN evaluations (optional, default 0, uses the normal threads)
+     *             String parallelMode: Parallelisation of the search of the MCTS agents, TREE, ROOT or LEAF (optional,
+     *             default TREE). The number of play-outs per leaf of LEAF is configured with leafPlayouts (default 1).
+     *             Agents without play-outs search with TREE when LEAF is configured.
+     *             int nodeBudget: Maximum number of nodes in the trees of the MCTS agents, the least visited subtrees
+     *             are collapsed when exceeded (optional, default -1, no limit). A heap limit can be configured with
+     *             memoryBudgetMB (default -1, no limit).
+     *             boolean timeManagement: Let the MCTS agents manage their time, extending the search of close
+     *             decisions and stopping decided searches early (optional, default false). A game clock can be
+     *             configured with gameSeconds (default -1, banks the time saved on maxSeconds instead).
      * @throws IOException
      * @throws ClassNotFoundException
      * @throws NoSuchMethodException
@@ -72,6 +170,22 @@ public class Playground {
         final int maxDepth = Integer.parseInt(props.getProperty("maxDepth"));
         final boolean printProgress = Boolean.parseBoolean(props.getProperty("printProgress"));
         final boolean printResult = Boolean.parseBoolean(props.getProperty("printResult"));
+        EvaluationStore.setEnabled(Boolean.parseBoolean(props.getProperty("persistentCache", "false")));
+        EvaluationStore.setSymmetric(Boolean.parseBoolean(props.getProperty("symmetricCache", "false")),
+                Boolean.parseBoolean(props.getProperty("colourFlipSymmetry", "false")));
+        nnBackend = NNBackend.valueOf(props.getProperty("nnBackend", "MULTI"));
+        nnBackendProperties = props;
+        lockFreeSelection = Boolean.parseBoolean(props.getProperty("lockFreeSelection", "false"));
+        ponder = Boolean.parseBoolean(props.getProperty("ponder", "false"));
+        ponderSeconds = Double.parseDouble(props.getProperty("ponderSeconds", "-1"));
+        ponderThreads = Integer.parseInt(props.getProperty("ponderThreads", "-1"));
+        virtualSearchers = Integer.parseInt(props.getProperty("virtualSearchers", "0"));
+        parallelMode = ParallelMode.valueOf(props.getProperty("parallelMode", "TREE"));
+        leafPlayouts = Integer.parseInt(props.getProperty("leafPlayouts", "1"));
+        nodeBudget = Integer.parseInt(props.getProperty("nodeBudget", "-1"));
+        memoryBudgetMB = Long.parseLong(props.getProperty("memoryBudgetMB", "-1"));
+        timeManagement = Boolean.parseBoolean(props.getProperty("timeManagement", "false"));
+        gameSeconds = Double.parseDouble(props.getProperty("gameSeconds", "-1"));
 
         playTournament(agentClassOne, agentClassTwo, agentOneNN, agentTwoNN, gameName, numGames, maxSeconds, maxIterations, maxDepth,
                 printProgress, printResult);
@@ -210,6 +324,21 @@ public class Playground {
             throw new RuntimeException(e);
         }
 
+        // Set the backend of the NN evaluations, the searchers, the parallelisation, the selection mode, pondering,
+        // the node budget and the time management of the MCTS agents
+        for (int p = 1; p < agents.size(); ++p) {
+            if (agents.get(p) instanceof MCTS) {
+                ((MCTS) agents.get(p)).setNNBackend(nnBackend, nnBackendProperties);
+                ((MCTS) agents.get(p)).setNumVirtualSearchers(virtualSearchers);
+                ((MCTS) agents.get(p)).setParallelMode(parallelMode, leafPlayouts);
+                ((MCTS) agents.get(p)).setLockFreeSelection(lockFreeSelection);
+                ((MCTS) agents.get(p)).setPondering(ponder, ponderSeconds, ponderThreads);
+                ((MCTS) agents.get(p)).setNodeBudget(nodeBudget,
+                        memoryBudgetMB > 0 ? memoryBudgetMB * 1024 * 1024 : -1);
+                ((MCTS) agents.get(p)).setTimeManager(timeManagement ? new ClockTimeManager(gameSeconds) : null);
+            }
+        }
+
         // Start the game
         game.start(context);
 
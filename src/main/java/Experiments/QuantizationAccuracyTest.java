@@ -0,0 +1,181 @@
+package Experiments;
+
+import Evaluator.FusedNeuralNetworkLeafEvaluator;
+import Evaluator.NeuralNetworkLeafEvaluator;
+import Evaluator.QuantizedNeuralNetworkLeafEvaluator;
+import Training.LearningManager;
+import game.Game;
+import main.collections.FastArrayList;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import other.GameLoader;
+import other.context.Context;
+import other.move.Move;
+import other.trial.Trial;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Main class which compares the quantized NN (see "QuantizedNeuralNetworkLeafEvaluator") and the fused NN (see
+ * "FusedNeuralNetworkLeafEvaluator") with the original fp32 NN (DL4J) on a held-out set of game states, generated by
+ * playing random moves. It reports the error of the values, how often the best child is the same and the number of
+ * evaluations per second of the evaluators.
+ */
+public class QuantizationAccuracyTest {
+    /**
+     * Main class which compares the quantized and fused NN with the original fp32 NN
+     *
+     * @param args The path to the NN, the name of the game (optional, default Breakthrough), the number of game states
+     *             (optional, default 1000) and the seed (optional, default 0)
+     */
+    public static void main(String[] args) {
+        String pathName = args.length > 0 ? args[0] :
+                "NN_models/Network_bSize128_nEp1_nGa1563_2022-11-12-04-50-34.bin";
+        String gameName = args.length > 1 ? args[1] : "Breakthrough";
+        int numPositions = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        // Setup game and evaluators
+        Game game = GameLoader.loadGameFromName(gameName + ".lud");
+        MultiLayerNetwork net = LearningManager.loadNetwork(pathName, false);
+        NeuralNetworkLeafEvaluator original = new NeuralNetworkLeafEvaluator(game, net);
+
+        // Create held-out game states
+        ArrayList<Context> positions = createPositions(game, numPositions, new Random(seed));
+
+        // Compare the quantized (int8) and fused (fp32) evaluators with the original NN
+        System.out.println("Accuracy report (" + gameName + ", " + pathName + ")");
+        compare("int8", original, new QuantizedNeuralNetworkLeafEvaluator(game, net), positions);
+        compare("fused fp32", original, new FusedNeuralNetworkLeafEvaluator(game, net), positions);
+    }
+
+    /**
+     * Compares the values of the game states and their children of both evaluators and prints the report
+     *
+     * @param name      Name of the compared evaluator
+     * @param original  Original NN evaluator (DL4J)
+     * @param candidate Evaluator that is compared with the original NN
+     * @param positions Held-out game states
+     */
+    private static void compare(String name, NeuralNetworkLeafEvaluator original,
+                                NeuralNetworkLeafEvaluator candidate, ArrayList<Context> positions) {
+        double sumAbsError = 0;
+        double sumSquaredError = 0;
+        double maxAbsError = 0;
+        int numValues = 0;
+        int sameSign = 0;
+        int sameBestChild = 0;
+        int numParents = 0;
+        long timeOriginal = 0;
+        long timeCandidate = 0;
+        for (Context context : positions) {
+            ArrayList<Integer> nonTerminalMoves = nonTerminalMoves(context);
+            if (nonTerminalMoves.isEmpty()) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            float[] originalValues = original.evaluateMoves(context, nonTerminalMoves, 1);
+            timeOriginal += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            float[] candidateValues = candidate.evaluateMoves(context, nonTerminalMoves, 1);
+            timeCandidate += System.nanoTime() - start;
+
+            for (int i = 0; i < originalValues.length; i++) {
+                double error = Math.abs(originalValues[i] - candidateValues[i]);
+                sumAbsError += error;
+                sumSquaredError += error * error;
+                maxAbsError = Math.max(maxAbsError, error);
+                if (Math.signum(originalValues[i]) == Math.signum(candidateValues[i])) {
+                    sameSign++;
+                }
+                numValues++;
+            }
+
+            // The mover maximises its own value
+            int mover = context.state().mover();
+            if (argBest(originalValues, mover) == argBest(candidateValues, mover)) {
+                sameBestChild++;
+            }
+            numParents++;
+        }
+
+        // Print report
+        System.out.println("--- " + name + " ---");
+        System.out.println("Game states: " + numParents + ", evaluated children: " + numValues);
+        System.out.printf("Mean absolute error: %.6f%n", sumAbsError / numValues);
+        System.out.printf("Root mean squared error: %.6f%n", Math.sqrt(sumSquaredError / numValues));
+        System.out.printf("Maximum absolute error: %.6f%n", maxAbsError);
+        System.out.printf("Same sign: %.2f%%%n", 100.0 * sameSign / numValues);
+        System.out.printf("Same best child: %.2f%%%n", 100.0 * sameBestChild / numParents);
+        System.out.printf("Evaluations per second (DL4J): %.0f%n", numValues / (timeOriginal / 1e9));
+        System.out.printf("Evaluations per second (" + name + "): %.0f%n", numValues / (timeCandidate / 1e9));
+    }
+
+    /**
+     * Creates game states by playing a random number of random moves from the initial game state
+     *
+     * @param game         Ludii's game
+     * @param numPositions Number of game states
+     * @param rng          Random number generator
+     * @return Non-terminal game states
+     */
+    private static ArrayList<Context> createPositions(Game game, int numPositions, Random rng) {
+        ArrayList<Context> positions = new ArrayList<>();
+        while (positions.size() < numPositions) {
+            Context context = new Context(game, new Trial(game));
+            game.start(context);
+
+            int numPlies = rng.nextInt(40);
+            for (int i = 0; i < numPlies && !context.trial().over(); i++) {
+                FastArrayList<Move> legalMoves = context.moves(context).moves();
+                game.apply(context, legalMoves.get(rng.nextInt(legalMoves.size())));
+            }
+
+            if (!context.trial().over()) {
+                positions.add(context);
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Determines the index of all non-terminal moves of the game state
+     *
+     * @param context Ludii's context
+     * @return Indices of the non-terminal moves
+     */
+    private static ArrayList<Integer> nonTerminalMoves(Context context) {
+        FastArrayList<Move> legalMoves = context.moves(context).moves();
+        ArrayList<Integer> nonTerminalMoves = new ArrayList<>();
+        for (int i = 0; i < legalMoves.size(); i++) {
+            Context contextCopy = new Context(context);
+            contextCopy.game().apply(contextCopy, legalMoves.get(i));
+            if (!contextCopy.trial().over()) {
+                nonTerminalMoves.add(i);
+            }
+        }
+
+        return nonTerminalMoves;
+    }
+
+    /**
+     * Determines the index of the best value for the mover (values are w.r.t. player 1)
+     *
+     * @param values Values of the children
+     * @param mover  PlayerID of the mover
+     * @return Index of the best child
+     */
+    private static int argBest(float[] values, int mover) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (mover == 1 ? values[i] > values[best] : values[i] < values[best]) {
+                best = i;
+            }
+        }
+
+        return best;
+    }
+}
\ No newline at end of file
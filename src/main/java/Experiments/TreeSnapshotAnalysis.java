@@ -0,0 +1,65 @@
+package Experiments;
+
+import Agents.MCTS;
+import other.context.Context;
+import other.move.Move;
+import utils.DebugTools;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Main class which analyses a stored game position (e.g. BreakthroughBoard1.obj or LOABoard.obj) with an implicit
+ * MCTS bot, and stores the searched tree as tree snapshot (see "TreeSnapshot"). If the snapshot already exists, the
+ * analysis resumes from the stored tree, so long analyses can be split over multiple runs (or machines).
+ */
+public class TreeSnapshotAnalysis {
+    /**
+     * Main class which analyses a stored game position and stores the searched tree
+     *
+     * @param args The path to the stored game position (optional, default BreakthroughBoard1.obj), the name of the
+     *             game (optional, default Breakthrough), the path to the snapshot (optional, default the path of the
+     *             game position with the extension .tree), the number of seconds to search (optional, default 60),
+     *             the name of the bot (optional, default Agents.MCTS_alpha) and the path to the NN (optional)
+     * @throws IOException
+     * @throws ClassNotFoundException
+     * @throws InvocationTargetException
+     * @throws NoSuchMethodException
+     * @throws InstantiationException
+     * @throws IllegalAccessException
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        String positionPath = args.length > 0 ? args[0] : "BreakthroughBoard1.obj";
+        String gameName = args.length > 1 ? args[1] : "Breakthrough";
+        Path snapshotPath = Paths.get(args.length > 2 ? args[2] : positionPath.replace(".obj", ".tree"));
+        double maxSeconds = args.length > 3 ? Double.parseDouble(args[3]) : 60;
+        String bot = args.length > 4 ? args[4] : "Agents.MCTS_alpha";
+        String pathName = args.length > 5 ? args[5] : "NN_models/Network_bSize128_nEp1_nGa1563_2022-11-12-04-50-34.bin";
+
+        // Load the game position
+        Context context = DebugTools.loadExistingContext(positionPath, gameName);
+        System.out.println(DebugTools.contextToString(context));
+
+        // Initialise agent, which keeps the searched root as root
+        MCTS agent = (MCTS) Class.forName(bot).getDeclaredConstructor(String.class).newInstance(pathName);
+        agent.initAI(context.game(), context.state().mover());
+        agent.setPreserveRootNode(true);
+
+        // Resume the analysis from the snapshot (if it exists)
+        if (Files.exists(snapshotPath)) {
+            agent.importTree(snapshotPath, context);
+            System.out.println("Resumed analysis from " + snapshotPath);
+        }
+
+        // Search and store the tree
+        final Move move = agent.selectAction(context.game(), new Context(context), maxSeconds, -1, -1);
+        final int numNodes = agent.exportTree(snapshotPath);
+        System.out.println("Best move: " + move + " after " + agent.getLastNumIterations() + " iterations");
+        System.out.println("Stored " + numNodes + " nodes in " + snapshotPath);
+
+        agent.closeAI();
+    }
+}
\ No newline at end of file
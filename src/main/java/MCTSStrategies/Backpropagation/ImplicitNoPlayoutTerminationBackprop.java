@@ -38,8 +38,7 @@ public class ImplicitNoPlayoutTerminationBackprop extends BackpropagationStrateg
      */
     public void computeUtilities(MCTS mcts, BaseNode startNode, Context context, double[] utilities, int numPlayoutMoves) {
         if (context.active()) {
-            double multiplier = startNode.contextRef().state().playerToAgent(startNode.contextRef().state().mover()) == 1 ?
-                    1 : -1;
+            double multiplier = ((implicitNode) startNode).getMoverAgent() == 1 ? 1 : -1;
             double value = ((implicitNode) startNode).getBestEstimatedValue() * multiplier;
             utilities[1] = value;
             utilities[2] = -value;
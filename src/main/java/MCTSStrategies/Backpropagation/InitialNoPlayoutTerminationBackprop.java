@@ -7,7 +7,6 @@ package MCTSStrategies.Backpropagation;
 
 import MCTSStrategies.Node.implicitNode;
 import other.context.Context;
-import other.move.Move;
 import search.mcts.MCTS;
 import search.mcts.backpropagation.BackpropagationStrategy;
 import search.mcts.nodes.BaseNode;
@@ -40,23 +39,14 @@ public class InitialNoPlayoutTerminationBackprop extends BackpropagationStrategy
     public void computeUtilities(MCTS mcts, BaseNode startNode, Context context, double[] utilities, int numPlayoutMoves) {
         if (context.active()) {
             // Initialise all needed objects
-            double value = 0;
-            Move parentMove = startNode.parentMove();
-            BaseNode parentNode = startNode.parent();
+            implicitNode parentNode = (implicitNode) startNode.parent();
 
             // Determine multiplier based on player to move (for parent node)
-            double multiplier = parentNode.contextRef().state().playerToAgent(parentNode.contextRef().state().mover()) == 1 ?
-                    1 : -1;
+            double multiplier = parentNode.getMoverAgent() == 1 ? 1 : -1;
 
-            // For all children (of parent, so all siblings of startNode), extract the
-            // initial estimated value of the node
-            int numChildren = parentNode.numLegalMoves();
-            for (int i = 0; i < numChildren; i++) {
-                if (parentNode.childForNthLegalMove(i) == startNode) {
-                    value = ((implicitNode) parentNode).getInitialEstimatedValue(i) * multiplier;
-                    break;
-                }
-            }
+            // Extract the initial estimated value of the node (stored by the parent)
+            double value = parentNode.getInitialEstimatedValue(((implicitNode) startNode).getIndexInParent()) *
+                    multiplier;
 
             utilities[1] = value;
             utilities[2] = -value;
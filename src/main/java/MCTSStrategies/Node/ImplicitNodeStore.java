@@ -0,0 +1,499 @@
+package MCTSStrategies.Node;
+
+import other.move.Move;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compact (struct-of-arrays) store of an implicit MCTS tree. Instead of a Ludii node object per node (with its own
+ * context, legal moves, children and lock), the statistics, best estimated values and child indices of all nodes are
+ * stored in large primitive arrays, which are allocated once and reused for every search (arena). The children of a
+ * node are stored contiguously. Contexts aren't stored at all: they are materialised during the descent by replaying
+ * the moves from the root (see "MCTS_compact").
+ * All values are stored w.r.t. player 1, so the sign only depends on the mover of the parent. The store is thread
+ * safe: statistics are updated atomically, and a node is expanded by the thread that wins the CAS on its status.
+ */
+public class ImplicitNodeStore {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Status of a node that hasn't been expanded
+     */
+    public static final byte UNEXPANDED = 0;
+
+    /**
+     * Status of a node that is being expanded by a thread
+     */
+    public static final byte EXPANDING = 1;
+
+    /**
+     * Status of a node of which the children are stored
+     */
+    public static final byte EXPANDED = 2;
+
+    /**
+     * Status of a node containing a terminal game state
+     */
+    public static final byte TERMINAL = 3;
+
+    /**
+     * Status of a node that couldn't be expanded, since the store is full
+     */
+    public static final byte LEAF = 4;
+
+    /**
+     * VarHandle of the elements of the int arrays
+     */
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * VarHandle of the elements of the double arrays
+     */
+    private static final VarHandle DOUBLE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    /**
+     * VarHandle of the elements of the byte arrays
+     */
+    private static final VarHandle BYTE = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /**
+     * Maximum number of nodes
+     */
+    protected final int capacity;
+
+    /**
+     * Number of allocated nodes (never exceeds the capacity)
+     */
+    protected final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Index of the parent of every node (-1 for the root)
+     */
+    protected final int[] parent;
+
+    /**
+     * Move from the parent to every node (null for the root)
+     */
+    protected final Move[] move;
+
+    /**
+     * Index of the first child of every node (children are stored contiguously)
+     */
+    protected final int[] firstChild;
+
+    /**
+     * Number of children of every node
+     */
+    protected final int[] numChildren;
+
+    /**
+     * Number of visits of every node
+     */
+    protected final int[] visits;
+
+    /**
+     * Number of virtual visits of every node (threads currently searching below the node)
+     */
+    protected final int[] virtualVisits;
+
+    /**
+     * Sum of the backpropagated values of every node (w.r.t. player 1)
+     */
+    protected final double[] totalScore;
+
+    /**
+     * Best estimated (implicit minimax) value of every node (w.r.t. player 1), only accessed through the VarHandle
+     * once the node is published
+     */
+    protected final double[] bestValue;
+
+    /**
+     * Player to move in every expanded node (1 or 2)
+     */
+    protected final byte[] mover;
+
+    /**
+     * Status of every node
+     */
+    protected final byte[] status;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor which allocates the arrays for the given number of nodes
+     *
+     * @param capacity Maximum number of nodes
+     */
+    public ImplicitNodeStore(int capacity) {
+        this.capacity = capacity;
+        this.parent = new int[capacity];
+        this.move = new Move[capacity];
+        this.firstChild = new int[capacity];
+        this.numChildren = new int[capacity];
+        this.visits = new int[capacity];
+        this.virtualVisits = new int[capacity];
+        this.totalScore = new double[capacity];
+        this.bestValue = new double[capacity];
+        this.mover = new byte[capacity];
+        this.status = new byte[capacity];
+    }
+
+    /**
+     * Removes all nodes and creates the root (node 0). The arrays are reused.
+     *
+     * @param terminal Indicates if the root is a terminal game state
+     * @param value    Value of the root (w.r.t. player 1)
+     */
+    public void createRoot(boolean terminal, double value) {
+        this.size.set(1);
+        this.initNode(0, -1, null, value);
+        this.status[0] = terminal ? TERMINAL : UNEXPANDED;
+    }
+
+    /**
+     * Allocates a contiguous block of nodes
+     *
+     * @param num Number of nodes
+     * @return Index of the first node, or -1 if the store is full
+     */
+    public int allocate(int num) {
+        while (true) {
+            int first = this.size.get();
+            if (num > this.capacity - first) {
+                return -1;
+            }
+            if (this.size.compareAndSet(first, first + num)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Initialises a newly allocated node
+     *
+     * @param node       Index of the node
+     * @param parentNode Index of the parent (-1 for the root)
+     * @param parentMove Move from the parent to the node
+     * @param value      Initial estimated value of the node (w.r.t. player 1)
+     */
+    public void initNode(int node, int parentNode, Move parentMove, double value) {
+        this.parent[node] = parentNode;
+        this.move[node] = parentMove;
+        this.firstChild[node] = -1;
+        this.numChildren[node] = 0;
+        this.visits[node] = 0;
+        this.virtualVisits[node] = 0;
+        this.totalScore[node] = 0;
+        this.bestValue[node] = value;
+        this.mover[node] = 0;
+        this.status[node] = UNEXPANDED;
+    }
+
+    /**
+     * Tries to claim the expansion of the node. Only a single thread can claim it.
+     *
+     * @param node Index of the node
+     * @return True if this thread needs to expand the node
+     */
+    public boolean tryStartExpansion(int node) {
+        return BYTE.compareAndSet(this.status, node, UNEXPANDED, EXPANDING);
+    }
+
+    /**
+     * Publishes the children of the node (which have been initialised) and sets its best estimated value
+     *
+     * @param node        Index of the node
+     * @param nodeMover   Player to move in the node
+     * @param first       Index of the first child
+     * @param numChildren Number of children
+     */
+    public void finishExpansion(int node, int nodeMover, int first, int numChildren) {
+        this.mover[node] = (byte) nodeMover;
+        this.firstChild[node] = first;
+        this.numChildren[node] = numChildren;
+        DOUBLE.setRelease(this.bestValue, node, this.minimaxValue(node));
+        BYTE.setRelease(this.status, node, EXPANDED);
+    }
+
+    /**
+     * Marks the node as terminal or as leaf that can't be expanded
+     *
+     * @param node      Index of the node
+     * @param newStatus TERMINAL or LEAF
+     * @param value     Value of the node (w.r.t. player 1)
+     */
+    public void setFinal(int node, byte newStatus, double value) {
+        DOUBLE.setRelease(this.bestValue, node, value);
+        BYTE.setRelease(this.status, node, newStatus);
+    }
+
+    /**
+     * Updates the statistics of the node with the backpropagated value and removes a virtual visit
+     *
+     * @param node  Index of the node
+     * @param value Backpropagated value (w.r.t. player 1)
+     */
+    public void update(int node, double value) {
+        INT.getAndAdd(this.visits, node, 1);
+        DOUBLE.getAndAdd(this.totalScore, node, value);
+        INT.getAndAdd(this.virtualVisits, node, -1);
+    }
+
+    /**
+     * Adds a virtual visit to the node
+     *
+     * @param node Index of the node
+     */
+    public void addVirtualVisit(int node) {
+        INT.getAndAdd(this.virtualVisits, node, 1);
+    }
+
+    /**
+     * Recomputes the best estimated value of an expanded node based on its children (implicit minimax backup). The
+     * value is only written if it hasn't been changed by another thread in the meantime, otherwise it's recomputed,
+     * such that a value computed from older values of the children never overwrites a newer one.
+     *
+     * @param node Index of the node
+     * @return True if the value changed
+     */
+    public boolean minimaxBackup(int node) {
+        while (true) {
+            double current = (double) DOUBLE.getAcquire(this.bestValue, node);
+            double value = this.minimaxValue(node);
+            if (value == current) {
+                return false;
+            }
+
+            if (DOUBLE.compareAndSet(this.bestValue, node, current, value)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Determines the minimax value of an expanded node based on the best estimated values of its children
+     *
+     * @param node Index of the node
+     * @return Maximum (player 1 to move) or minimum (player 2 to move) value of the children
+     */
+    protected double minimaxValue(int node) {
+        int first = this.firstChild[node];
+        int end = first + this.numChildren[node];
+        double best = this.mover[node] == 1 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        for (int child = first; child < end; child++) {
+            double childValue = (double) DOUBLE.getAcquire(this.bestValue, child);
+            best = this.mover[node] == 1 ? Math.max(best, childValue) : Math.min(best, childValue);
+        }
+
+        return best;
+    }
+
+    /**
+     * Finds the child of the node reached by the given move
+     *
+     * @param node       Index of the node
+     * @param parentMove Move from the node to the child
+     * @return Index of the child, or -1 if the node isn't expanded or the move isn't found
+     */
+    public int findChild(int node, Move parentMove) {
+        if (this.status(node) != EXPANDED) {
+            return -1;
+        }
+
+        int first = this.firstChild[node];
+        for (int child = first; child < first + this.numChildren[node]; child++) {
+            if (this.move[child].equals(parentMove)) {
+                return child;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Copies the subtree of the node to the target store, in which the node becomes the root (used for tree reuse).
+     * The subtree is copied breadth first until the target store is full.
+     *
+     * @param node   Index of the new root in this store
+     * @param target Store to which the subtree is copied (all its nodes are removed)
+     */
+    public void copySubtree(int node, ImplicitNodeStore target) {
+        target.size.set(1);
+        this.copyNode(node, target, 0, -1);
+
+        // Breadth first: the nodes of the target are processed in order of allocation, queue contains their sources
+        int[] queue = new int[16];
+        queue[0] = node;
+        int next = 0;
+        int numCopied = 1;
+        while (next < numCopied) {
+            int src = queue[next];
+            int dst = next++;
+            if (this.status(src) != EXPANDED) {
+                continue;
+            }
+
+            int num = this.numChildren[src];
+            int first = target.allocate(num);
+            if (first < 0) {
+                // Target is full, the node will be expanded again
+                target.status[dst] = UNEXPANDED;
+                continue;
+            }
+
+            for (int i = 0; i < num; i++) {
+                int srcChild = this.firstChild[src] + i;
+                this.copyNode(srcChild, target, first + i, dst);
+                if (numCopied == queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[numCopied++] = srcChild;
+            }
+            target.mover[dst] = this.mover[src];
+            target.firstChild[dst] = first;
+            target.numChildren[dst] = num;
+        }
+    }
+
+    /**
+     * Copies a single node (without its children) to the target store
+     *
+     * @param src        Index of the node in this store
+     * @param target     Target store
+     * @param dst        Index of the node in the target store
+     * @param parentNode Index of the parent in the target store
+     */
+    protected void copyNode(int src, ImplicitNodeStore target, int dst, int parentNode) {
+        target.initNode(dst, parentNode, parentNode < 0 ? null : this.move[src], this.bestValue(src));
+        target.visits[dst] = this.visits[src];
+        target.totalScore[dst] = this.totalScore[src];
+        target.mover[dst] = this.mover[src];
+        // Nodes that weren't (fully) expanded can be expanded in the target store
+        byte srcStatus = this.status(src);
+        target.status[dst] = srcStatus == EXPANDING || srcStatus == LEAF ? UNEXPANDED : srcStatus;
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Getter for the status of the node (acquire, such that the children of an expanded node are visible)
+     *
+     * @param node Index of the node
+     * @return Status of the node
+     */
+    public byte status(int node) {
+        return (byte) BYTE.getAcquire(this.status, node);
+    }
+
+    /**
+     * Getter for the parent of the node
+     *
+     * @param node Index of the node
+     * @return Index of the parent (-1 for the root)
+     */
+    public int parent(int node) {
+        return this.parent[node];
+    }
+
+    /**
+     * Getter for the move from the parent to the node
+     *
+     * @param node Index of the node
+     * @return Move from the parent to the node
+     */
+    public Move move(int node) {
+        return this.move[node];
+    }
+
+    /**
+     * Getter for the first child of the node
+     *
+     * @param node Index of the node
+     * @return Index of the first child
+     */
+    public int firstChild(int node) {
+        return this.firstChild[node];
+    }
+
+    /**
+     * Getter for the number of children of the node
+     *
+     * @param node Index of the node
+     * @return Number of children
+     */
+    public int numChildren(int node) {
+        return this.numChildren[node];
+    }
+
+    /**
+     * Getter for the number of visits of the node
+     *
+     * @param node Index of the node
+     * @return Number of visits
+     */
+    public int visits(int node) {
+        return this.visits[node];
+    }
+
+    /**
+     * Getter for the number of virtual visits of the node
+     *
+     * @param node Index of the node
+     * @return Number of virtual visits
+     */
+    public int virtualVisits(int node) {
+        return this.virtualVisits[node];
+    }
+
+    /**
+     * Getter for the sum of the backpropagated values of the node
+     *
+     * @param node Index of the node
+     * @return Sum of the backpropagated values (w.r.t. player 1)
+     */
+    public double totalScore(int node) {
+        return this.totalScore[node];
+    }
+
+    /**
+     * Getter for the best estimated value of the node
+     *
+     * @param node Index of the node
+     * @return Best estimated value (w.r.t. player 1)
+     */
+    public double bestValue(int node) {
+        return (double) DOUBLE.getAcquire(this.bestValue, node);
+    }
+
+    /**
+     * Getter for the player to move in the (expanded) node
+     *
+     * @param node Index of the node
+     * @return Player to move (1 or 2)
+     */
+    public int mover(int node) {
+        return this.mover[node];
+    }
+
+    /**
+     * Getter for the number of nodes
+     *
+     * @return Number of nodes in the store
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Getter for the capacity
+     *
+     * @return Maximum number of nodes
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+}
\ No newline at end of file
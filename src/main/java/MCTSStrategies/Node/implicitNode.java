@@ -2,13 +2,17 @@ package MCTSStrategies.Node;
 
 import Evaluator.GameStateEvaluator;
 import Evaluator.NeuralNetworkLeafEvaluator;
+import MCTSStrategies.Rescaler.Softmax;
 import other.context.Context;
 import other.move.Move;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
 import search.mcts.nodes.DeterministicNode;
 import utils.EvaluatorUtils;
+import utils.LockFreeNodeUtils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
 
 /**
@@ -25,14 +29,63 @@ public class implicitNode extends DeterministicNode {
     //-------------------------------------------------------------------------
 
     /**
-     * Stores the index of the best estimated value based on a leaf evaluator (of the GameStatEvaluator class)
+     * VarHandle to update the packed best estimate atomically
      */
-    protected int bestEstimatedIndex = -1;
+    protected static final VarHandle BEST_ESTIMATE;
 
     /**
-     * Stores the best estimated value based on a leaf evaluator (of the GameStatEvaluator class)
+     * VarHandle to increment the version of the estimated values of the children atomically
      */
-    protected double bestEstimatedValue = -9999999;
+    protected static final VarHandle CHILD_ESTIMATES_VERSION;
+
+    /**
+     * VarHandle of the elements of the initial estimated values (which are replaced when a child is collapsed)
+     */
+    protected static final VarHandle INITIAL_ESTIMATE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    static {
+        try {
+            BEST_ESTIMATE = MethodHandles.lookup().findVarHandle(implicitNode.class, "bestEstimate", long.class);
+            CHILD_ESTIMATES_VERSION = MethodHandles.lookup().findVarHandle(implicitNode.class,
+                    "childEstimatesVersion", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Stores the best estimated value based on a leaf evaluator (of the GameStatEvaluator class) and the index of
+     * the child with that value, packed into one value (see "pack") such that both are always published together.
+     * The value is stored as float, which is the precision of the evaluators.
+     */
+    protected volatile long bestEstimate = pack(-9999999, -1);
+
+    /**
+     * Stores the index of the current node in the legal moves of the parent (-1 for the root)
+     */
+    protected final int indexInParent;
+
+    /**
+     * Stores the ID of the agent to move in the current node
+     */
+    protected final byte moverAgent;
+
+    /**
+     * Stores the sign to convert values of the current node to the perspective of the agent to move in the parent
+     * (1 if the parent has the same agent to move or doesn't exist, otherwise -1)
+     */
+    protected final byte parentSign;
+
+    /**
+     * Version of the estimated values of the children, which is incremented every time the best estimated value of a
+     * child changes (used to invalidate the exploration priors)
+     */
+    protected volatile int childEstimatesVersion = 0;
+
+    /**
+     * Cached softmax of the estimated values of the children (see "getExplorationPriors")
+     */
+    protected volatile ExplorationPriors explorationPriors = null;
 
     /**
      * Stores the initial estimated value of all children based on a leaf evaluator (of the GameStatEvaluator class)
@@ -56,9 +109,34 @@ public class implicitNode extends DeterministicNode {
     public implicitNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context,
                         GameStateEvaluator leafEvaluator, GameStateEvaluator terminalStateEvaluator,
                         boolean evaluateBatched) {
+        this(mcts, parent, parentMove, parentMoveWithoutConseq, context, leafEvaluator, terminalStateEvaluator,
+                evaluateBatched, false);
+    }
+
+    /**
+     * Constructor to create a node which can be used for implicit MCTS implementations, of which the minimax backup
+     * to the ancestors can be deferred until the node has been published (see "backupToAncestors"). This is used by
+     * the lock-free selection, such that only the thread that adds the node to its parent performs the backup.
+     *
+     * @param mcts                    Ludii's MCTS class
+     * @param parent                  Parent node of current node
+     * @param parentMove              Node from parent to current node
+     * @param parentMoveWithoutConseq Node from parent to current node
+     * @param context                 Ludii's context class representating the game state
+     * @param leafEvaluator           GameStateEvaluator which can be used to evaluate non-terminal game states
+     * @param terminalStateEvaluator  GameStateEvaluator which can be used to evaluate terminal game states
+     * @param evaluateBatched         Indicates if the leaf evaluator should calculate the children batched (useful for NNs)
+     * @param deferBackup             Indicates if the backup is performed by the creator after publishing the node
+     */
+    public implicitNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context,
+                        GameStateEvaluator leafEvaluator, GameStateEvaluator terminalStateEvaluator,
+                        boolean evaluateBatched, boolean deferBackup) {
         // Initialise node
         super(mcts, parent, parentMove, parentMoveWithoutConseq, context);
         final int mover = context.state().playerToAgent(context.state().mover());
+        this.indexInParent = this.findIndexInParent();
+        this.moverAgent = (byte) mover;
+        this.parentSign = this.findParentSign();
 
         // If game isn't over
         if (!context.trial().over()) {
@@ -68,130 +146,312 @@ public class implicitNode extends DeterministicNode {
                     evaluateBatched, mover);
 
             // Get the best child
+            double bestValue = -9999999;
+            int bestIndex = -1;
             double value;
             for (int i = 0; i < this.numLegalMoves(); i++) {
                 value = this.initialEstimatedValues[i];
-                if (value > this.bestEstimatedValue) {
-                    this.bestEstimatedValue = value;
-                    this.bestEstimatedIndex = i;
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestIndex = i;
                 }
             }
+            this.bestEstimate = pack(bestValue, bestIndex);
         }
         // Else evaluate current state
         else {
-            this.bestEstimatedValue = terminalStateEvaluator.evaluate(context, mover);
+            this.bestEstimate = pack(terminalStateEvaluator.evaluate(context, mover), -1);
+        }
+
+        if (!deferBackup) {
+            this.backupToAncestors();
         }
+    }
 
-        // If a parent exist, update the best estimated value (if needed) in a minimax fashion
+    /**
+     * Constructor to restore a node of a tree snapshot (see "TreeSnapshot"). The children aren't evaluated, since
+     * their initial estimated values are stored in the snapshot.
+     *
+     * @param mcts                    Ludii's MCTS class
+     * @param parent                  Parent node of current node
+     * @param parentMove              Node from parent to current node
+     * @param parentMoveWithoutConseq Node from parent to current node
+     * @param context                 Ludii's context class representating the game state
+     * @param initialEstimatedValues  Initial estimated values of all children (null for terminal game states)
+     * @param bestEstimatedValue      Best estimated value of the node
+     * @param bestEstimatedIndex      Index of the child with the best estimated value
+     */
+    public implicitNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context,
+                        double[] initialEstimatedValues, double bestEstimatedValue, int bestEstimatedIndex) {
+        super(mcts, parent, parentMove, parentMoveWithoutConseq, context);
+        this.indexInParent = this.findIndexInParent();
+        this.moverAgent = (byte) context.state().playerToAgent(context.state().mover());
+        this.parentSign = this.findParentSign();
+        this.initialEstimatedValues = initialEstimatedValues;
+        this.bestEstimate = pack(bestEstimatedValue, bestEstimatedIndex);
+    }
+
+    /**
+     * Updates the best estimated values of the ancestors with the best estimated value of the node. This is done by
+     * the constructor, unless the backup has been deferred until the node is published.
+     */
+    public void backupToAncestors() {
+        // If a parent exist, update the best estimated values of the ancestors (if needed) in a minimax fashion
         if (this.parent != null) {
-            ((implicitNode) this.parent).implicitMinimaxBackup(this);
+            ((implicitNode) this.parent).invalidateExplorationPriors();
         }
+        this.implicitMinimaxBackup();
     }
 
     /**
-     * Updates the best estimated value of a node using the minimax framework, iff it is required to update the value.
-     * The value if updated when a better best value has been found, or the best child received a new value.
+     * Updates the best estimated values of the ancestors using the minimax framework, iff it is required to update
+     * the values. The ancestors are updated bottom-up without holding any lock, and the backup stops at the first
+     * ancestor of which the best estimated value and index didn't change.
+     */
+    protected void implicitMinimaxBackup() {
+        implicitNode child = this;
+        implicitNode node = (implicitNode) this.parent;
+        while (node != null && node.backupFromChild(child)) {
+            child = node;
+            node = (implicitNode) node.parent;
+            if (node != null) {
+                node.invalidateExplorationPriors();
+            }
+        }
+    }
+
+    /**
+     * Updates the best estimated value of the current node based on the new best estimated value of a child. The
+     * value is updated when a better best value has been found, or the best child received a new value. Concurrent
+     * updates are resolved by retrying the update on the latest best estimate.
      *
      * @param fromChild Child node with the updated values
+     * @return True if the best estimated value or index of the current node got changed
      */
-    protected void implicitMinimaxBackup(implicitNode fromChild) {
-        // Take negative value (if mover changed) and check if best child got changed
-        double backupValue = this.context.state().playerToAgent(this.context.state().mover()) ==
-                fromChild.context.state().playerToAgent(fromChild.context.state().mover()) ?
-                fromChild.bestEstimatedValue : -fromChild.bestEstimatedValue;
-        boolean bestChild = this.nthLegalMove(this.bestEstimatedIndex).equals(fromChild.parentMove);
-
-        // Debugging:
-//        if (this.parent == null){
-//            System.out.printf("Start values: [");
-//            for (int i = 0; i < this.numLegalMoves(); i++){
-//                if (this.children[i] == null){
-//                    System.out.printf("%.4f, ", this.initialHeuristicValues[i]);
-//                }
-//                else {
-//                    System.out.printf("%.4f, ",
-//                            this.context.state().playerToAgent(this.context.state().mover()) ==
-//                                    this.children[i].contextRef().state().playerToAgent(
-//                                            this.children[i].contextRef().state().mover()) ?
-//                                    ((implicitNode)this.children[i]).bestHeuristicValue :
-//                                    -((implicitNode)this.children[i]).bestHeuristicValue);
-//                }
-//            }
-//            System.out.println("]");
-//            System.out.println("bestMove: " + this.legalMoves[this.bestHeuristicIndex]);
-//            System.out.println("back up move: " + fromChild.parentMove);
-//            System.out.println("Is best child? " + bestChild);
-//            System.out.println("Back up value: " + backupValue);
-//        }
-
-//        System.out.println(this.legalMoves[this.bestHeuristicIndex] + " " + fromChild.parentMove + " " + bestChild);
-
-        // If not current best child, but better value, change to new value
-        if (!bestChild && backupValue > this.bestEstimatedValue) {
-            synchronized (this) {
-                // Set best value
-                this.bestEstimatedValue = backupValue;
-
-                // Find index of new best move
-                for (int i = 0; i < this.numLegalMoves(); i++) {
-                    if (this.legalMoves[i].hashCode() == fromChild.parentMove.hashCode()) {
-                        this.bestEstimatedIndex = i;
-                        break;
-                    }
-                }
+    protected boolean backupFromChild(implicitNode fromChild) {
+        final int childIndex = fromChild.indexInParent;
 
-                // Update parent
-                if (this.parent != null) {
-                    ((implicitNode) this.parent).implicitMinimaxBackup(this);
-                }
+        while (true) {
+            final long current = this.bestEstimate;
+            final double bestValue = unpackValue(current);
+
+            // Take negative value (if mover changed)
+            final double backupValue = fromChild.getParentBestEstimatedValue();
+
+            final long updated;
+            // If the child has a better value, it becomes the best child (or it stays the best child)
+            if (backupValue > bestValue) {
+                updated = pack(backupValue, childIndex);
+            }
+            // If the value of the best child decreased, look at all moves
+            else if (unpackIndex(current) == childIndex) {
+                updated = this.findBestEstimate(childIndex, backupValue);
+            }
+            // If nothing got changed, don't continue minimax backup
+            else {
+                return false;
+            }
+
+            if (updated == current) {
+                return false;
+            }
+            if (BEST_ESTIMATE.compareAndSet(this, current, updated)) {
+                return true;
             }
         }
-        // If best index got changed, look at all moves
-        else if (bestChild) {
-            synchronized (this) {
-                double bestValue = Double.NEGATIVE_INFINITY;
-                int bestIndex = -1;
-                double value;
-                for (int i = 0; i < this.numLegalMoves(); i++) {
-                    // If the child is new, the child hasn't been added to the parent
-                    // So the child will be null. To prevent this from happening, check if index matches
-                    if (i == this.bestEstimatedIndex) {
-                        value = backupValue;
-                    } else if (this.children[i] == null) {
-                        value = this.initialEstimatedValues[i];
-                    } else {
-                        value = this.context.state().playerToAgent(this.context.state().mover()) ==
-                                this.children[i].contextRef().state().playerToAgent(
-                                        this.children[i].contextRef().state().mover()) ?
-                                ((implicitNode) this.children[i]).bestEstimatedValue :
-                                -((implicitNode) this.children[i]).bestEstimatedValue;
-                    }
-
-                    if (value > bestValue) {
-                        bestValue = value;
-                        bestIndex = i;
-                    }
-                }
+    }
 
-                // Save best value and index
-                this.bestEstimatedValue = bestValue;
-                this.bestEstimatedIndex = bestIndex;
+    /**
+     * Recomputes the best estimated value of the node from all its children and invalidates the exploration priors,
+     * e.g. after children or their statistics have been merged into the node from another tree
+     */
+    public void recomputeBestEstimate() {
+        this.bestEstimate = this.findBestEstimate(-1, 0);
+        this.invalidateExplorationPriors();
+    }
 
-                // Update parent
-                if (this.parent != null) {
-                    ((implicitNode) this.parent).implicitMinimaxBackup(this);
-                }
+    /**
+     * Finds the child with the best estimated value
+     *
+     * @param childIndex  Index of the child with the updated value
+     * @param backupValue Updated value of that child (from the perspective of the mover)
+     * @return Packed best estimated value and index
+     */
+    protected long findBestEstimate(int childIndex, double backupValue) {
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int bestIndex = -1;
+        double value;
+        for (int i = 0; i < this.numLegalMoves(); i++) {
+            // If the child is new, the child hasn't been added to the parent
+            // So the child will be null. To prevent this from happening, check if index matches
+            final BaseNode child = LockFreeNodeUtils.child(this, i);
+            if (i == childIndex) {
+                value = backupValue;
+            } else if (child == null) {
+                value = this.getInitialEstimatedValue(i);
+            } else {
+                value = ((implicitNode) child).getParentBestEstimatedValue();
+            }
+
+            if (value > bestValue) {
+                bestValue = value;
+                bestIndex = i;
             }
         }
 
-        // Debugging: check if the value got actually changed
-//        if (this.parent == null){
-//            System.out.printf("Best value of node: %.4f\n",this.bestHeuristicValue);
-//            System.out.printf("Best value index: %d\n", this.bestHeuristicIndex);
-//            System.out.println("###############\n");
-//        }
+        return pack(bestValue, bestIndex);
+    }
 
-        // If nothing got changed, don't continue minimax backup
+    /**
+     * Finds the index of the current node in the legal moves of the parent
+     *
+     * @return Index of the move leading to the current node (-1 for the root)
+     */
+    protected int findIndexInParent() {
+        if (this.parent == null) {
+            return -1;
+        }
+
+        // The parent passes its own move object, so compare references first
+        for (int i = 0; i < this.parent.numLegalMoves(); i++) {
+            if (this.parent.nthLegalMove(i) == this.parentMoveWithoutConseq) {
+                return i;
+            }
+        }
+        for (int i = 0; i < this.parent.numLegalMoves(); i++) {
+            if (this.parent.nthLegalMove(i).equals(this.parentMoveWithoutConseq)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines the sign to convert values of the current node to the perspective of the agent to move in the parent
+     *
+     * @return 1 if the parent has the same agent to move (or doesn't exist), otherwise -1
+     */
+    protected byte findParentSign() {
+        if (this.parent == null) {
+            return 1;
+        }
+
+        final int parentMover = this.parent.contextRef().state().playerToAgent(
+                this.parent.contextRef().state().mover());
+        return (byte) (parentMover == this.moverAgent ? 1 : -1);
+    }
+
+    /**
+     * Packs a best estimated value and its index into one value, the float bits of the value are stored in the high
+     * 32 bits and the index in the low 32 bits
+     *
+     * @param value Best estimated value
+     * @param index Index of the child with the best estimated value
+     * @return Packed value
+     */
+    protected static long pack(double value, int index) {
+        return ((long) Float.floatToIntBits((float) value) << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Unpacks the best estimated value of a packed value (see "pack")
+     *
+     * @param packed Packed value
+     * @return Best estimated value
+     */
+    protected static double unpackValue(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    /**
+     * Unpacks the index of the best child of a packed value (see "pack")
+     *
+     * @param packed Packed value
+     * @return Index of the child with the best estimated value
+     */
+    protected static int unpackIndex(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Invalidates the cached exploration priors, since the best estimated value of a child changed
+     */
+    public void invalidateExplorationPriors() {
+        CHILD_ESTIMATES_VERSION.getAndAdd(this, 1);
+    }
+
+    /**
+     * Returns the softmax of the estimated values of all children (from the perspective of the mover), which can be
+     * used as exploration priors by the rescaled selection strategies. The priors are cached and only recomputed
+     * when the best estimated value of a child changed or another temperature is used. The returned array may not be
+     * modified.
+     *
+     * @param rescaler Softmax rescaler
+     * @param T        Temperature of the softmax
+     * @return Exploration priors of all children
+     */
+    public double[] getExplorationPriors(Softmax rescaler, double T) {
+        T = rescaler.boundTemperature(T);
+
+        // The version is read before the values, such that changes during the computation invalidate the result
+        final int version = this.childEstimatesVersion;
+        final ExplorationPriors cached = this.explorationPriors;
+        if (cached != null && cached.version == version && cached.temperature == T) {
+            return cached.priors;
+        }
+
+        final int numChildren = this.numLegalMoves();
+        final double[] priors = new double[numChildren];
+        for (int i = 0; i < numChildren; i++) {
+            final BaseNode child = LockFreeNodeUtils.child(this, i);
+            priors[i] = child == null ? this.getInitialEstimatedValue(i) :
+                    ((implicitNode) child).getParentBestEstimatedValue(); // Own perspective
+        }
+        rescaler.rescale(priors, numChildren, T, priors);
+
+        this.explorationPriors = new ExplorationPriors(version, T, priors);
+        return priors;
+    }
+
+    /**
+     * Updates the node atomically based on the given utilities, such that no lock is needed during backpropagation
+     *
+     * @param utilities Score for evaluated game position w.r.t. all players
+     */
+    @Override
+    public void update(double[] utilities) {
+        LockFreeNodeUtils.update(this, utilities);
+    }
+
+    /**
+     * Collapses the subtree of a child back into its initial estimated value, such that the nodes of the subtree can
+     * be garbage collected (see "MCTS.pruneTree"). The best estimated value of the child is kept as initial estimated
+     * value, so the implicit minimax backup and the selection continue with the value learned by the subtree.
+     * The value is only stored (with release semantics) once the removal succeeded, so a thread that still reaches
+     * the child never sees the new value. Between the removal and the store, threads may briefly use the original
+     * initial estimated value of the child.
+     * Only the slot in the children array is cleared: the bookkeeping performed by Ludii's "addChild" when the child
+     * was published (see "LockFreeNodeUtils.addChild") isn't undone, and is performed again for the node created when
+     * the child is expanded anew. The statistics of this node are kept as well, since they include the iterations
+     * through the collapsed subtree.
+     *
+     * @param index Index of the child
+     * @return True if the child has been removed (false if another thread replaced it or it didn't exist)
+     */
+    public boolean collapseChild(int index) {
+        final BaseNode child = LockFreeNodeUtils.child(this, index);
+        if (!(child instanceof implicitNode)) {
+            return false;
+        }
+
+        final double value = ((implicitNode) child).getParentBestEstimatedValue();
+        if (!LockFreeNodeUtils.removeChild(this, child, index)) {
+            return false;
+        }
+
+        INITIAL_ESTIMATE.setRelease(this.initialEstimatedValues, index, value);
+        return true;
     }
 
     /**
@@ -240,7 +500,7 @@ public class implicitNode extends DeterministicNode {
      */
     @Override
     public String toString() {
-        final int mover = this.contextRef().state().playerToAgent(this.contextRef().state().mover()) == 1 ? 2 : 1;
+        final int mover = this.moverAgent == 1 ? 2 : 1;
         if (this == null) {
             return "unvisited";
         }
@@ -249,7 +509,7 @@ public class implicitNode extends DeterministicNode {
                 this.parentMove.from(), this.parentMove.to(),
                 Arrays.toString(this.totalScores), this.numVisits,
                 this.exploitationScore(mover),
-                this.bestEstimatedValue);
+                this.getBestEstimatedValue());
     }
 
     /**
@@ -258,7 +518,34 @@ public class implicitNode extends DeterministicNode {
      * @return the best estimated value
      */
     public double getBestEstimatedValue() {
-        return bestEstimatedValue;
+        return unpackValue(this.bestEstimate);
+    }
+
+    /**
+     * Getter for the best estimated value from the perspective of the agent to move in the parent
+     *
+     * @return the best estimated value for the parent
+     */
+    public double getParentBestEstimatedValue() {
+        return this.parentSign * this.getBestEstimatedValue();
+    }
+
+    /**
+     * Getter for the ID of the agent to move
+     *
+     * @return ID of the agent to move in the current node
+     */
+    public int getMoverAgent() {
+        return moverAgent;
+    }
+
+    /**
+     * Getter for the index of the current node in the legal moves of the parent
+     *
+     * @return index of the move leading to the current node (-1 for the root)
+     */
+    public int getIndexInParent() {
+        return indexInParent;
     }
 
     /**
@@ -268,6 +555,86 @@ public class implicitNode extends DeterministicNode {
      * @return initial estimated value of child at the given index
      */
     public double getInitialEstimatedValue(int index) {
-        return initialEstimatedValues[index];
+        return (double) INITIAL_ESTIMATE.getAcquire(this.initialEstimatedValues, index);
+    }
+
+    /**
+     * Getter for the index of the child with the best estimated value
+     *
+     * @return index of the best child (-1 for terminal game states)
+     */
+    public int getBestEstimatedIndex() {
+        return unpackIndex(this.bestEstimate);
+    }
+
+    /**
+     * Getter for the number of initial estimated values
+     *
+     * @return number of initial estimated values (0 for terminal game states)
+     */
+    public int numInitialEstimatedValues() {
+        return initialEstimatedValues == null ? 0 : initialEstimatedValues.length;
+    }
+
+    /**
+     * Getter for the sum of the squared scores of a specific agent
+     *
+     * @param agent Id of the agent
+     * @return sum of the squared scores
+     */
+    public double getSumSquaredScore(int agent) {
+        return sumSquaredScores[agent];
+    }
+
+    /**
+     * Restores the statistics of the node from a tree snapshot (see "TreeSnapshot"). Game theoretical values are
+     * part of the total scores (see "Value.INF").
+     *
+     * @param numVisits        Number of visits
+     * @param totalScores      Total scores of all players (index 0 isn't used)
+     * @param sumSquaredScores Sum of the squared scores of all players (index 0 isn't used)
+     */
+    public void restoreStatistics(int numVisits, double[] totalScores, double[] sumSquaredScores) {
+        this.numVisits = numVisits;
+        for (int p = 1; p < this.totalScores.length; ++p) {
+            this.totalScores[p] = totalScores[p];
+            this.sumSquaredScores[p] = sumSquaredScores[p];
+        }
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Softmax of the estimated values of the children for a specific version of the values and temperature
+     */
+    protected static class ExplorationPriors {
+
+        /**
+         * Version of the estimated values of the children
+         */
+        protected final int version;
+
+        /**
+         * Temperature of the softmax
+         */
+        protected final double temperature;
+
+        /**
+         * Softmax of the estimated values of the children
+         */
+        protected final double[] priors;
+
+        /**
+         * Constructor with the version, temperature and priors as input
+         *
+         * @param version     Version of the estimated values of the children
+         * @param temperature Temperature of the softmax
+         * @param priors      Softmax of the estimated values of the children
+         */
+        protected ExplorationPriors(int version, double temperature, double[] priors) {
+            this.version = version;
+            this.temperature = temperature;
+            this.priors = priors;
+        }
     }
 }
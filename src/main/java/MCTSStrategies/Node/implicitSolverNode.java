@@ -7,6 +7,7 @@ import other.move.Move;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
 import search.mcts.nodes.DeterministicNode;
+import utils.LockFreeNodeUtils;
 import utils.Value;
 
 import java.util.Iterator;
@@ -32,8 +33,29 @@ public class implicitSolverNode extends implicitNode {
     public implicitSolverNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context,
                               GameStateEvaluator leafEvaluator, GameStateEvaluator terminalStateEvaluator,
                               boolean evaluateBatched) {
+        this(mcts, parent, parentMove, parentMoveWithoutConseq, context, leafEvaluator, terminalStateEvaluator,
+                evaluateBatched, false);
+    }
+
+    /**
+     * Constructor for the implicit solver node, of which the minimax backup to the ancestors can be deferred until
+     * the node has been published (see "backupToAncestors")
+     *
+     * @param mcts                    Ludii's MCTS class
+     * @param parent                  Parent node of current node
+     * @param parentMove              Node from parent to current node
+     * @param parentMoveWithoutConseq Node from parent to current node
+     * @param context                 Ludii's context class representating the game state
+     * @param leafEvaluator           GameStateEvaluator which can be used to evaluate non-terminal game states
+     * @param terminalStateEvaluator  GameStateEvaluator which can be used to evaluate terminal game states
+     * @param evaluateBatched         Indicates if the leaf evaluator should calculate the children batched (useful for NNs)
+     * @param deferBackup             Indicates if the backup is performed by the creator after publishing the node
+     */
+    public implicitSolverNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq, Context context,
+                              GameStateEvaluator leafEvaluator, GameStateEvaluator terminalStateEvaluator,
+                              boolean evaluateBatched, boolean deferBackup) {
         super(mcts, parent, parentMove, parentMoveWithoutConseq, context,
-                leafEvaluator, terminalStateEvaluator, evaluateBatched);
+                leafEvaluator, terminalStateEvaluator, evaluateBatched, deferBackup);
 
         // Check if current state is winning
         if (context.trial().over()) {
@@ -84,6 +106,26 @@ public class implicitSolverNode extends implicitNode {
         }
     }
 
+    /**
+     * Constructor to restore a node of a tree snapshot (see "TreeSnapshot"). The children aren't evaluated and the
+     * game theoretical values are restored with the statistics.
+     *
+     * @param mcts                    Ludii's MCTS class
+     * @param parent                  Parent node of current node
+     * @param parentMove              Node from parent to current node
+     * @param parentMoveWithoutConseq Node from parent to current node
+     * @param context                 Ludii's context class representating the game state
+     * @param initialEstimatedValues  Initial estimated values of all children (null for terminal game states)
+     * @param bestEstimatedValue      Best estimated value of the node
+     * @param bestEstimatedIndex      Index of the child with the best estimated value
+     */
+    public implicitSolverNode(MCTS mcts, BaseNode parent, Move parentMove, Move parentMoveWithoutConseq,
+                              Context context, double[] initialEstimatedValues, double bestEstimatedValue,
+                              int bestEstimatedIndex) {
+        super(mcts, parent, parentMove, parentMoveWithoutConseq, context, initialEstimatedValues,
+                bestEstimatedValue, bestEstimatedIndex);
+    }
+
     /**
      * Updates the game theoretical values (proven win or loss) based on the backpropagation described in
      * Winands, M. H., Björnsson, Y., & Saito, J. T. (2008, September). Monte-Carlo tree search solver. In
@@ -248,10 +290,10 @@ public class implicitSolverNode extends implicitNode {
         //         Game Theoretical Value.
         // Else Update the node normally
         if (isValueProven(1) || isValueProven(2)) {
-            this.numVisits++;
+            LockFreeNodeUtils.incrementVisits(this);
             numVirtualVisits.decrementAndGet();
         } else if (Math.abs(utilities[1]) == Value.INF || Math.abs(utilities[2]) == Value.INF) {
-            this.numVisits++;
+            LockFreeNodeUtils.incrementVisits(this);
             for (int p = 1; p < totalScores.length; ++p) {
                 totalScores[p] = utilities[p];
                 sumSquaredScores[p] = utilities[p] * utilities[p];
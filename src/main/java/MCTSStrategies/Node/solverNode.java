@@ -6,6 +6,7 @@ import other.move.Move;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
 import search.mcts.nodes.DeterministicNode;
+import utils.LockFreeNodeUtils;
 import utils.Value;
 
 import java.util.Iterator;
@@ -240,17 +241,17 @@ public class solverNode extends DeterministicNode {
         //         Game Theoretical Value.
         // Else Update the node normally
         if (isValueProven(1) || isValueProven(2)) {
-            this.numVisits++;
+            LockFreeNodeUtils.incrementVisits(this);
             numVirtualVisits.decrementAndGet();
         } else if (Math.abs(utilities[1]) == Value.INF || Math.abs(utilities[2]) == Value.INF) {
-            this.numVisits++;
+            LockFreeNodeUtils.incrementVisits(this);
             for (int p = 1; p < totalScores.length; ++p) {
                 totalScores[p] = utilities[p];
                 sumSquaredScores[p] = utilities[p] * utilities[p];
             }
             numVirtualVisits.decrementAndGet();
         } else {
-            super.update(utilities);
+            LockFreeNodeUtils.update(this, utilities);
         }
     }
 }
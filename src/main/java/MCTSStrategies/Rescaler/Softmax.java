@@ -39,22 +39,53 @@ public class Softmax implements Rescaler {
      * @return rescaled values using softmax
      */
     public double[] rescale(double[] values, double T) {
+        return rescale(values, values.length, T, new double[values.length]);
+    }
+
+    /**
+     * Rescales the first n given values using the softmax, and stores the result in the given array (which can be
+     * the array of the values itself). The maximum value is subtracted before exponentiating, such that Math.exp
+     * can't overflow (e.g. for proven values), and Math.exp is computed once per value.
+     *
+     * @param values        values to rescale
+     * @param n             number of values to rescale
+     * @param T             Temperature of softmax
+     * @param probabilities array to store the rescaled values in
+     * @return array with the rescaled values
+     */
+    public double[] rescale(double[] values, int n, double T, double[] probabilities) {
         // Prevent the temperature from going to large since it can result in problems w.r.t. Math.exp
-        T = Math.max(T, lowerBoundT);
+        T = this.boundTemperature(T);
 
-        // Calculate sum
+        // Determine maximum
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, values[i]);
+        }
+
+        // Calculate exponents and sum
         double sum = 0;
-        int n = values.length;
         for (int i = 0; i < n; i++) {
-            sum += (float) Math.exp(values[i] / T);
+            probabilities[i] = Math.exp((values[i] - max) / T);
+            sum += probabilities[i];
         }
 
         // Determine probabilities
-        double[] probabilities = new double[n];
+        final double scale = 1 / sum;
         for (int i = 0; i < n; i++) {
-            probabilities[i] = Math.exp(values[i] / T) / sum;
+            probabilities[i] *= scale;
         }
 
         return probabilities;
     }
+
+    /**
+     * Applies the lower bound to the temperature
+     *
+     * @param T Temperature of softmax
+     * @return Temperature used by the softmax
+     */
+    public double boundTemperature(double T) {
+        return Math.max(T, lowerBoundT);
+    }
 }
@@ -9,6 +9,7 @@ import MCTSStrategies.Node.implicitNode;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -67,12 +68,11 @@ public class EpsilonGreedy extends ImplicitUCT {
         // Else select move with highest implicit minimax value
         double heuristicValue;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 heuristicValue = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
             } else {
-                heuristicValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                heuristicValue = child.getParentBestEstimatedValue(); // Own perspective
             }
 
             if (heuristicValue > bestValue) {
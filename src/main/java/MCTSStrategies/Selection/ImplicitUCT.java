@@ -6,12 +6,10 @@
 package MCTSStrategies.Selection;
 
 import MCTSStrategies.Node.implicitNode;
-import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
 import search.mcts.selection.SelectionStrategy;
-
-import java.util.concurrent.ThreadLocalRandom;
+import utils.Enums.ExplorationTerm;
 
 /**
  * Selection strategy which selects the child based on a combination of UCT and minimax backpropagated values.
@@ -62,61 +60,14 @@ public class ImplicitUCT implements SelectionStrategy {
      */
     public int select(MCTS mcts, BaseNode current) {
         // Initialise needed variables
-        int bestIdx = -1;
-        double bestValue = Double.NEGATIVE_INFINITY;
-        int numBestFound = 0;
         double parentLog = Math.log((double) Math.max(1, current.sumLegalChildVisits()));
-        int numChildren = current.numLegalMoves();
-        State state = current.contextRef().state();
-        int moverAgent = state.playerToAgent(state.mover());
-        double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
-
-        // For all children, determine child with highest uct value
-        // Ties are broken at random
-        double exploit;
-        double explore;
-        double estimatedValue;
-        for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = Math.sqrt(parentLog);
-                estimatedValue = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                int numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
-            }
-
-            double uctValue = (1 - this.influenceEstimatedMinimax) * exploit +
-                    this.influenceEstimatedMinimax * estimatedValue +
-                    this.explorationConstant * explore;
-
-//            if (current.parent() == null){
-//                System.out.printf("%d) win rate: %.4f, heuristic: %.4f, explore: %.4f, ucb: %.4f\n",
-//                        i+1, exploit, estimatedValue, explore, uctValue);
-//            }
-
-            if (uctValue > bestValue) {
-                bestValue = uctValue;
-                bestIdx = i;
-                numBestFound = 1;
-            } else if (uctValue == bestValue) {
-                int randomInt = ThreadLocalRandom.current().nextInt();
-                ++numBestFound;
-                if (randomInt % numBestFound == 0) {
-                    bestIdx = i;
-                }
-            }
+        int moverAgent = ((implicitNode) current).getMoverAgent();
+        try (SelectionKernel kernel = SelectionKernel.gather(current, moverAgent)) {
+            // For all children, determine child with highest uct value (see "SelectionKernel")
+            // Ties are broken at random
+            return kernel.select(1 - this.influenceEstimatedMinimax, this.influenceEstimatedMinimax,
+                    this.explorationConstant, parentLog, ExplorationTerm.SQRT, null);
         }
-
-//        if (current.parent() == null){
-//            System.out.printf("Selected: %d\n\n", bestIdx+1);
-//        }
-
-        return bestIdx;
     }
 
     /**
@@ -9,6 +9,7 @@ import MCTSStrategies.Node.implicitNode;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -74,7 +75,7 @@ public class ImplicitUCTAlphaDecreaseRandomConstant extends ImplicitUCT {
         int numVisits;
         double alpha;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = unvisitedValueEstimate;
                 explore = Math.sqrt(parentLog);
@@ -84,8 +85,7 @@ public class ImplicitUCTAlphaDecreaseRandomConstant extends ImplicitUCT {
                 exploit = child.exploitationScore(moverAgent);
                 numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
             }
 
             alpha = this.adjustAlpha(this.influenceEstimatedMinimax, numVisits);
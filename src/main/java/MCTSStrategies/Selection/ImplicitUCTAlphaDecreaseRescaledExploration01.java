@@ -10,6 +10,7 @@ import MCTSStrategies.Rescaler.Softmax;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -73,12 +74,11 @@ public class ImplicitUCTAlphaDecreaseRescaledExploration01 extends ImplicitUCT {
         // Determine all estimated values
         double[] estimatedValues = new double[numChildren];
         for (int i = 0; i < numChildren; i++) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 estimatedValues[i] = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
             } else {
-                estimatedValues[i] = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValues[i] = child.getParentBestEstimatedValue(); // Own perspective
             }
 
             estimatedValues[i] = (estimatedValues[i] + 1) / 2;
@@ -94,7 +94,7 @@ public class ImplicitUCTAlphaDecreaseRescaledExploration01 extends ImplicitUCT {
         int numVisits;
         double alpha;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = (unvisitedValueEstimate + 1) / 2;
                 explore = explorationProbs[i] * Math.sqrt(parentLog);
@@ -10,6 +10,7 @@ import MCTSStrategies.Rescaler.Softmax;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -83,17 +84,17 @@ public class ImplicitUCTAlphaDecreaseRescaledExplorationRandomConstant extends I
         // Determine all estimated values
         double[] estimatedValues = new double[numChildren];
         for (int i = 0; i < numChildren; i++) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 estimatedValues[i] = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
             } else {
-                estimatedValues[i] = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValues[i] = child.getParentBestEstimatedValue(); // Own perspective
             }
         }
 
         // Determine exploration probabilities based on the softmax
-        double[] explorationProbs = this.rescaler.rescale(estimatedValues, this.explorationConstant / parentVisits);
+        double[] explorationProbs = ((implicitNode) current).getExplorationPriors(this.rescaler,
+                this.explorationConstant / parentVisits);
 
         // For all children, determine child with highest uct value
         // Ties are broken at random
@@ -102,7 +103,7 @@ public class ImplicitUCTAlphaDecreaseRescaledExplorationRandomConstant extends I
         int numVisits;
         double alpha;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = unvisitedValueEstimate;
                 explore = explorationProbs[i] * Math.sqrt(parentLog);
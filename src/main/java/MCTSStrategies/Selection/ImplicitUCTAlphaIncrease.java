@@ -6,11 +6,9 @@
 package MCTSStrategies.Selection;
 
 import MCTSStrategies.Node.implicitNode;
-import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
-
-import java.util.concurrent.ThreadLocalRandom;
+import utils.Enums.ExplorationTerm;
 
 /**
  * Selection strategy which selects the child based on a combination of UCT and minimax backpropagated values, with an
@@ -49,57 +47,19 @@ public class ImplicitUCTAlphaIncrease extends ImplicitUCT {
      */
     public int select(MCTS mcts, BaseNode current) {
         // Initialise needed variables
-        int bestIdx = -1;
-        double bestValue = Double.NEGATIVE_INFINITY;
-        int numBestFound = 0;
         double parentLog = Math.log((double) Math.max(1, current.sumLegalChildVisits()));
-        int numChildren = current.numLegalMoves();
-        State state = current.contextRef().state();
-        int moverAgent = state.playerToAgent(state.mover());
-        double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
-
-        // For all children, determine child with highest uct value
-        // Ties are broken at random
-        double exploit;
-        double explore;
-        double estimatedValue;
-        int numVisits;
-        double alpha;
-        for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = Math.sqrt(parentLog);
-                estimatedValue = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
-                numVisits = 0;
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+        int moverAgent = ((implicitNode) current).getMoverAgent();
+        try (SelectionKernel kernel = SelectionKernel.gather(current, moverAgent)) {
+            // Determine the influence of the estimated value of every child based on its visits
+            double[] alphas = kernel.weights();
+            for (int i = 0; i < kernel.numChildren(); i++) {
+                alphas[i] = this.adjustAlpha(this.influenceEstimatedMinimax, kernel.numVisits(i));
             }
 
-            alpha = this.adjustAlpha(this.influenceEstimatedMinimax, numVisits);
-            double uctValue = (1 - alpha) * exploit +
-                    alpha * estimatedValue +
-                    this.explorationConstant * explore;
-
-
-            if (uctValue > bestValue) {
-                bestValue = uctValue;
-                bestIdx = i;
-                numBestFound = 1;
-            } else if (uctValue == bestValue) {
-                int randomInt = ThreadLocalRandom.current().nextInt();
-                ++numBestFound;
-                if (randomInt % numBestFound == 0) {
-                    bestIdx = i;
-                }
-            }
+            // For all children, determine child with highest uct value (see "SelectionKernel")
+            // Ties are broken at random
+            return kernel.select(alphas, this.explorationConstant, parentLog, ExplorationTerm.SQRT, null);
         }
-
-        return bestIdx;
     }
 
     /**
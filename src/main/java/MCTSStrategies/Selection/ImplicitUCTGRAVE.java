@@ -11,6 +11,7 @@ import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.backpropagation.BackpropagationStrategy;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -93,7 +94,7 @@ public class ImplicitUCTGRAVE extends ImplicitUCT {
         double meanAMAF;
         double beta;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = unvisitedValueEstimate;
                 explore = Math.sqrt(parentLog);
@@ -104,8 +105,7 @@ public class ImplicitUCTGRAVE extends ImplicitUCT {
                 exploit = child.exploitationScore(moverAgent);
                 int numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
 
                 final Move move = child.parentMove();
                 final BaseNode.NodeStatistics graveStats = currentRefNode.get().graveStats(new MCTS.MoveKey(move, current.contextRef().trial().numMoves()));
@@ -142,7 +142,7 @@ public class ImplicitUCTGRAVE extends ImplicitUCT {
         }
 
         // This can help garbage collector to clean up a bit more easily
-        if (current.childForNthLegalMove(bestIdx) == null)
+        if (LockFreeNodeUtils.child(current, bestIdx) == null)
             currentRefNode.set(null);
 
         return bestIdx;
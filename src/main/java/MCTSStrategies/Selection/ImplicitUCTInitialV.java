@@ -9,6 +9,7 @@ import MCTSStrategies.Node.implicitNode;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -52,7 +53,7 @@ public class ImplicitUCTInitialV extends ImplicitUCT {
         double explore;
         double estimatedValue;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = ((implicitNode) current).getInitialEstimatedValue(i);
                 explore = Math.sqrt(parentLog);
@@ -61,8 +62,7 @@ public class ImplicitUCTInitialV extends ImplicitUCT {
                 exploit = child.exploitationScore(moverAgent);
                 int numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
             }
 
             double uctValue = (1 - this.influenceEstimatedMinimax) * exploit +
@@ -9,6 +9,7 @@ import MCTSStrategies.Node.implicitNode;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -70,7 +71,7 @@ public class ImplicitUCTProgressiveBias extends ImplicitUCT {
         double estimatedValue;
         double estimatedScore;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
 
             if (child == null) {
                 exploit = unvisitedValueEstimate;
@@ -81,8 +82,7 @@ public class ImplicitUCTProgressiveBias extends ImplicitUCT {
                 exploit = child.exploitationScore(moverAgent);
                 int numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
                 estimatedScore = (this.progressiveWeight * estimatedValue) / numVisits;
             }
 
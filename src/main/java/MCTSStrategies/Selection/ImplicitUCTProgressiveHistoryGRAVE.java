@@ -11,6 +11,7 @@ import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.backpropagation.BackpropagationStrategy;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -107,7 +108,7 @@ public class ImplicitUCTProgressiveHistoryGRAVE extends ImplicitUCT {
         int numVisits;
         double meanGlobalActionScore;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
 
             final Move move = current.nthLegalMove(i);
             final MCTS.ActionStatistics actionStats = mcts.getOrCreateActionStatsEntry(new MCTS.MoveKey(move, current.contextRef().trial().numMoves()));
@@ -127,8 +128,7 @@ public class ImplicitUCTProgressiveHistoryGRAVE extends ImplicitUCT {
                 exploit = child.exploitationScore(moverAgent);
                 numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
 
                 final BaseNode.NodeStatistics graveStats = currentRefNode.get().graveStats(new MCTS.MoveKey(move, current.contextRef().trial().numMoves()));
 
@@ -170,7 +170,7 @@ public class ImplicitUCTProgressiveHistoryGRAVE extends ImplicitUCT {
         }
 
         // This can help garbage collector to clean up a bit more easily
-        if (current.childForNthLegalMove(bestIdx) == null)
+        if (LockFreeNodeUtils.child(current, bestIdx) == null)
             currentRefNode.set(null);
 
         return bestIdx;
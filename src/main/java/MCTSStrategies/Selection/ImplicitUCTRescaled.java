@@ -11,6 +11,7 @@ import MCTSStrategies.Rescaler.Rescaler;
 import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -73,12 +74,11 @@ public class ImplicitUCTRescaled extends ImplicitUCT {
         // Determine all estimated values
         double[] estimatedValues = new double[numChildren];
         for (int i = 0; i < numChildren; i++) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 estimatedValues[i] = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
             } else {
-                estimatedValues[i] = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValues[i] = child.getParentBestEstimatedValue(); // Own perspective
             }
         }
 
@@ -90,7 +90,7 @@ public class ImplicitUCTRescaled extends ImplicitUCT {
         double exploit;
         double explore;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 exploit = unvisitedValueEstimate;
                 explore = Math.sqrt(parentLog);
@@ -7,11 +7,9 @@ package MCTSStrategies.Selection;
 
 import MCTSStrategies.Node.implicitNode;
 import MCTSStrategies.Rescaler.Softmax;
-import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
-
-import java.util.concurrent.ThreadLocalRandom;
+import utils.Enums.ExplorationTerm;
 
 /**
  * Selection strategy which selects the child based on a combination of UCT and minimax backpropagated values.
@@ -53,62 +51,16 @@ public class ImplicitUCTRescaledExploration5 extends ImplicitUCT {
      */
     public int select(MCTS mcts, BaseNode current) {
         // Initialise needed variables
-        int bestIdx = -1;
-        double bestValue = Double.NEGATIVE_INFINITY;
-        int numBestFound = 0;
         double parentVisits = (double) Math.max(1, current.sumLegalChildVisits());
-        int numChildren = current.numLegalMoves();
-        State state = current.contextRef().state();
-        int moverAgent = state.playerToAgent(state.mover());
-        double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
+        int moverAgent = ((implicitNode) current).getMoverAgent();
+        try (SelectionKernel kernel = SelectionKernel.gather(current, moverAgent)) {
+            // Determine exploration probabilities based on the softmax
+            double[] explorationProbs = ((implicitNode) current).getExplorationPriors(this.rescaler, 1 / parentVisits);
 
-        // Determine all estimated values
-        double[] estimatedValues = new double[numChildren];
-        for (int i = 0; i < numChildren; i++) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                estimatedValues[i] = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
-            } else {
-                estimatedValues[i] = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
-            }
+            // For all children, determine child with highest uct value (see "SelectionKernel")
+            // Ties are broken at random
+            return kernel.select(1 - this.influenceEstimatedMinimax, this.influenceEstimatedMinimax, 1, parentVisits,
+                    ExplorationTerm.SQRT, explorationProbs);
         }
-
-        // Determine exploration probabilities based on the softmax
-        double[] explorationProbs = this.rescaler.rescale(estimatedValues, 1 / parentVisits);
-
-        // For all children, determine child with highest uct value
-        // Ties are broken at random
-        double exploit;
-        double explore;
-        for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = explorationProbs[i] * Math.sqrt(parentVisits);
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                int numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = explorationProbs[i] * Math.sqrt(parentVisits / (double) numVisits);
-            }
-
-            double uctValue = (1 - this.influenceEstimatedMinimax) * exploit +
-                    this.influenceEstimatedMinimax * estimatedValues[i] +
-                    explore;
-
-            if (uctValue > bestValue) {
-                bestValue = uctValue;
-                bestIdx = i;
-                numBestFound = 1;
-            } else if (uctValue == bestValue) {
-                int randomInt = ThreadLocalRandom.current().nextInt();
-                ++numBestFound;
-                if (randomInt % numBestFound == 0) {
-                    bestIdx = i;
-                }
-            }
-        }
-
-        return bestIdx;
     }
 }
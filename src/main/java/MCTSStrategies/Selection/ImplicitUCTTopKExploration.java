@@ -6,9 +6,9 @@
 package MCTSStrategies.Selection;
 
 import MCTSStrategies.Node.implicitNode;
-import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.Enums.ExplorationTerm;
 import utils.Value;
 
 import java.util.concurrent.ThreadLocalRandom;
@@ -54,74 +54,37 @@ public class ImplicitUCTTopKExploration extends ImplicitUCTTopKRandom {
     public int select(MCTS mcts, BaseNode current) {
         // Initialise needed variables
         double parentLog = Math.log((double) Math.max(1, current.sumLegalChildVisits()));
-        int numChildren = current.numLegalMoves();
-        State state = current.contextRef().state();
-        int moverAgent = state.playerToAgent(state.mover());
-        double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
-
-        // For all children, determine child with highest uct value
-        // Ties are broken at random
-        double exploit;
-        double explore;
-        double estimatedValue;
-        double[] uctValues = new double[numChildren];
-        for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = Math.sqrt(parentLog);
-                estimatedValue = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                int numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
-            }
-
-            uctValues[i] = (1 - this.influenceEstimatedMinimax) * exploit +
-                    this.influenceEstimatedMinimax * estimatedValue +
-                    this.explorationConstant * explore;
-        }
-
-        // Get the indices of the top K best UCT values
-        int[] topKIndices = getTopKIndex(uctValues, this.K);
-
-        // Determine the best uct value with the second exploration value
-        int bestIdx = -1;
-        double bestValue = -Value.INF;
-        int numBestFound = 0;
-        for (int i = 1; i < this.K; i++) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(topKIndices[i]);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = Math.sqrt(parentLog);
-                estimatedValue = ((implicitNode) current).getInitialEstimatedValue(topKIndices[i]); // Own perspective
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                int numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
-            }
-
-            double uctValue = (1 - this.influenceEstimatedMinimax) * exploit +
-                    this.influenceEstimatedMinimax * estimatedValue +
-                    this.explorationConstantTwo * explore;
-
-            if (uctValue > bestValue) {
-                bestValue = uctValue;
-                bestIdx = i;
-                numBestFound = 1;
-            } else if (uctValue == bestValue) {
-                int randomInt = ThreadLocalRandom.current().nextInt();
-                ++numBestFound;
-                if (randomInt % numBestFound == 0) {
-                    bestIdx = i;
+        int moverAgent = ((implicitNode) current).getMoverAgent();
+        try (SelectionKernel kernel = SelectionKernel.gather(current, moverAgent)) {
+            // For all children, determine the uct value and the top K children (see "SelectionKernel")
+            kernel.score(1 - this.influenceEstimatedMinimax, this.influenceEstimatedMinimax, this.explorationConstant,
+                    parentLog, ExplorationTerm.SQRT, null);
+            int numTop = kernel.topK(this.K);
+
+            // Determine the best uct value with the second exploration value
+            // Ties are broken at random
+            int bestIdx = -1;
+            double bestValue = -Value.INF;
+            int numBestFound = 0;
+            for (int i = 0; i < numTop; i++) {
+                int index = kernel.topKIndex(i);
+                double uctValue = kernel.score(index, 1 - this.influenceEstimatedMinimax, this.influenceEstimatedMinimax,
+                        this.explorationConstantTwo, parentLog, ExplorationTerm.SQRT);
+
+                if (uctValue > bestValue) {
+                    bestValue = uctValue;
+                    bestIdx = index;
+                    numBestFound = 1;
+                } else if (uctValue == bestValue) {
+                    int randomInt = ThreadLocalRandom.current().nextInt();
+                    ++numBestFound;
+                    if (randomInt % numBestFound == 0) {
+                        bestIdx = index;
+                    }
                 }
             }
-        }
 
-        return bestIdx;
+            return bestIdx;
+        }
     }
 }
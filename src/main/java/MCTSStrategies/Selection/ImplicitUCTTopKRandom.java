@@ -6,9 +6,9 @@
 package MCTSStrategies.Selection;
 
 import MCTSStrategies.Node.implicitNode;
-import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.nodes.BaseNode;
+import utils.Enums.ExplorationTerm;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -49,86 +49,16 @@ public class ImplicitUCTTopKRandom extends ImplicitUCT {
      */
     public int select(MCTS mcts, BaseNode current) {
         // Initialise needed variables
-        int bestIdx = -1;
         double parentLog = Math.log((double) Math.max(1, current.sumLegalChildVisits()));
-        int numChildren = current.numLegalMoves();
-        State state = current.contextRef().state();
-        int moverAgent = state.playerToAgent(state.mover());
-        double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
-
-        // For all children, determine child with highest uct value
-        // Ties are broken at random
-        double exploit;
-        double explore;
-        double estimatedValue;
-        double[] uctValues = new double[numChildren];
-        for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
-            if (child == null) {
-                exploit = unvisitedValueEstimate;
-                explore = Math.sqrt(parentLog);
-                estimatedValue = ((implicitNode) current).getInitialEstimatedValue(i); // Own perspective
-            } else {
-                exploit = child.exploitationScore(moverAgent);
-                int numVisits = child.numVisits() + child.numVirtualVisits();
-                explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
-            }
-
-            uctValues[i] = (1 - this.influenceEstimatedMinimax) * exploit +
-                    this.influenceEstimatedMinimax * estimatedValue +
-                    this.explorationConstant * explore;
-        }
-
-        // Select random top element to play. Saves time when sorting since complexity is O(k*n)
-        int k = ThreadLocalRandom.current().nextInt(1, this.K + 1);
-
-        // Get the index of the kth-best UCT value
-        return getTopKIndex(uctValues, k)[k - 1];
-    }
-
-    /**
-     * Returns the indices of the top K maximum values of an array by using the
-     * Partial Selection Sort algorithm. Complexity: O(n*k)
-     *
-     * @param array array to select the indices from
-     * @param k     Number of top maximum values to get index from
-     * @return Indices of top k maximum values of the given array
-     */
-    protected int[] getTopKIndex(double[] array, int k) {
-        // Create requires objects
-        int n = array.length;
-        int[] topKIndices = new int[k];
-
-        // Copy the values from the array
-        double[] values = new double[n];
-        for (int i = 0; i < n; i++) {
-            values[i] = array[i];
-        }
-
-        // For all k
-        int maxIndex;
-        double maxValue;
-        for (int i = 0; i < k; i++) {
-            maxIndex = i;
-            maxValue = values[i];
-            // Loop over (unsorted) values and select the best
-            for (int j = i + 1; j < n; j++) {
-                if (values[j] > maxValue) {
-                    maxIndex = j;
-                    maxValue = values[j];
-                }
-            }
-
-            // Swap the values
-            values[maxIndex] = values[i];
-            values[i] = maxValue;
-
-            // Save index
-            topKIndices[i] = maxIndex;
+        int moverAgent = ((implicitNode) current).getMoverAgent();
+        try (SelectionKernel kernel = SelectionKernel.gather(current, moverAgent)) {
+            // For all children, determine the uct value and the top K children (see "SelectionKernel")
+            kernel.score(1 - this.influenceEstimatedMinimax, this.influenceEstimatedMinimax, this.explorationConstant,
+                    parentLog, ExplorationTerm.SQRT, null);
+            int numTop = kernel.topK(this.K);
+
+            // Select random top element to play
+            return kernel.topKIndex(ThreadLocalRandom.current().nextInt(numTop));
         }
-
-        return topKIndices;
     }
 }
@@ -11,6 +11,7 @@ import other.state.State;
 import search.mcts.MCTS;
 import search.mcts.backpropagation.BackpropagationStrategy;
 import search.mcts.nodes.BaseNode;
+import utils.LockFreeNodeUtils;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -98,7 +99,7 @@ public class ProgressiveBiasGRAVE extends ImplicitUCT {
         double beta;
         double estimatedScore;
         for (int i = 0; i < numChildren; ++i) {
-            implicitNode child = (implicitNode) current.childForNthLegalMove(i);
+            implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
             if (child == null) {
                 meanScore = unvisitedValueEstimate;
                 explore = Math.sqrt(parentLog);
@@ -110,8 +111,7 @@ public class ProgressiveBiasGRAVE extends ImplicitUCT {
                 meanScore = child.exploitationScore(moverAgent);
                 int numVisits = child.numVisits() + child.numVirtualVisits();
                 explore = Math.sqrt(parentLog / (double) numVisits);
-                estimatedValue = moverAgent == child.contextRef().state().playerToAgent(child.contextRef().state().mover()) ?
-                        child.getBestEstimatedValue() : -child.getBestEstimatedValue(); // Switch if opponent is in other perspective
+                estimatedValue = child.getParentBestEstimatedValue(); // Own perspective
                 estimatedScore = (this.progressiveWeight * estimatedValue) / numVisits;
 
                 final Move move = child.parentMove();
@@ -147,7 +147,7 @@ public class ProgressiveBiasGRAVE extends ImplicitUCT {
         }
 
         // This can help garbage collector to clean up a bit more easily
-        if (current.childForNthLegalMove(bestIdx) == null)
+        if (LockFreeNodeUtils.child(current, bestIdx) == null)
             currentRefNode.set(null);
 
         return bestIdx;
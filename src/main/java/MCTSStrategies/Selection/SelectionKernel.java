@@ -0,0 +1,467 @@
+package MCTSStrategies.Selection;
+
+import MCTSStrategies.Node.implicitNode;
+import search.mcts.nodes.BaseNode;
+import utils.Enums.ExplorationTerm;
+import utils.LockFreeNodeUtils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared scoring kernel of the implicit UCT selection strategies. The statistics of all children are gathered in
+ * contiguous primitive arrays, after which the score of every child is computed in a single loop as:
+ * exploitWeight * exploit + estimateWeight * estimate + explorationConstant * prior * explore
+ * where the exploration term is determined by the ExplorationTerm. The strategies only supply the coefficients (and
+ * optionally the priors, see "implicitNode.getExplorationPriors"). Strategies of which the influence of the estimated
+ * value depends on the child supply a weight per child instead (see "weights"), in which case the exploitation score
+ * is weighted by one minus that weight. The kernels are reused from a pool, such that no
+ * arrays are allocated during selection (also not by short-lived virtual threads). A kernel needs to be returned to
+ * the pool by closing it, e.g. with a try-with-resources statement.
+ */
+public class SelectionKernel implements AutoCloseable {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Pool of kernels which aren't used by any thread
+     */
+    protected static final ConcurrentLinkedQueue<SelectionKernel> KERNELS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Initial capacity of the buffers (grown when a node has more children)
+     */
+    protected static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Exploitation scores of the children (from the perspective of the mover)
+     */
+    protected double[] exploits = new double[INITIAL_CAPACITY];
+
+    /**
+     * Estimated values of the children (from the perspective of the mover)
+     */
+    protected double[] estimates = new double[INITIAL_CAPACITY];
+
+    /**
+     * Visits of the children, including virtual visits (1 for unexpanded children)
+     */
+    protected double[] visits = new double[INITIAL_CAPACITY];
+
+    /**
+     * Visits of the children, including virtual visits (0 for unexpanded children)
+     */
+    protected int[] numVisits = new int[INITIAL_CAPACITY];
+
+    /**
+     * Weights of the estimated values of the children, filled by the strategies (see "weights")
+     */
+    protected double[] weights = new double[INITIAL_CAPACITY];
+
+    /**
+     * Scores of the children
+     */
+    protected double[] scores = new double[INITIAL_CAPACITY];
+
+    /**
+     * Number of children gathered
+     */
+    protected int numChildren = 0;
+
+    /**
+     * Indices of the children with the highest scores (see "topK"), used as bounded min-heap on the scores while
+     * they're being determined and sorted in descending order of the scores afterwards
+     */
+    protected int[] topIndices = new int[8];
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Gathers the statistics of all children of the node in a kernel of the pool
+     *
+     * @param current    Node of which a child needs to be selected (implicit node)
+     * @param moverAgent ID of the agent to move in the node
+     * @return Kernel which can only be used by the current thread until it is closed
+     */
+    public static SelectionKernel gather(BaseNode current, int moverAgent) {
+        SelectionKernel kernel = KERNELS.poll();
+        if (kernel == null) {
+            kernel = new SelectionKernel();
+        }
+        kernel.fill((implicitNode) current, moverAgent);
+        return kernel;
+    }
+
+    /**
+     * Returns the kernel to the pool
+     */
+    @Override
+    public void close() {
+        KERNELS.offer(this);
+    }
+
+    /**
+     * Fills the buffers with the statistics of all children of the node
+     *
+     * @param current    Node of which a child needs to be selected
+     * @param moverAgent ID of the agent to move in the node
+     */
+    protected void fill(implicitNode current, int moverAgent) {
+        final int n = current.numLegalMoves();
+        this.ensureCapacity(n);
+        this.numChildren = n;
+
+        final double unvisitedValueEstimate = current.valueEstimateUnvisitedChildren(moverAgent);
+        for (int i = 0; i < n; i++) {
+            final implicitNode child = (implicitNode) LockFreeNodeUtils.child(current, i);
+            if (child == null) {
+                this.exploits[i] = unvisitedValueEstimate;
+                this.estimates[i] = current.getInitialEstimatedValue(i); // Own perspective
+                this.visits[i] = 1;
+                this.numVisits[i] = 0;
+            } else {
+                this.exploits[i] = child.exploitationScore(moverAgent);
+                this.estimates[i] = child.getParentBestEstimatedValue(); // Own perspective
+                this.numVisits[i] = child.numVisits() + child.numVirtualVisits();
+                this.visits[i] = this.numVisits[i];
+            }
+        }
+    }
+
+    /**
+     * Grows the buffers if they can't store the given number of children
+     *
+     * @param n Number of children
+     */
+    protected void ensureCapacity(int n) {
+        if (this.exploits.length < n) {
+            final int capacity = Math.max(n, 2 * this.exploits.length);
+            this.exploits = new double[capacity];
+            this.estimates = new double[capacity];
+            this.visits = new double[capacity];
+            this.numVisits = new int[capacity];
+            this.weights = new double[capacity];
+            this.scores = new double[capacity];
+        }
+    }
+
+    /**
+     * Selects the child with the highest score (see "score"), ties are broken at random
+     *
+     * @param exploitWeight       Weight of the exploitation score
+     * @param estimateWeight      Weight of the estimated value
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @param priors              Priors of the children which are multiplied with the exploration term (null if not
+     *                            used)
+     * @return The index of the selected child
+     */
+    public int select(double exploitWeight, double estimateWeight, double explorationConstant, double parentTerm,
+                      ExplorationTerm term, double[] priors) {
+        this.score(exploitWeight, estimateWeight, explorationConstant, parentTerm, term, priors);
+
+        return this.best();
+    }
+
+    /**
+     * Selects the child with the highest score (see "score" with a weight per child), ties are broken at random
+     *
+     * @param estimateWeights     Weight of the estimated value of every child (see "weights"), the exploitation score
+     *                            is weighted by one minus this weight
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @param priors              Priors of the children which are multiplied with the exploration term (null if not
+     *                            used)
+     * @return The index of the selected child
+     */
+    public int select(double[] estimateWeights, double explorationConstant, double parentTerm, ExplorationTerm term,
+                      double[] priors) {
+        this.score(estimateWeights, explorationConstant, parentTerm, term, priors);
+
+        return this.best();
+    }
+
+    /**
+     * Determines the child with the highest computed score, ties are broken at random
+     *
+     * @return The index of the child
+     */
+    protected int best() {
+        // Child with highest score, ties are broken at random
+        final int n = this.numChildren;
+        final double[] scores = this.scores;
+        int bestIdx = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int numBestFound = 0;
+        for (int i = 0; i < n; i++) {
+            final double score = scores[i];
+            if (score > bestValue) {
+                bestValue = score;
+                bestIdx = i;
+                numBestFound = 1;
+            } else if (score == bestValue) {
+                int randomInt = ThreadLocalRandom.current().nextInt();
+                ++numBestFound;
+                if (randomInt % numBestFound == 0) {
+                    bestIdx = i;
+                }
+            }
+        }
+
+        return bestIdx;
+    }
+
+    /**
+     * Computes the scores of all gathered children
+     *
+     * @param exploitWeight       Weight of the exploitation score
+     * @param estimateWeight      Weight of the estimated value
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @param priors              Priors of the children which are multiplied with the exploration term (null if not
+     *                            used)
+     */
+    public void score(double exploitWeight, double estimateWeight, double explorationConstant, double parentTerm,
+                      ExplorationTerm term, double[] priors) {
+        this.explore(explorationConstant, parentTerm, term, priors);
+
+        // Exploitation and estimated values
+        final int n = this.numChildren;
+        final double[] exploits = this.exploits;
+        final double[] estimates = this.estimates;
+        final double[] scores = this.scores;
+        for (int i = 0; i < n; i++) {
+            scores[i] += exploitWeight * exploits[i] + estimateWeight * estimates[i];
+        }
+    }
+
+    /**
+     * Computes the scores of all gathered children with a weight of the estimated value per child
+     *
+     * @param estimateWeights     Weight of the estimated value of every child (see "weights"), the exploitation score
+     *                            is weighted by one minus this weight
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @param priors              Priors of the children which are multiplied with the exploration term (null if not
+     *                            used)
+     */
+    public void score(double[] estimateWeights, double explorationConstant, double parentTerm, ExplorationTerm term,
+                      double[] priors) {
+        this.explore(explorationConstant, parentTerm, term, priors);
+
+        // Exploitation and estimated values
+        final int n = this.numChildren;
+        final double[] exploits = this.exploits;
+        final double[] estimates = this.estimates;
+        final double[] scores = this.scores;
+        for (int i = 0; i < n; i++) {
+            final double weight = estimateWeights[i];
+            scores[i] += (1 - weight) * exploits[i] + weight * estimates[i];
+        }
+    }
+
+    /**
+     * Writes the exploration term of all gathered children to the scores
+     *
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @param priors              Priors of the children which are multiplied with the exploration term (null if not
+     *                            used)
+     */
+    protected void explore(double explorationConstant, double parentTerm, ExplorationTerm term, double[] priors) {
+        final int n = this.numChildren;
+        final double[] visits = this.visits;
+        final double[] scores = this.scores;
+
+        switch (term) {
+            case SQRT:
+                for (int i = 0; i < n; i++) {
+                    scores[i] = explorationConstant * Math.sqrt(parentTerm / visits[i]);
+                }
+                break;
+            case INVERSE:
+                for (int i = 0; i < n; i++) {
+                    scores[i] = explorationConstant / visits[i];
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    scores[i] = explorationConstant;
+                }
+        }
+        if (priors != null) {
+            for (int i = 0; i < n; i++) {
+                scores[i] *= priors[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the score of a single gathered child (without priors)
+     *
+     * @param index               Index of the child
+     * @param exploitWeight       Weight of the exploitation score
+     * @param estimateWeight      Weight of the estimated value
+     * @param explorationConstant Exploration constant
+     * @param parentTerm          Numerator of the exploration term (only used by ExplorationTerm.SQRT)
+     * @param term                Exploration term
+     * @return Score of the child
+     */
+    public double score(int index, double exploitWeight, double estimateWeight, double explorationConstant,
+                        double parentTerm, ExplorationTerm term) {
+        final double explore;
+        switch (term) {
+            case SQRT:
+                explore = Math.sqrt(parentTerm / this.visits[index]);
+                break;
+            case INVERSE:
+                explore = 1 / this.visits[index];
+                break;
+            default:
+                explore = 1;
+        }
+
+        return explorationConstant * explore + exploitWeight * this.exploits[index] +
+                estimateWeight * this.estimates[index];
+    }
+
+    /**
+     * Determines the children with the K highest scores (see "score") with a bounded min-heap, which takes
+     * O(n log K) time and doesn't allocate memory once the buffer fits K. Children with equal scores are
+     * preferred in order of their index.
+     *
+     * @param k Number of children to determine
+     * @return Number of children determined (K, or the number of children if there are less)
+     */
+    public int topK(int k) {
+        final int n = this.numChildren;
+        final double[] scores = this.scores;
+        k = Math.min(k, n);
+        if (this.topIndices.length < k) {
+            this.topIndices = new int[k];
+        }
+        final int[] heap = this.topIndices;
+
+        // Keep the K best children, with the worst of them at the root of the heap
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size < k) {
+                heap[size] = i;
+                this.siftUp(heap, size++);
+            } else if (scores[i] > scores[heap[0]]) {
+                heap[0] = i;
+                this.siftDown(heap, 0, size);
+            }
+        }
+
+        // Sort the heap in descending order of the scores, by moving the worst child to the end
+        for (int end = size - 1; end > 0; end--) {
+            final int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            this.siftDown(heap, 0, end);
+        }
+
+        return size;
+    }
+
+    /**
+     * Moves an element of the min-heap up until its parent has a lower score
+     *
+     * @param heap     Min-heap of indices of children
+     * @param position Position of the element
+     */
+    protected void siftUp(int[] heap, int position) {
+        final double[] scores = this.scores;
+        final int element = heap[position];
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (scores[element] >= scores[heap[parent]]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = element;
+    }
+
+    /**
+     * Moves an element of the min-heap down until its children have a higher score
+     *
+     * @param heap     Min-heap of indices of children
+     * @param position Position of the element
+     * @param size     Size of the heap
+     */
+    protected void siftDown(int[] heap, int position, int size) {
+        final double[] scores = this.scores;
+        final int element = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && scores[heap[child + 1]] < scores[heap[child]]) {
+                child++;
+            }
+            if (scores[heap[child]] >= scores[element]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = element;
+    }
+
+    /**
+     * Getter for the index of the child with the i-th highest score (after calling "topK")
+     *
+     * @param i Rank of the child (0 for the best child)
+     * @return index of the child
+     */
+    public int topKIndex(int i) {
+        return this.topIndices[i];
+    }
+
+    /**
+     * Getter for the estimated values of the gathered children (only the first "numChildren" values are valid)
+     *
+     * @return estimated values
+     */
+    public double[] estimates() {
+        return this.estimates;
+    }
+
+    /**
+     * Getter for the visits of a gathered child, including virtual visits
+     *
+     * @param index Index of the child
+     * @return number of visits (0 for unexpanded children)
+     */
+    public int numVisits(int index) {
+        return this.numVisits[index];
+    }
+
+    /**
+     * Getter for the buffer in which the strategies can store a weight of the estimated value per child (see "score"
+     * with a weight per child). Only the first "numChildren" values are used.
+     *
+     * @return weights of the estimated values
+     */
+    public double[] weights() {
+        return this.weights;
+    }
+
+    /**
+     * Getter for the number of gathered children
+     *
+     * @return number of children
+     */
+    public int numChildren() {
+        return this.numChildren;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package MCTSStrategies.TimeManagement;
+
+import other.context.Context;
+import search.mcts.nodes.BaseNode;
+
+/**
+ * Time manager which allocates the time of every move from a clock:
+ * - With a game clock, every move gets the remaining time divided by the expected number of moves to go.
+ * - Without a game clock, every move gets the max number of seconds given to the agent, and the time saved by
+ * stopping early is banked, such that the total time stays the same.
+ * The search is extended (up to the extension factor, limited by the remaining time) when the best and second-best
+ * children of the root are close in visits or value, and stopped early when the most visited child can't be overtaken
+ * anymore in the remaining time (estimated with the current number of iterations per millisecond).
+ */
+public class ClockTimeManager implements TimeManager {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Minimum fraction of the allocated time searched before the search can be stopped early
+     */
+    protected static final double MIN_SEARCH_FRACTION = .1;
+
+    /**
+     * Number of seconds on the game clock (values less than 0 mean no game clock)
+     */
+    protected final double gameSeconds;
+
+    /**
+     * Expected number of moves to go, used to divide the game clock
+     */
+    protected final int movesToGo;
+
+    /**
+     * Maximum factor by which the allocated time can be extended
+     */
+    protected final double maxExtension;
+
+    /**
+     * Minimum ratio between the visits of the second-best and best child for which the children are close
+     */
+    protected final double closeVisitRatio;
+
+    /**
+     * Maximum difference between the values of the best and second-best child for which the children are close
+     */
+    protected final double closeValueMargin;
+
+    /**
+     * Remaining number of seconds on the clock (or banked, without game clock)
+     */
+    protected double remainingSeconds = 0;
+
+    /**
+     * Time (in milliseconds) at which the current search started
+     */
+    protected long startTime;
+
+    /**
+     * Time (in milliseconds) at which the current search should stop if the children aren't close
+     */
+    protected long targetStopTime;
+
+    /**
+     * Latest time (in milliseconds) at which the current search has to stop
+     */
+    protected long hardStopTime;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor without game clock (30 moves to go, extension factor 2, close visit ratio 0.8, close value margin
+     * 0.05)
+     */
+    public ClockTimeManager() {
+        this(-1);
+    }
+
+    /**
+     * Constructor with the number of seconds on the game clock (30 moves to go, extension factor 2, close visit ratio
+     * 0.8, close value margin 0.05)
+     *
+     * @param gameSeconds Number of seconds on the game clock (values less than 0 mean no game clock)
+     */
+    public ClockTimeManager(double gameSeconds) {
+        this(gameSeconds, 30, 2, .8, .05);
+    }
+
+    /**
+     * Constructor requiring all parameters as input
+     *
+     * @param gameSeconds      Number of seconds on the game clock (values less than 0 mean no game clock)
+     * @param movesToGo        Expected number of moves to go, used to divide the game clock
+     * @param maxExtension     Maximum factor by which the allocated time can be extended
+     * @param closeVisitRatio  Minimum ratio between the visits of the second-best and best child for which the
+     *                         children are close
+     * @param closeValueMargin Maximum difference between the values of the best and second-best child for which the
+     *                         children are close
+     */
+    public ClockTimeManager(double gameSeconds, int movesToGo, double maxExtension, double closeVisitRatio,
+                            double closeValueMargin) {
+        this.gameSeconds = gameSeconds;
+        this.movesToGo = movesToGo;
+        this.maxExtension = maxExtension;
+        this.closeVisitRatio = closeVisitRatio;
+        this.closeValueMargin = closeValueMargin;
+        this.reset();
+    }
+
+    /**
+     * Resets the clock at the start of a new game
+     */
+    @Override
+    public void reset() {
+        this.remainingSeconds = Math.max(0, this.gameSeconds);
+    }
+
+    /**
+     * Allocates the time of a new move from the clock
+     *
+     * @param context    Context of the game position of the move
+     * @param maxSeconds Max number of seconds of the move given to the agent (values less than 0 mean no limit)
+     * @param startTime  Time (in milliseconds) at which the search started
+     * @return Latest time (in milliseconds) at which the search has to stop
+     */
+    @Override
+    public long startMove(Context context, double maxSeconds, long startTime) {
+        final double targetSeconds;
+        if (this.gameSeconds > 0) {
+            targetSeconds = this.remainingSeconds / this.movesToGo;
+        } else if (maxSeconds > 0) {
+            this.remainingSeconds += maxSeconds;
+            targetSeconds = maxSeconds;
+        } else {
+            targetSeconds = -1;
+        }
+
+        this.startTime = startTime;
+        if (targetSeconds < 0) {
+            this.targetStopTime = Long.MAX_VALUE;
+            this.hardStopTime = Long.MAX_VALUE;
+        } else {
+            final double hardSeconds = Math.min(targetSeconds * this.maxExtension, this.remainingSeconds);
+            this.targetStopTime = startTime + (long) (Math.min(targetSeconds, hardSeconds) * 1000);
+            this.hardStopTime = startTime + (long) (hardSeconds * 1000);
+        }
+
+        return this.hardStopTime;
+    }
+
+    /**
+     * Determines when the search should stop: the target time is extended to the hard limit if the best and
+     * second-best children are close, and the search stops immediately if the best child can't be overtaken anymore
+     *
+     * @param root          Root node of the search
+     * @param mover         ID of the player to move in the root node
+     * @param numIterations Number of iterations performed during the current search
+     * @param now           Current time (in milliseconds)
+     * @return Time (in milliseconds) at which the search should stop
+     */
+    @Override
+    public long stopTime(BaseNode root, int mover, int numIterations, long now) {
+        if (this.hardStopTime == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        // Find the most visited and second most visited child
+        BaseNode best = null;
+        BaseNode second = null;
+        for (int i = 0; i < root.numLegalMoves(); i++) {
+            final BaseNode child = root.childForNthLegalMove(i);
+            if (child == null) {
+                continue;
+            } else if (best == null || child.numVisits() > best.numVisits()) {
+                second = best;
+                best = child;
+            } else if (second == null || child.numVisits() > second.numVisits()) {
+                second = child;
+            }
+        }
+        if (best == null || second == null) {
+            return this.targetStopTime;
+        }
+
+        // Extend the search if the children are close
+        final boolean close = second.numVisits() >= this.closeVisitRatio * best.numVisits() ||
+                Math.abs(best.expectedScore(mover) - second.expectedScore(mover)) <= this.closeValueMargin;
+        final long stopTime = close ? this.hardStopTime : this.targetStopTime;
+
+        // Stop early if the best child can't be overtaken in the remaining time
+        final long elapsed = now - this.startTime;
+        if (elapsed >= MIN_SEARCH_FRACTION * (this.targetStopTime - this.startTime)) {
+            final double remainingIterations = (double) numIterations / Math.max(1, elapsed) * (stopTime - now);
+            if (best.numVisits() - second.numVisits() > remainingIterations) {
+                return now;
+            }
+        }
+
+        return stopTime;
+    }
+
+    /**
+     * Subtracts the time used by the move from the clock
+     *
+     * @param now Current time (in milliseconds)
+     */
+    @Override
+    public void endMove(long now) {
+        this.remainingSeconds = Math.max(0, this.remainingSeconds - (now - this.startTime) / 1000.);
+    }
+
+    /**
+     * Getter for the remaining number of seconds on the clock
+     *
+     * @return Remaining number of seconds (or banked, without game clock)
+     */
+    public double getRemainingSeconds() {
+        return this.remainingSeconds;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package MCTSStrategies.TimeManagement;
+
+import other.context.Context;
+import search.mcts.nodes.BaseNode;
+
+/**
+ * Interface which can be used to implement different types of time management for MCTS (see "MCTS.setTimeManager").
+ * A time manager allocates the time of every move, and can extend or shorten the search based on the root node while
+ * searching.
+ */
+public interface TimeManager {
+    /**
+     * Resets the time manager at the start of a new game
+     */
+    void reset();
+
+    /**
+     * Allocates the time of a new move
+     *
+     * @param context    Context of the game position of the move
+     * @param maxSeconds Max number of seconds of the move given to the agent (values less than 0 mean no limit)
+     * @param startTime  Time (in milliseconds) at which the search started
+     * @return Latest time (in milliseconds) at which the search has to stop
+     */
+    long startMove(Context context, double maxSeconds, long startTime);
+
+    /**
+     * Determines when the search should stop based on the current statistics of the root node. Can be called by
+     * multiple threads while searching.
+     *
+     * @param root          Root node of the search
+     * @param mover         ID of the player to move in the root node
+     * @param numIterations Number of iterations performed during the current search
+     * @param now           Current time (in milliseconds)
+     * @return Time (in milliseconds) at which the search should stop (not later than the time of "startMove")
+     */
+    long stopTime(BaseNode root, int mover, int numIterations, long now);
+
+    /**
+     * Finishes the move, such that the time used is subtracted from the clock
+     *
+     * @param now Current time (in milliseconds)
+     */
+    void endMove(long now);
+}
\ No newline at end of file
@@ -110,8 +110,7 @@ public class TrainingSelectionWrapper implements FinalMoveSelectionStrategy {
      */
     public void storeNode(implicitNode node, int depth) {
         final Context context = node.contextRef();
-        final int mover = context.state().playerToAgent(context.state().mover());
-        final int multiplier = mover == 1 ? 1 : -1;
+        final int multiplier = node.getMoverAgent() == 1 ? 1 : -1;
         final long zobrist = context.state().fullHash(context);
         this.TTTraining.store(zobrist, (float) node.getBestEstimatedValue() * multiplier, depth,
                 this.leafEvaluator.boardToInput(context).data().asFloat());
@@ -0,0 +1,360 @@
+package utils;
+
+import other.context.Context;
+import utils.Enums.ReplacementPolicy;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe cache for evaluations of a GameStateEvaluator, which maps a (Zobrist) hash code to the value of the game
+ * state and the values of its children. The entries are stored with open addressing in primitive arrays, grouped in
+ * small buckets. Writes are synchronised per stripe of buckets, while reads are lock-free (optimistic reads with a
+ * version per slot, which are retried when a write happened during the read). When a bucket is full, the slot that
+ * gets replaced is determined by the replacement policy.
+ */
+public class ConcurrentEvaluationCache {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Number of slots in a single bucket (a key can only be stored in its own bucket)
+     */
+    protected static final int BUCKET_SIZE = 4;
+
+    /**
+     * Salt added to the hash code for each maximising player, since the evaluation depends on the maximising player
+     */
+    protected static final long[] PLAYER_SALTS = new long[]{0L, 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL};
+
+    /**
+     * Number of bits used for the index of the slots
+     */
+    protected final int numBits;
+
+    /**
+     * Mask to determine the first slot of the bucket of a hash code
+     */
+    protected final int bucketMask;
+
+    /**
+     * Hash codes of all slots
+     */
+    protected final long[] keys;
+
+    /**
+     * Values of the game states of all slots (NaN if unknown)
+     */
+    protected final float[] values;
+
+    /**
+     * Values of the children of the game states of all slots (null if unknown)
+     */
+    protected final float[][] moveValues;
+
+    /**
+     * Generation in which the slots were written for the last time
+     */
+    protected final int[] generations;
+
+    /**
+     * Version of all slots. Even versions indicate a stable slot, odd versions a slot that is being written,
+     * and 0 an empty slot.
+     */
+    protected final AtomicIntegerArray versions;
+
+    /**
+     * Locks used to synchronise the writes (a lock is shared by multiple buckets)
+     */
+    protected final Object[] locks;
+
+    /**
+     * Policy which determines the slot that gets replaced when a bucket is full
+     */
+    protected final ReplacementPolicy replacementPolicy;
+
+    /**
+     * Current generation of the cache
+     */
+    protected volatile int generation = 0;
+
+    /**
+     * Number of successful retrievals
+     */
+    protected final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of unsuccessful retrievals
+     */
+    protected final LongAdder misses = new LongAdder();
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor with the number of bits (cache has 2^numBits slots) and the replacement policy as input
+     *
+     * @param numBits           Number of bits used for the index of the slots
+     * @param replacementPolicy Policy which determines the slot that gets replaced when a bucket is full
+     */
+    public ConcurrentEvaluationCache(int numBits, ReplacementPolicy replacementPolicy) {
+        this.numBits = numBits;
+        this.replacementPolicy = replacementPolicy;
+
+        int numSlots = 1 << numBits;
+        this.bucketMask = (numSlots - 1) & ~(BUCKET_SIZE - 1);
+        this.keys = new long[numSlots];
+        this.values = new float[numSlots];
+        this.moveValues = new float[numSlots][];
+        this.generations = new int[numSlots];
+        this.versions = new AtomicIntegerArray(numSlots);
+
+        this.locks = new Object[Math.max(1, Math.min(1024, numSlots / BUCKET_SIZE))];
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Determines the key of the cache based on the Zobrist hash and maximising player, such that all evaluators
+     * using the cache store their evaluations with the same keys
+     *
+     * @param context          Ludii's context of the current game state
+     * @param maximisingPlayer Indicates the playerID of the player to move (either 1 or 2)
+     * @return Key of the cache
+     */
+    public static long key(Context context, int maximisingPlayer) {
+        return context.state().fullHash(context) ^ PLAYER_SALTS[maximisingPlayer];
+    }
+
+    /**
+     * Retrieves the value of the game state belonging to the hash code
+     *
+     * @param fullHash hash code to retrieve
+     * @return The stored value, NaN if not available
+     */
+    public float retrieveValue(long fullHash) {
+        int bucket = this.bucketIndex(fullHash);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            while (true) {
+                int version = this.versions.get(slot);
+                if (version == 0) {
+                    break;
+                } else if ((version & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                long key = this.keys[slot];
+                float value = this.values[slot];
+                VarHandle.loadLoadFence();
+                if (this.versions.get(slot) != version) {
+                    continue;
+                }
+
+                if (key == fullHash && !Float.isNaN(value)) {
+                    this.hits.increment();
+                    return value;
+                }
+                break;
+            }
+        }
+
+        this.misses.increment();
+        return Float.NaN;
+    }
+
+    /**
+     * Retrieves the values of the children of the game state belonging to the hash code
+     *
+     * @param fullHash    hash code to retrieve
+     * @param numChildren Expected number of children
+     * @return Copy of the stored values of the children, null if not available
+     */
+    public float[] retrieveMoveValues(long fullHash, int numChildren) {
+        int bucket = this.bucketIndex(fullHash);
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            while (true) {
+                int version = this.versions.get(slot);
+                if (version == 0) {
+                    break;
+                } else if ((version & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                long key = this.keys[slot];
+                float[] storedValues = this.moveValues[slot];
+                VarHandle.loadLoadFence();
+                if (this.versions.get(slot) != version) {
+                    continue;
+                }
+
+                if (key == fullHash && storedValues != null && storedValues.length == numChildren) {
+                    this.hits.increment();
+                    return storedValues.clone();
+                }
+                break;
+            }
+        }
+
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores the value of the game state belonging to the hash code, while keeping the values of the children
+     * untouched.
+     *
+     * @param fullHash hash code to store
+     * @param value    Value of the game state
+     */
+    public void storeValue(long fullHash, float value) {
+        this.store(fullHash, value, null);
+    }
+
+    /**
+     * Stores the values of the children of the game state belonging to the hash code, while keeping the value of
+     * the game state untouched.
+     *
+     * @param fullHash    hash code to store
+     * @param childValues Values of the children (a copy is stored)
+     */
+    public void storeMoveValues(long fullHash, float[] childValues) {
+        this.store(fullHash, Float.NaN, childValues.clone());
+    }
+
+    /**
+     * Stores the given information into the cache. If the hash code already exists, only the given information is
+     * overwritten (NaN and null are ignored). Otherwise, an empty slot of the bucket or the slot determined by the
+     * replacement policy is used.
+     *
+     * @param fullHash    hash code to store
+     * @param value       Value of the game state (NaN if unknown)
+     * @param childValues Values of the children (null if unknown)
+     */
+    protected void store(long fullHash, float value, float[] childValues) {
+        int bucket = this.bucketIndex(fullHash);
+        synchronized (this.locks[(bucket / BUCKET_SIZE) % this.locks.length]) {
+            // Find slot of hash code, or slot to replace
+            int selectedSlot = -1;
+            boolean existing = false;
+            for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+                int version = this.versions.get(slot);
+                if (version != 0 && this.keys[slot] == fullHash) {
+                    selectedSlot = slot;
+                    existing = true;
+                    break;
+                } else if (version == 0) {
+                    if (selectedSlot == -1 || this.versions.get(selectedSlot) != 0) {
+                        selectedSlot = slot;
+                    }
+                } else if (selectedSlot == -1 || (this.versions.get(selectedSlot) != 0 &&
+                        this.isBetterVictim(slot, selectedSlot))) {
+                    selectedSlot = slot;
+                }
+            }
+
+            // Write slot (odd version while writing)
+            int version = this.versions.get(selectedSlot);
+            this.versions.set(selectedSlot, version + 1);
+            VarHandle.storeStoreFence();
+
+            if (!existing) {
+                this.keys[selectedSlot] = fullHash;
+                this.values[selectedSlot] = Float.NaN;
+                this.moveValues[selectedSlot] = null;
+            }
+            if (!Float.isNaN(value)) {
+                this.values[selectedSlot] = value;
+            }
+            if (childValues != null) {
+                this.moveValues[selectedSlot] = childValues;
+            }
+            this.generations[selectedSlot] = this.generation;
+
+            this.versions.set(selectedSlot, version + 2);
+        }
+    }
+
+    /**
+     * Checks if the slot is a better slot to replace than the currently selected slot, based on the replacement
+     * policy
+     *
+     * @param slot         Slot to check
+     * @param selectedSlot Currently selected slot to replace
+     * @return True if the slot should be replaced instead of the selected slot
+     */
+    protected boolean isBetterVictim(int slot, int selectedSlot) {
+        switch (this.replacementPolicy) {
+            case OLDEST:
+                return this.generations[slot] < this.generations[selectedSlot];
+            case PREFER_CHILDREN:
+                // Prefer replacing slots without the values of the children, then the oldest
+                boolean slotHasChildren = this.moveValues[slot] != null;
+                boolean selectedHasChildren = this.moveValues[selectedSlot] != null;
+                if (slotHasChildren != selectedHasChildren) {
+                    return !slotHasChildren;
+                }
+                return this.generations[slot] < this.generations[selectedSlot];
+            case ALWAYS:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determines the first slot of the bucket belonging to the hash code
+     *
+     * @param fullHash hash code
+     * @return Index of the first slot of the bucket
+     */
+    protected int bucketIndex(long fullHash) {
+        return (int) (fullHash >>> (64 - this.numBits)) & this.bucketMask;
+    }
+
+    /**
+     * Starts a new generation, such that the entries stored from now on are seen as newer by the replacement policy
+     */
+    public void incrementGeneration() {
+        this.generation++;
+    }
+
+    /**
+     * Getter for the number of successful retrievals
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Getter for the number of unsuccessful retrievals
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Determines the rate of successful retrievals
+     *
+     * @return Hit rate (0 if nothing has been retrieved)
+     */
+    public double getHitRate() {
+        long hits = this.getHits();
+        long total = hits + this.getMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Resets the hit and miss counters
+     */
+    public void resetCounters() {
+        this.hits.reset();
+        this.misses.reset();
+    }
+}
@@ -72,4 +72,67 @@ public class Enums {
         private NetworkType() {
         }
     }
-}
+
+    /**
+     * Enum for the replacement policy of the ConcurrentEvaluationCache, which determines the entry that gets replaced
+     * when all slots of a bucket are used.
+     * "ALWAYS" replaces the first slot of the bucket, "OLDEST" replaces the entry of the oldest generation and
+     * "PREFER_CHILDREN" keeps the entries with values of the children over entries with only a single value.
+     */
+    public enum ReplacementPolicy {
+        ALWAYS,
+        OLDEST,
+        PREFER_CHILDREN;
+
+        private ReplacementPolicy() {
+        }
+    }
+
+    /**
+     * Enum for the backend used to evaluate game states with a NN by multiple threads.
+     * "MULTI" clones the NN for every thread (see "MultiNeuralNetworkLeafEvaluator"), "PARALLEL" uses DL4J's
+     * ParallelInference (see "ParallelNeuralNetworkLeafEvaluator"), "BATCHED" collects the requests of all threads
+     * in a single batch (see "BatchedNeuralNetworkLeafEvaluator"), "QUANTIZED" evaluates an int8 copy of the NN on
+     * the CPU without DL4J (see "QuantizedNeuralNetworkLeafEvaluator") and "FUSED" evaluates an fp32 copy of the NN
+     * without DL4J (see "FusedNeuralNetworkLeafEvaluator").
+     */
+    public enum NNBackend {
+        MULTI,
+        PARALLEL,
+        BATCHED,
+        QUANTIZED,
+        FUSED;
+
+        private NNBackend() {
+        }
+    }
+
+    /**
+     * Enum for the parallelisation of the MCTS search by multiple threads.
+     * "TREE" lets all threads search a shared tree (using virtual visits), "ROOT" lets every thread search its own
+     * tree, after which the statistics of the children of the roots are merged, and "LEAF" lets a single thread search
+     * the tree, while multiple play-outs are performed in parallel from every expanded leaf. Since "LEAF" requires
+     * play-outs, agents with evaluation-only iterations (no play-outs) search with "TREE" instead.
+     */
+    public enum ParallelMode {
+        TREE,
+        ROOT,
+        LEAF;
+
+        private ParallelMode() {
+        }
+    }
+
+    /**
+     * Enum for the exploration term used by the SelectionKernel, with n the visits of the child.
+     * "SQRT" uses sqrt(parentTerm / n), "INVERSE" uses 1 / n and "CONSTANT" uses 1 (unvisited children use n = 1).
+     */
+    public enum ExplorationTerm {
+        SQRT,
+        INVERSE,
+        CONSTANT;
+
+        private ExplorationTerm() {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package utils;
+
+import Evaluator.CachedEvaluatorWrapper;
+import Evaluator.GameStateEvaluator;
+import Evaluator.MultiNeuralNetworkTTLeafEvaluator;
+import Evaluator.NeuralNetworkLeafEvaluator;
+import Evaluator.OpeningBookEvaluatorWrapper;
+import Evaluator.SymmetricEvaluatorWrapper;
+import game.Game;
+import utils.Enums.ReplacementPolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Process-wide store of evaluation caches (see "ConcurrentEvaluationCache"). When enabled, every agent that uses the
+ * same model file (identified by the checksum of its content) in the same game shares a single cache, which lives
+ * across moves and games (e.g. all games of "Playground.playMultipleGames"). Instead of rebuilding the cache, a new
+ * generation is started for every search, such that old entries are replaced first.
+ * When disabled (default), every call returns a fresh cache, which results in the original behaviour.
+ * Optionally, symmetric game states share a single evaluation (see "SymmetricEvaluatorWrapper").
+ */
+public class EvaluationStore {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Number of bits used for the index of the slots of every cache
+     */
+    protected static final int NUM_BITS = 22;
+
+    /**
+     * All caches, keyed by the name of the game and the checksum of the model file
+     */
+    protected static final ConcurrentHashMap<String, ConcurrentEvaluationCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Indicates if the caches are shared across moves and games
+     */
+    protected static volatile boolean enabled = false;
+
+    /**
+     * Indicates if symmetric game states share their evaluation (see "SymmetricEvaluatorWrapper")
+     */
+    protected static volatile boolean symmetric = false;
+
+    /**
+     * Indicates if the perspective of the players can be switched when determining the canonical game state
+     */
+    protected static volatile boolean colourFlip = false;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Enables or disables the process-wide caches
+     *
+     * @param enabled True if the caches should be shared across moves and games
+     */
+    public static void setEnabled(boolean enabled) {
+        EvaluationStore.enabled = enabled;
+    }
+
+    /**
+     * Getter for enabled
+     *
+     * @return True if the caches are shared across moves and games
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the symmetric evaluations
+     *
+     * @param symmetric  True if symmetric game states should share their evaluation
+     * @param colourFlip True if the perspective of the players can be switched as well (only if the NN has been
+     *                   trained with this symmetry)
+     */
+    public static void setSymmetric(boolean symmetric, boolean colourFlip) {
+        EvaluationStore.symmetric = symmetric;
+        EvaluationStore.colourFlip = colourFlip;
+    }
+
+    /**
+     * Returns the cache belonging to the model file and game. If the store is disabled, a new cache is returned.
+     *
+     * @param game     Ludii's game
+     * @param pathName Path to the model file
+     * @return Cache for the evaluations of the model
+     */
+    public static ConcurrentEvaluationCache getCache(Game game, String pathName) {
+        return getCache(game, pathName, "");
+    }
+
+    /**
+     * Returns the cache belonging to the model file, game and type of key. If the store is disabled, a new cache is
+     * returned.
+     *
+     * @param game     Ludii's game
+     * @param pathName Path to the model file
+     * @param keyType  Type of the keys stored in the cache (caches with different keys can't be shared)
+     * @return Cache for the evaluations of the model
+     */
+    protected static ConcurrentEvaluationCache getCache(Game game, String pathName, String keyType) {
+        if (!enabled) {
+            return new ConcurrentEvaluationCache(NUM_BITS, ReplacementPolicy.OLDEST);
+        }
+
+        return caches.computeIfAbsent(game.name() + ":" + checksum(pathName) + keyType,
+                key -> new ConcurrentEvaluationCache(NUM_BITS, ReplacementPolicy.OLDEST));
+    }
+
+    /**
+     * Wraps the evaluator with the cache belonging to the model file and game. If symmetric evaluations are enabled,
+     * the game states are mapped to their canonical orientation first. If the store and the symmetric evaluations are
+     * disabled, the evaluator is returned unchanged.
+     *
+     * @param game      Ludii's game
+     * @param evaluator NN evaluator using the model file
+     * @param pathName  Path to the model file
+     * @return Evaluator using the process-wide cache (or the original evaluator)
+     */
+    public static NeuralNetworkLeafEvaluator wrap(Game game, NeuralNetworkLeafEvaluator evaluator, String pathName) {
+        if (symmetric) {
+            return new SymmetricEvaluatorWrapper(game, evaluator,
+                    getCache(game, pathName, colourFlip ? ":symmetric-flip" : ":symmetric"), true, colourFlip);
+        } else if (!enabled) {
+            return evaluator;
+        }
+
+        return new CachedEvaluatorWrapper(game, evaluator, getCache(game, pathName));
+    }
+
+    /**
+     * Starts a new generation in the cache of the evaluator (if it has one), such that the entries of previous
+     * searches are replaced first. Should be called at the start of every search.
+     *
+     * @param evaluator Evaluator used by the search
+     */
+    public static void nextGeneration(GameStateEvaluator evaluator) {
+        if (evaluator instanceof CachedEvaluatorWrapper) {
+            ((CachedEvaluatorWrapper) evaluator).getCache().incrementGeneration();
+        } else if (evaluator instanceof MultiNeuralNetworkTTLeafEvaluator) {
+            ((MultiNeuralNetworkTTLeafEvaluator) evaluator).getCache().incrementGeneration();
+        } else if (evaluator instanceof SymmetricEvaluatorWrapper) {
+            ((SymmetricEvaluatorWrapper) evaluator).getCache().incrementGeneration();
+        } else if (evaluator instanceof OpeningBookEvaluatorWrapper) {
+            nextGeneration(((OpeningBookEvaluatorWrapper) evaluator).getEvaluator());
+        }
+    }
+
+    /**
+     * Removes all caches from the store
+     */
+    public static void clear() {
+        caches.clear();
+    }
+
+    /**
+     * Determines the checksum (CRC32) of the content of the model file
+     *
+     * @param pathName Path to the model file
+     * @return Checksum of the model file (in hexadecimal)
+     */
+    protected static String checksum(String pathName) {
+        Path path = Paths.get(pathName);
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream stream = Files.newInputStream(path)) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return Long.toHexString(crc.getValue()) + "-" + Long.toHexString(path.toFile().length());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package utils;
+
+import search.mcts.nodes.BaseNode;
+import search.mcts.nodes.DeterministicNode;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Util to update the statistics and children of Ludii's (deterministic) nodes without locking the node, which is used
+ * by the lock-free selection of "MCTS". The fields of Ludii's nodes are accessed with VarHandles:
+ * - The number of visits and the (squared) scores are updated atomically.
+ * - Children are published by a CAS on their slot in the children array, such that threads that lose the race adopt
+ * the node of the winner.
+ * The number of virtual visits is already atomic in Ludii's nodes.
+ */
+public class LockFreeNodeUtils {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * VarHandle of the number of visits of a node
+     */
+    private static final VarHandle NUM_VISITS;
+
+    /**
+     * VarHandle of the total scores of a node
+     */
+    private static final VarHandle TOTAL_SCORES;
+
+    /**
+     * VarHandle of the sum of the squared scores of a node
+     */
+    private static final VarHandle SUM_SQUARED_SCORES;
+
+    /**
+     * VarHandle of the number of virtual visits of a node
+     */
+    private static final VarHandle NUM_VIRTUAL_VISITS;
+
+    /**
+     * VarHandle of the children of a deterministic node
+     */
+    private static final VarHandle CHILDREN;
+
+    /**
+     * VarHandle of the elements of the scores
+     */
+    private static final VarHandle SCORE = MethodHandles.arrayElementVarHandle(double[].class);
+
+    /**
+     * VarHandle of the elements of the children
+     */
+    private static final VarHandle CHILD = MethodHandles.arrayElementVarHandle(BaseNode[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup baseLookup = MethodHandles.privateLookupIn(BaseNode.class, MethodHandles.lookup());
+            NUM_VISITS = baseLookup.findVarHandle(BaseNode.class, "numVisits", int.class);
+            TOTAL_SCORES = baseLookup.findVarHandle(BaseNode.class, "totalScores", double[].class);
+            SUM_SQUARED_SCORES = baseLookup.findVarHandle(BaseNode.class, "sumSquaredScores", double[].class);
+            NUM_VIRTUAL_VISITS = baseLookup.findVarHandle(BaseNode.class, "numVirtualVisits", AtomicInteger.class);
+
+            MethodHandles.Lookup deterministicLookup = MethodHandles.privateLookupIn(DeterministicNode.class,
+                    MethodHandles.lookup());
+            CHILDREN = deterministicLookup.findVarHandle(DeterministicNode.class, "children", BaseNode[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Updates the node atomically based on the given utilities (same as Ludii's "BaseNode.update")
+     *
+     * @param node      Node which needs to be updated
+     * @param utilities Score for evaluated game position w.r.t. all players
+     */
+    public static void update(BaseNode node, double[] utilities) {
+        double[] totalScores = (double[]) TOTAL_SCORES.get(node);
+        double[] sumSquaredScores = (double[]) SUM_SQUARED_SCORES.get(node);
+
+        NUM_VISITS.getAndAdd(node, 1);
+        for (int p = 1; p < totalScores.length; ++p) {
+            SCORE.getAndAdd(totalScores, p, utilities[p]);
+            SCORE.getAndAdd(sumSquaredScores, p, utilities[p] * utilities[p]);
+        }
+        ((AtomicInteger) NUM_VIRTUAL_VISITS.get(node)).decrementAndGet();
+    }
+
+    /**
+     * Increments the number of visits of the node atomically
+     *
+     * @param node Node of which the visits need to be incremented
+     */
+    public static void incrementVisits(BaseNode node) {
+        NUM_VISITS.getAndAdd(node, 1);
+    }
+
+    /**
+     * Adds the statistics (visits and scores) of another node to the node atomically, e.g. to merge the trees of root
+     * parallelisation. Game theoretical values (see "Value.INF") aren't added: a proven value of the other node is
+     * copied, and a proven value of the node is kept.
+     *
+     * @param node  Node to which the statistics are added
+     * @param other Node of which the statistics are added
+     */
+    public static void addStatistics(BaseNode node, BaseNode other) {
+        double[] totalScores = (double[]) TOTAL_SCORES.get(node);
+        double[] sumSquaredScores = (double[]) SUM_SQUARED_SCORES.get(node);
+        double[] otherTotalScores = (double[]) TOTAL_SCORES.get(other);
+        double[] otherSumSquaredScores = (double[]) SUM_SQUARED_SCORES.get(other);
+
+        NUM_VISITS.getAndAdd(node, other.numVisits());
+        for (int p = 1; p < totalScores.length; ++p) {
+            if (Math.abs(otherTotalScores[p]) == Value.INF) {
+                SCORE.setVolatile(totalScores, p, otherTotalScores[p]);
+                SCORE.setVolatile(sumSquaredScores, p, otherSumSquaredScores[p]);
+            } else if (Math.abs((double) SCORE.getVolatile(totalScores, p)) != Value.INF) {
+                SCORE.getAndAdd(totalScores, p, otherTotalScores[p]);
+                SCORE.getAndAdd(sumSquaredScores, p, otherSumSquaredScores[p]);
+            }
+        }
+    }
+
+    /**
+     * Returns the child of the nth legal move, such that a child published by another thread is fully visible
+     *
+     * @param node Deterministic node
+     * @param n    Index of the legal move
+     * @return Child of the nth legal move (null if it hasn't been expanded)
+     */
+    public static BaseNode child(BaseNode node, int n) {
+        BaseNode[] children = (BaseNode[]) CHILDREN.get((DeterministicNode) node);
+        return (BaseNode) CHILD.getAcquire(children, n);
+    }
+
+    /**
+     * Publishes the child in the slot of the nth legal move, iff no other thread has done so already. The bookkeeping
+     * of Ludii's "addChild" is only performed by the winner, so once per child.
+     *
+     * @param node  Deterministic node
+     * @param child Newly created child
+     * @param n     Index of the legal move
+     * @return The child in the slot, which is the given child if this thread won the race, or the child of the winner
+     */
+    public static BaseNode addChild(BaseNode node, BaseNode child, int n) {
+        BaseNode[] children = (BaseNode[]) CHILDREN.get((DeterministicNode) node);
+        BaseNode winner = (BaseNode) CHILD.compareAndExchange(children, n, (BaseNode) null, child);
+        if (winner != null) {
+            return winner;
+        }
+
+        // Writes the same child again, but keeps the other statistics of Ludii's node correct
+        node.getLock().lock();
+        try {
+            node.addChild(child, n);
+        } finally {
+            node.getLock().unlock();
+        }
+
+        return child;
+    }
+
+    /**
+     * Removes the child from the slot of the nth legal move, iff the slot still contains the given child (e.g. to
+     * prune the subtree of the child)
+     *
+     * @param node  Deterministic node
+     * @param child Child which needs to be removed
+     * @param n     Index of the legal move
+     * @return True if the child has been removed
+     */
+    public static boolean removeChild(BaseNode node, BaseNode child, int n) {
+        BaseNode[] children = (BaseNode[]) CHILDREN.get((DeterministicNode) node);
+        return CHILD.compareAndSet(children, n, child, (BaseNode) null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,331 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only book with precomputed NN evaluations of opening positions, stored in a binary file which is memory-mapped
+ * (NIO). The file contains a header (including the checksum of the model file the book was generated with, see
+ * "EvaluationStore.checksum"), fixed-size records sorted by the (Zobrist) hash code of the game state and a
+ * section with the values of the children of all records. Lookups use a binary search directly on the mapped file, so
+ * no data is copied to the heap, and the book can be read by multiple threads at the same time.
+ * All values are stored with respect to player 1 (the output of the NN).
+ * The book can be generated with "Experiments.OpeningBookGenerator".
+ */
+public class OpeningBook {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Magic number at the start of every book file
+     */
+    protected static final int MAGIC = 0x4E4E424B;
+
+    /**
+     * Version of the file format
+     */
+    protected static final int VERSION = 2;
+
+    /**
+     * Maximum number of bytes of the checksum of the model file (ASCII, padded with zeros)
+     */
+    protected static final int CHECKSUM_SIZE = 32;
+
+    /**
+     * Number of bytes of the header (magic, version, number of records, number of child values, checksum of the
+     * model file)
+     */
+    protected static final int HEADER_SIZE = 16 + CHECKSUM_SIZE;
+
+    /**
+     * Number of bytes of a single record (hash code, value, offset of children, number of children, unused)
+     */
+    protected static final int RECORD_SIZE = 24;
+
+    /**
+     * Extension of the book file belonging to a model file
+     */
+    public static final String EXTENSION = ".book";
+
+    /**
+     * All loaded books, keyed by their path (the mapped file is shared by all agents)
+     */
+    protected static final ConcurrentHashMap<String, OpeningBook> books = new ConcurrentHashMap<>();
+
+    /**
+     * Memory-mapped content of the book file
+     */
+    protected final MappedByteBuffer buffer;
+
+    /**
+     * Number of records in the book
+     */
+    protected final int numRecords;
+
+    /**
+     * Position of the section with the values of the children
+     */
+    protected final int childSection;
+
+    /**
+     * Checksum of the model file the book was generated with (see "EvaluationStore.checksum")
+     */
+    protected final String modelChecksum;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor which maps the given book file
+     *
+     * @param pathName Path to the book file
+     * @throws IOException
+     */
+    protected OpeningBook(String pathName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathName), StandardOpenOption.READ)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new IOException(pathName + " isn't an opening book (version " + VERSION + ").");
+        }
+
+        this.numRecords = this.buffer.getInt(8);
+        this.childSection = HEADER_SIZE + this.numRecords * RECORD_SIZE;
+
+        byte[] checksum = new byte[CHECKSUM_SIZE];
+        this.buffer.get(16, checksum);
+        int length = 0;
+        while (length < CHECKSUM_SIZE && checksum[length] != 0) {
+            length++;
+        }
+        this.modelChecksum = new String(checksum, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the (shared) book of the given path
+     *
+     * @param pathName Path to the book file
+     * @return Memory-mapped book
+     */
+    public static OpeningBook load(String pathName) {
+        return books.computeIfAbsent(pathName, path -> {
+            try {
+                return new OpeningBook(path);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Determines the path of the book file belonging to a model file
+     *
+     * @param modelPathName Path to the model file
+     * @return Path to the book file
+     */
+    public static String bookPath(String modelPathName) {
+        return modelPathName + EXTENSION;
+    }
+
+    /**
+     * Checks if a book file exists for the model file
+     *
+     * @param modelPathName Path to the model file
+     * @return True if the book file exists
+     */
+    public static boolean exists(String modelPathName) {
+        return new File(bookPath(modelPathName)).isFile();
+    }
+
+    /**
+     * Checks if the book has been generated with the current content of the model file, such that a book of a
+     * retrained model isn't used
+     *
+     * @param modelPathName Path to the model file
+     * @return True if the checksum of the model file matches the checksum in the book
+     */
+    public boolean matches(String modelPathName) {
+        return this.modelChecksum.equals(EvaluationStore.checksum(modelPathName));
+    }
+
+    /**
+     * Searches the record of the hash code (binary search)
+     *
+     * @param fullHash hash code of the game state
+     * @return Index of the record, -1 if the game state isn't in the book
+     */
+    public int find(long fullHash) {
+        int low = 0;
+        int high = this.numRecords - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = this.buffer.getLong(HEADER_SIZE + mid * RECORD_SIZE);
+            if (key < fullHash) {
+                low = mid + 1;
+            } else if (key > fullHash) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Getter for the value of a record (w.r.t. player 1)
+     *
+     * @param record Index of the record (see "find")
+     * @return Value of the game state
+     */
+    public float value(int record) {
+        return this.buffer.getFloat(HEADER_SIZE + record * RECORD_SIZE + 8);
+    }
+
+    /**
+     * Retrieves the values of the children of a record for the given moves (w.r.t. player 1)
+     *
+     * @param record      Index of the record (see "find")
+     * @param moveIndices Indices of the legal moves of which the values are needed
+     * @return Values of the children, null if not all values are available
+     */
+    public float[] childValues(int record, ArrayList<Integer> moveIndices) {
+        int position = HEADER_SIZE + record * RECORD_SIZE;
+        int offset = this.buffer.getInt(position + 12);
+        int numChildren = this.buffer.getInt(position + 16);
+
+        float[] values = new float[moveIndices.size()];
+        for (int i = 0; i < values.length; i++) {
+            int index = moveIndices.get(i);
+            if (index >= numChildren) {
+                return null;
+            }
+
+            values[i] = this.buffer.getFloat(this.childSection + (offset + index) * 4);
+            if (Float.isNaN(values[i])) {
+                return null;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Getter for the number of records
+     *
+     * @return Number of game states in the book
+     */
+    public int size() {
+        return this.numRecords;
+    }
+
+    /**
+     * Getter for the checksum of the model file the book was generated with
+     *
+     * @return Checksum of the model file (see "EvaluationStore.checksum")
+     */
+    public String getModelChecksum() {
+        return this.modelChecksum;
+    }
+
+    /**
+     * Writes the entries to a book file, sorted by their hash code
+     *
+     * @param pathName      Path to the book file
+     * @param modelPathName Path to the model file used to evaluate the entries (its checksum is stored in the book)
+     * @param entries       All entries (each hash code should occur once)
+     * @throws IOException
+     */
+    public static void write(String pathName, String modelPathName, ArrayList<Entry> entries) throws IOException {
+        entries.sort(Comparator.comparingLong(entry -> entry.fullHash));
+
+        int numChildValues = 0;
+        for (Entry entry : entries) {
+            numChildValues += entry.childValues.length;
+        }
+
+        byte[] checksum = EvaluationStore.checksum(modelPathName).getBytes(StandardCharsets.US_ASCII);
+        if (checksum.length > CHECKSUM_SIZE) {
+            throw new IOException("Checksum of " + modelPathName + " doesn't fit in the book header.");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pathName)))) {
+            // Header
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            out.writeInt(numChildValues);
+            out.write(checksum);
+            out.write(new byte[CHECKSUM_SIZE - checksum.length]);
+
+            // Records
+            int offset = 0;
+            for (Entry entry : entries) {
+                out.writeLong(entry.fullHash);
+                out.writeFloat(entry.value);
+                out.writeInt(offset);
+                out.writeInt(entry.childValues.length);
+                out.writeInt(0);
+                offset += entry.childValues.length;
+            }
+
+            // Values of the children
+            for (Entry entry : entries) {
+                for (float childValue : entry.childValues) {
+                    out.writeFloat(childValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Single game state of the book, used to write the book file
+     */
+    public static final class Entry {
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * hash code of the game state
+         */
+        public final long fullHash;
+
+        /**
+         * Value of the game state (w.r.t. player 1)
+         */
+        public final float value;
+
+        /**
+         * Values of the children for all legal moves (w.r.t. player 1, NaN for terminal children)
+         */
+        public final float[] childValues;
+
+        //-------------------------------------------------------------------------
+
+        /**
+         * Constructor with the hash code, value and values of the children as input
+         *
+         * @param fullHash    hash code of the game state
+         * @param value       Value of the game state (w.r.t. player 1)
+         * @param childValues Values of the children for all legal moves (w.r.t. player 1, NaN for terminal children)
+         */
+        public Entry(long fullHash, float value, float[] childValues) {
+            this.fullHash = fullHash;
+            this.value = value;
+            this.childValues = childValues;
+        }
+    }
+}
\ No newline at end of file
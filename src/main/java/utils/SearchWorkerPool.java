@@ -0,0 +1,185 @@
+package utils;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Persistent pool of search workers, which stay warm between searches. Every search, all workers run the same task
+ * until it returns. The workers are parked on a Phaser between searches, so no CPU is spent while waiting, and no
+ * threads or tasks need to be created per search.
+ * - "run" starts a new round and waits (bounded) until all workers have finished the task.
+ * - "start" and "await" do the same, but allow the coordinator to continue in between (e.g. pondering).
+ * - "shutdown" terminates the workers and waits (bounded) until they have stopped. The time it took is measured.
+ */
+public class SearchWorkerPool {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Worker threads
+     */
+    protected final Thread[] workers;
+
+    /**
+     * Phaser which is advanced by the coordinator to start a new round (terminated to stop the workers)
+     */
+    protected final Phaser startSignal = new Phaser(1);
+
+    /**
+     * Phaser on which every worker arrives after finishing the task of a round
+     */
+    protected final Phaser doneSignal;
+
+    /**
+     * Task of the current round (published by the advance of the start signal)
+     */
+    protected volatile Runnable task = null;
+
+    /**
+     * Phase of the done signal of the last started round
+     */
+    protected int lastDonePhase = -1;
+
+    /**
+     * Time (in milliseconds) it took to shut down the workers (-1 if the pool hasn't been shut down)
+     */
+    protected long shutdownMillis = -1;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Constructor which starts the (daemon) worker threads
+     *
+     * @param numWorkers Number of workers
+     * @param name       Name used as prefix of the names of the threads
+     */
+    public SearchWorkerPool(int numWorkers, String name) {
+        this.doneSignal = new Phaser(numWorkers);
+        this.workers = new Thread[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            this.workers[i] = new Thread(this::work, name + "-worker-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Lets all workers run the task, and waits until all of them have finished or the time limit has been exceeded
+     *
+     * @param task          Task run by every worker
+     * @param timeoutMillis Maximum time (in milliseconds) to wait for the workers
+     * @return True if all workers finished the task within the time limit
+     */
+    public boolean run(Runnable task, long timeoutMillis) {
+        this.start(task);
+        return this.await(timeoutMillis);
+    }
+
+    /**
+     * Lets all workers run the task without waiting for them
+     *
+     * @param task Task run by every worker
+     */
+    public void start(Runnable task) {
+        // Workers that exceeded the time limit of the previous round need to finish first (they will, since the
+        // search is stopped by time, iterations or a stop signal)
+        if (this.lastDonePhase >= 0) {
+            this.doneSignal.awaitAdvance(this.lastDonePhase);
+        }
+
+        // Start the round
+        this.lastDonePhase = this.doneSignal.getPhase();
+        this.task = task;
+        this.startSignal.arrive();
+    }
+
+    /**
+     * Waits until all workers have finished the task of the last round or the time limit has been exceeded
+     *
+     * @param timeoutMillis Maximum time (in milliseconds) to wait for the workers
+     * @return True if all workers finished the task within the time limit
+     */
+    public boolean await(long timeoutMillis) {
+        if (this.lastDonePhase < 0) {
+            return true;
+        }
+
+        // Wait until all workers have arrived
+        try {
+            this.doneSignal.awaitAdvanceInterruptibly(this.lastDonePhase, timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stops the workers and waits until they have stopped or the time limit has been exceeded
+     *
+     * @param timeoutMillis Maximum time (in milliseconds) to wait for the workers
+     * @return True if all workers have stopped within the time limit
+     */
+    public boolean shutdown(long timeoutMillis) {
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.task = null;
+        this.startSignal.forceTermination();
+
+        boolean stopped = true;
+        for (Thread worker : this.workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stopped &= !worker.isAlive();
+        }
+
+        this.shutdownMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return stopped;
+    }
+
+    /**
+     * Loop of a worker: park until a round starts, run the task and arrive on the done signal
+     */
+    protected void work() {
+        int phase = 0;
+        while (true) {
+            phase = this.startSignal.awaitAdvance(phase);
+            Runnable task = this.task;
+            if (phase < 0 || task == null) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (final Exception e) {
+                e.printStackTrace();
+            } finally {
+                this.doneSignal.arrive();
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of workers
+     *
+     * @return Number of workers
+     */
+    public int numWorkers() {
+        return this.workers.length;
+    }
+
+    /**
+     * Getter for the time it took to shut down the workers
+     *
+     * @return Time (in milliseconds) it took to shut down the workers (-1 if the pool hasn't been shut down)
+     */
+    public long getShutdownMillis() {
+        return this.shutdownMillis;
+    }
+}
\ No newline at end of file
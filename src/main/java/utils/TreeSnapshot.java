@@ -0,0 +1,275 @@
+package utils;
+
+import MCTSStrategies.Node.implicitNode;
+import MCTSStrategies.Node.implicitSolverNode;
+import other.context.Context;
+import search.mcts.MCTS;
+import search.mcts.nodes.BaseNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Util to store a searched (implicit) MCTS tree in a compact binary file, and to restore it as the root of a later
+ * search (e.g. to resume long analyses or to ship pre-searched opening trees). The file is written with NIO channels
+ * and read from a memory mapped buffer. The nodes are stored in pre-order, every node consists of:
+ * - the index of its move in the legal moves of the parent (-1 for the root)
+ * - the number of visits, the total scores and the sum of the squared scores of both players (proven values are
+ * stored as Value.INF in the total scores)
+ * - the best estimated value and its index, and the initial estimated values of all children
+ * - the number of stored children, which directly follow the node
+ * Game states aren't stored, they are reconstructed by applying the moves from the context of the root. Only trees
+ * of two players games are supported (as assumed by the implicit nodes).
+ */
+public class TreeSnapshot {
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Identifies the file as tree snapshot
+     */
+    protected static final int MAGIC = 0x4D435453;
+
+    /**
+     * Version of the file format
+     */
+    protected static final int VERSION = 1;
+
+    /**
+     * Size of the buffer used to write the file
+     */
+    protected static final int BUFFER_SIZE = 1 << 16;
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Writes the tree of the root to the file
+     *
+     * @param root Root node of the tree (implicit node)
+     * @param path Path to the file (overwritten if it exists)
+     * @return Number of nodes written
+     * @throws IOException
+     */
+    public static int export(BaseNode root, Path path) throws IOException {
+        if (!(root instanceof implicitNode)) {
+            throw new IllegalArgumentException("Only trees of implicit nodes can be exported");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            // Header (the number of nodes is written at the end)
+            final Context context = root.contextRef();
+            final byte[] gameName = context.game().name().getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putShort((short) gameName.length);
+            buffer.put(gameName);
+            buffer.putLong(context.state().fullHash(context));
+            buffer.put((byte) (root instanceof implicitSolverNode ? 1 : 0));
+            final long numNodesPosition = buffer.position();
+            buffer.putInt(0);
+
+            // Nodes (pre-order), the children are pushed in reverse order such that they're written in order
+            int numNodes = 0;
+            final List<BaseNode> stack = new ArrayList<>();
+            final List<Integer> moveIndices = new ArrayList<>();
+            stack.add(root);
+            moveIndices.add(-1);
+            final List<BaseNode> children = new ArrayList<>();
+            final List<Integer> childIndices = new ArrayList<>();
+            while (!stack.isEmpty()) {
+                final implicitNode node = (implicitNode) stack.remove(stack.size() - 1);
+                final int moveIndex = moveIndices.remove(moveIndices.size() - 1);
+
+                children.clear();
+                childIndices.clear();
+                for (int i = 0; i < node.numLegalMoves(); i++) {
+                    final BaseNode child = LockFreeNodeUtils.child(node, i);
+                    if (child != null) {
+                        children.add(child);
+                        childIndices.add(i);
+                    }
+                }
+
+                ensureRemaining(channel, buffer, 4 * Integer.BYTES + 5 * Double.BYTES);
+                buffer.putInt(moveIndex);
+                buffer.putInt(node.numVisits());
+                for (int p = 1; p <= 2; p++) {
+                    buffer.putDouble(node.totalScore(p));
+                    buffer.putDouble(node.getSumSquaredScore(p));
+                }
+                buffer.putDouble(node.getBestEstimatedValue());
+                buffer.putInt(node.getBestEstimatedIndex());
+                buffer.putInt(node.numInitialEstimatedValues());
+                for (int i = 0; i < node.numInitialEstimatedValues(); i++) {
+                    ensureRemaining(channel, buffer, Double.BYTES);
+                    buffer.putDouble(node.getInitialEstimatedValue(i));
+                }
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(children.size());
+                numNodes++;
+
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.add(children.get(i));
+                    moveIndices.add(childIndices.get(i));
+                }
+            }
+            flush(channel, buffer);
+
+            // Number of nodes in the header
+            final ByteBuffer numNodesBuffer = ByteBuffer.allocate(Integer.BYTES).putInt(0, numNodes);
+            channel.write(numNodesBuffer, numNodesPosition);
+
+            return numNodes;
+        }
+    }
+
+    /**
+     * Restores the tree of a file, which can be used as root node of the search of the given game position
+     *
+     * @param mcts    Ludii's MCTS class which uses the tree
+     * @param path    Path to the file
+     * @param context Context of the game position of the root (needs to match the stored root)
+     * @return Root node of the restored tree
+     * @throws IOException
+     */
+    public static BaseNode load(MCTS mcts, Path path, Context context) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            // Header
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalArgumentException(path + " isn't a tree snapshot of this version");
+            }
+            final byte[] gameName = new byte[buffer.getShort()];
+            buffer.get(gameName);
+            final long rootHash = buffer.getLong();
+            if (!context.game().name().equals(new String(gameName, StandardCharsets.UTF_8)) ||
+                    rootHash != context.state().fullHash(context)) {
+                throw new IllegalArgumentException(path + " doesn't belong to the given game position");
+            }
+            final boolean solver = buffer.get() == 1;
+            final int numNodes = buffer.getInt();
+
+            // Nodes (pre-order), the stack contains the nodes of which not all children have been restored
+            BaseNode root = null;
+            final List<BaseNode> parents = new ArrayList<>();
+            final List<Integer> numChildrenLeft = new ArrayList<>();
+            final double[] totalScores = new double[3];
+            final double[] sumSquaredScores = new double[3];
+            for (int n = 0; n < numNodes; n++) {
+                final int moveIndex = buffer.getInt();
+                final int numVisits = buffer.getInt();
+                for (int p = 1; p <= 2; p++) {
+                    totalScores[p] = buffer.getDouble();
+                    sumSquaredScores[p] = buffer.getDouble();
+                }
+                final double bestEstimatedValue = buffer.getDouble();
+                final int bestEstimatedIndex = buffer.getInt();
+                final int numInitialEstimatedValues = buffer.getInt();
+                double[] initialEstimatedValues = null;
+                if (numInitialEstimatedValues > 0) {
+                    initialEstimatedValues = new double[numInitialEstimatedValues];
+                    buffer.asDoubleBuffer().get(initialEstimatedValues);
+                    buffer.position(buffer.position() + numInitialEstimatedValues * Double.BYTES);
+                }
+                final int numChildren = buffer.getInt();
+
+                // Reconstruct the game state by applying the move to the game state of the parent
+                final implicitNode node;
+                if (root == null) {
+                    node = createNode(mcts, solver, null, new Context(context), moveIndex, initialEstimatedValues,
+                            bestEstimatedValue, bestEstimatedIndex);
+                    root = node;
+                } else {
+                    final int last = parents.size() - 1;
+                    final BaseNode parent = parents.get(last);
+                    numChildrenLeft.set(last, numChildrenLeft.get(last) - 1);
+                    if (numChildrenLeft.get(last) == 0) {
+                        parents.remove(last);
+                        numChildrenLeft.remove(last);
+                    }
+
+                    final Context childContext = new Context(parent.contextRef());
+                    childContext.game().apply(childContext, parent.nthLegalMove(moveIndex));
+                    node = createNode(mcts, solver, parent, childContext, moveIndex, initialEstimatedValues,
+                            bestEstimatedValue, bestEstimatedIndex);
+                    parent.addChild(node, moveIndex);
+                }
+                node.restoreStatistics(numVisits, totalScores, sumSquaredScores);
+
+                if (numChildren > 0) {
+                    parents.add(node);
+                    numChildrenLeft.add(numChildren);
+                }
+            }
+
+            return root;
+        }
+    }
+
+    /**
+     * Creates a node of the restored tree
+     *
+     * @param mcts                   Ludii's MCTS class which uses the tree
+     * @param solver                 Indicates if the tree consists of implicit solver nodes
+     * @param parent                 Parent node (null for the root)
+     * @param context                Context of the node
+     * @param moveIndex              Index of the move in the legal moves of the parent
+     * @param initialEstimatedValues Initial estimated values of all children (null for terminal game states)
+     * @param bestEstimatedValue     Best estimated value of the node
+     * @param bestEstimatedIndex     Index of the child with the best estimated value
+     * @return Restored node (without statistics)
+     */
+    protected static implicitNode createNode(MCTS mcts, boolean solver, BaseNode parent, Context context,
+                                             int moveIndex, double[] initialEstimatedValues,
+                                             double bestEstimatedValue, int bestEstimatedIndex) {
+        if (solver) {
+            return new implicitSolverNode(mcts, parent, parent == null ? null : context.trial().lastMove(),
+                    parent == null ? null : parent.nthLegalMove(moveIndex), context, initialEstimatedValues,
+                    bestEstimatedValue, bestEstimatedIndex);
+        }
+
+        return new implicitNode(mcts, parent, parent == null ? null : context.trial().lastMove(),
+                parent == null ? null : parent.nthLegalMove(moveIndex), context, initialEstimatedValues,
+                bestEstimatedValue, bestEstimatedIndex);
+    }
+
+    /**
+     * Writes the buffer to the channel if the buffer doesn't have the required space left
+     *
+     * @param channel  Channel of the file
+     * @param buffer   Buffer of the channel
+     * @param numBytes Number of bytes that need to fit in the buffer
+     * @throws IOException
+     */
+    protected static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int numBytes) throws IOException {
+        if (buffer.remaining() < numBytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer to the channel and clears the buffer
+     *
+     * @param channel Channel of the file
+     * @param buffer  Buffer of the channel
+     * @throws IOException
+     */
+    protected static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
\ No newline at end of file